@@ -0,0 +1,16 @@
+-- One open issue per student and book (backs the duplicate check in Admin.issueBookToStudent).
+-- OpenBookID is a virtual column that is NULL once an issue is returned, and NULLs never
+-- collide in a unique index, so returned issues don't count.
+--
+-- Run once per database, off-hours: adding the virtual column is instant on MySQL 8, but
+-- building the unique index reads all of book_issues. It fails if a student already holds
+-- two open issues of the same book; list those first and resolve them:
+--
+--   SELECT UserID, BookID, COUNT(*) FROM book_issues
+--   WHERE Status != 'returned' GROUP BY UserID, BookID HAVING COUNT(*) > 1;
+--
+-- The application only checks for the index at startup and logs a warning if it is missing.
+
+ALTER TABLE book_issues
+    ADD COLUMN OpenBookID INT AS (IF(Status = 'returned', NULL, BookID)) VIRTUAL,
+    ADD UNIQUE KEY uq_book_issues_open (UserID, OpenBookID);
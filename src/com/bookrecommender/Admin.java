@@ -1,397 +1,837 @@
-package com.bookrecommender; // Ensure this package declaration is present
-
-// Add all necessary imports
-import java.sql.*;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-// No need to import BookRecommendationSystem if Admin doesn't directly call static methods from it anymore
-// Correction: addNewBook calls BookRecommendationSystem.loadBooks(), so the import IS needed.
-import com.bookrecommender.BookRecommendationSystem;
-
-
-/**
- * Represents an Admin user and handles admin-specific operations
- * interacting with the database. Designed for use with a GUI.
- */
-public class Admin { // Make the class public
-    private int userId;
-    private String username;
-    private String name;
-    // No longer holds Connection
-
-    // Private constructor - instances created via static login method
-    private Admin(int userId, String username, String name) {
-        this.userId = userId;
-        this.username = username;
-        this.name = name;
-    }
-
-    // --- Getters ---
-    public int getUserId() {
-        return userId;
-    }
-
-    public String getUsername() {
-        return username;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    // --- Static Methods for GUI Interaction ---
-
-    /**
-     * Attempts to log in an admin user.
-     *
-     * @param conn     The active database connection.
-     * @param username The username entered by the user.
-     * @param password The password entered by the user.
-     * @return An Admin object if login is successful, null otherwise.
-     * @throws SQLException If a database access error occurs.
-     */
-    public static Admin login(Connection conn, String username, String password) throws SQLException {
-        // TODO: Implement password hashing and comparison
-        String query = "SELECT UserID, Name FROM users WHERE Username = ? AND Password = ? AND Role = 'admin'";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, password); // Compare plain text password - VERY INSECURE
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                // Login successful
-                return new Admin(rs.getInt("UserID"), username, rs.getString("Name"));
-            } else {
-                // Login failed (invalid credentials or not an admin)
-                return null;
-            }
-        }
-    }
-
-    /**
-     * Retrieves the User ID for a given username and role.
-     * @param conn The database connection.
-     * @param username The username to lookup.
-     * @param role The role to match (e.g., 'student').
-     * @return The UserID if found, otherwise -1.
-     * @throws SQLException If a database error occurs.
-     */
-    private static int getUserIdByUsername(Connection conn, String username, String role) throws SQLException {
-        String query = "SELECT UserID FROM users WHERE Username = ? AND Role = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, role);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? rs.getInt("UserID") : -1; // Return UserID if found, else -1
-        }
-    }
-
-
-    /**
-     * Issues a book to a specified student. Performs checks before issuing.
-     *
-     * @param conn            The database connection.
-     * @param studentUsername The username of the student receiving the book.
-     * @param bookId          The ID of the book to issue.
-     * @return A success or error message string.
-     * @throws SQLException If an unexpected database error occurs during checks or transaction.
-     */
-    public static String issueBookToStudent(Connection conn, String studentUsername, int bookId) throws SQLException {
-        // 1. Validate student username
-        if (studentUsername == null || studentUsername.trim().isEmpty()) {
-            return "Error: Student username cannot be empty.";
-        }
-        studentUsername = studentUsername.trim();
-
-        // 2. Get student ID
-        int studentId = getUserIdByUsername(conn, studentUsername, "student");
-        if (studentId == -1) {
-            return "Error: Student username '" + studentUsername + "' not found.";
-        }
-
-        // 3. Check Book Existence and Availability
-        String bookTitle = null;
-        String bookCheckQuery = "SELECT Title, AvailableCopies FROM books WHERE BookID = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(bookCheckQuery)) {
-            pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
-            if (!rs.next()) {
-                return "Error: Book ID " + bookId + " not found.";
-            }
-            bookTitle = rs.getString("Title");
-            int availableCopies = rs.getInt("AvailableCopies");
-            if (availableCopies < 1) {
-                return "Error: No copies of '" + bookTitle + "' (ID: " + bookId + ") are currently available.";
-            }
-        }
-
-        // 4. Check if student already has this book issued (and not returned)
-        String checkExistingIssueQuery = "SELECT IssueID FROM book_issues WHERE UserID = ? AND BookID = ? AND Status != 'returned'";
-        try (PreparedStatement checkStmt = conn.prepareStatement(checkExistingIssueQuery)) {
-            checkStmt.setInt(1, studentId);
-            checkStmt.setInt(2, bookId);
-            ResultSet checkRs = checkStmt.executeQuery();
-            if (checkRs.next()) {
-                return "Error: Student '" + studentUsername + "' already has book '" + bookTitle + "' (ID: " + bookId + ") issued.";
-            }
-        }
-
-        // 5. Perform Issue Transaction
-        LocalDate issueDate = LocalDate.now();
-        LocalDate dueDate = issueDate.plusDays(14); // 14-day loan period
-
-        conn.setAutoCommit(false); // Start transaction
-        try {
-            // a. Insert issue record
-            String issueQuery = "INSERT INTO book_issues (BookID, UserID, IssueDate, DueDate, Status) VALUES (?, ?, ?, ?, 'issued')";
-            try (PreparedStatement issueStmt = conn.prepareStatement(issueQuery)) {
-                issueStmt.setInt(1, bookId);
-                issueStmt.setInt(2, studentId);
-                issueStmt.setDate(3, Date.valueOf(issueDate));
-                issueStmt.setDate(4, Date.valueOf(dueDate));
-                issueStmt.executeUpdate();
-            }
-
-            // b. Update available copies count
-            String updateQuery = "UPDATE books SET AvailableCopies = AvailableCopies - 1 WHERE BookID = ?";
-            try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                updateStmt.setInt(1, bookId);
-                updateStmt.executeUpdate();
-            }
-
-            // c. Add to user history
-            String historyQuery = "INSERT INTO user_book_history (UserID, BookID, InteractionType, Timestamp) VALUES (?, ?, 'issued', NOW())";
-            try (PreparedStatement historyStmt = conn.prepareStatement(historyQuery)) {
-                historyStmt.setInt(1, studentId);
-                historyStmt.setInt(2, bookId);
-                historyStmt.executeUpdate();
-            }
-
-            conn.commit(); // Commit transaction
-            // Reload books in main system to reflect count change? Optional.
-            // BookRecommendationSystem.loadBooks();
-            return "Success: Book '" + bookTitle + "' (ID: " + bookId + ") issued to '" + studentUsername + "'. Due: " + dueDate;
-
-        } catch (SQLException e) {
-            conn.rollback(); // Rollback transaction on error
-            System.err.println("Transaction failed during book issue: " + e.getMessage());
-            // Return a specific error or re-throw
-            return "Error: Database transaction failed during issue. Reason: " + e.getMessage();
-        } finally {
-            conn.setAutoCommit(true); // Restore default commit behavior
-        }
-    }
-
-
-    /**
-     * Calculates and updates fines for a specific student's overdue books.
-     * Changes status of newly overdue books to 'overdue'.
-     *
-     * @param conn            The database connection.
-     * @param studentUsername The username of the student.
-     * @return A status message detailing calculated fines and total outstanding fine.
-     * @throws SQLException If an unexpected database error occurs.
-     */
-    public static String calculateFineForStudent(Connection conn, String studentUsername) throws SQLException {
-        // 1. Validate username
-        if (studentUsername == null || studentUsername.trim().isEmpty()) {
-            return "Error: Student username cannot be empty.";
-        }
-        studentUsername = studentUsername.trim();
-
-        // 2. Get student ID
-        int studentId = getUserIdByUsername(conn, studentUsername, "student");
-        if (studentId == -1) {
-            return "Error: Student username '" + studentUsername + "' not found.";
-        }
-
-        // 3. Find newly overdue books (Status = 'issued' and DueDate < Today)
-        String query = "SELECT bi.IssueID, b.Title, bi.DueDate " +
-                       "FROM book_issues bi JOIN books b ON bi.BookID = b.BookID " +
-                       "WHERE bi.UserID = ? AND bi.Status = 'issued' AND bi.DueDate < CURDATE()";
-
-        Map<Integer, Double> finesToUpdate = new HashMap<>();
-        double totalNewFineCalculated = 0;
-        StringBuilder fineDetails = new StringBuilder();
-        final double FINE_RATE_PER_DAY = 0.50; // Example fine rate
-
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, studentId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                int issueId = rs.getInt("IssueID");
-                String title = rs.getString("Title");
-                LocalDate dueDate = rs.getDate("DueDate").toLocalDate();
-                long daysOverdue = ChronoUnit.DAYS.between(dueDate, LocalDate.now());
-
-                if (daysOverdue > 0) {
-                    double fine = daysOverdue * FINE_RATE_PER_DAY;
-                    finesToUpdate.put(issueId, fine);
-                    totalNewFineCalculated += fine;
-                    fineDetails.append(String.format("- '%s' (Issue %d): %d days overdue, New Fine: $%.2f\n",
-                                                    title, issueId, daysOverdue, fine));
-                }
-            }
-        }
-
-        // 4. Update Database if new fines were calculated
-        if (!finesToUpdate.isEmpty()) {
-            String updateQuery = "UPDATE book_issues SET Fine = ?, Status = 'overdue' WHERE IssueID = ?";
-            conn.setAutoCommit(false); // Start transaction
-            try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                for (Map.Entry<Integer, Double> entry : finesToUpdate.entrySet()) {
-                    updateStmt.setDouble(1, entry.getValue());
-                    updateStmt.setInt(2, entry.getKey());
-                    updateStmt.addBatch();
-                }
-                updateStmt.executeBatch();
-                conn.commit();
-                fineDetails.insert(0, "Calculated and updated fines for:\n");
-                fineDetails.append(String.format("Total New Fine Added: $%.2f\n", totalNewFineCalculated));
-            } catch (SQLException e) {
-                conn.rollback();
-                System.err.println("Error updating fines: " + e.getMessage());
-                return "Error: Database transaction failed while updating fines. Reason: " + e.getMessage();
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        } else {
-            fineDetails.append("No newly overdue books found for '").append(studentUsername).append("'.\n");
-        }
-
-        // 5. Get Total Outstanding Fine
-        String fineCheckQuery = "SELECT SUM(Fine) AS TotalFine FROM book_issues WHERE UserID = ? AND Status != 'returned'";
-        try (PreparedStatement fineStmt = conn.prepareStatement(fineCheckQuery)) {
-            fineStmt.setInt(1, studentId);
-            ResultSet fineRs = fineStmt.executeQuery();
-            if (fineRs.next()) {
-                double totalOutstandingFine = fineRs.getDouble("TotalFine");
-                fineDetails.append(String.format("Total Current Outstanding Fine: $%.2f", totalOutstandingFine));
-            }
-        }
-
-        return fineDetails.toString();
-    }
-
-
-    /**
-     * Retrieves a list of all currently issued (not returned) books across all students.
-     *
-     * @param conn The database connection.
-     * @return A List of String arrays for JTable display: [IssueID, Student Username, Book Title, BookID, Issue Date, Due Date, Status, Fine]. Empty list if none.
-     * @throws SQLException If a database error occurs.
-     */
-    public static List<String[]> getAllIssuedBooks(Connection conn) throws SQLException {
-        List<String[]> allIssuedBooksData = new ArrayList<>();
-        String query = "SELECT bi.IssueID, u.Username AS StudentUsername, b.Title, b.BookID, bi.IssueDate, bi.DueDate, bi.Status, bi.Fine " +
-                       "FROM book_issues bi " +
-                       "JOIN books b ON bi.BookID = b.BookID " +
-                       "JOIN users u ON bi.UserID = u.UserID " +
-                       "WHERE bi.Status != 'returned' " +
-                       "ORDER BY u.Username, bi.DueDate";
-
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                allIssuedBooksData.add(new String[]{
-                    rs.getString("IssueID"),
-                    rs.getString("StudentUsername"),
-                    rs.getString("Title"),
-                    rs.getString("BookID"),
-                    rs.getString("IssueDate"),
-                    rs.getString("DueDate"),
-                    rs.getString("Status"),
-                    String.format("%.2f", rs.getDouble("Fine"))
-                });
-            }
-        }
-        return allIssuedBooksData;
-    }
-
-    /**
-     * Adds a new book to the database.
-     *
-     * @param conn          The database connection.
-     * @param title         Book title.
-     * @param author        Book author.
-     * @param genre         Book genre.
-     * @param year          Publication year.
-     * @param totalCopies   Total number of copies.
-     * @return A success or error message string.
-     * @throws SQLException If an unexpected database error occurs.
-     */
-    public static String addNewBook(Connection conn, String title, String author, String genre, int year, int totalCopies) throws SQLException {
-        // Basic validation
-        if (title == null || title.trim().isEmpty() ||
-            author == null || author.trim().isEmpty() ||
-            genre == null || genre.trim().isEmpty()) {
-            return "Error: Title, Author, and Genre cannot be empty.";
-        }
-         if (year <= 0 || year > LocalDate.now().getYear() + 5) { // Basic year check
-             return "Error: Invalid Publication Year.";
-         }
-         if (totalCopies <= 0) {
-             return "Error: Total Copies must be a positive number.";
-         }
-
-        // Optional: Check if book already exists (based on title/author - case insensitive)
-        String checkBookExistsQuery = "SELECT BookID FROM books WHERE LOWER(Title) = ? AND LOWER(Author) = ?";
-         try (PreparedStatement checkStmt = conn.prepareStatement(checkBookExistsQuery)) {
-             checkStmt.setString(1, title.trim().toLowerCase());
-             checkStmt.setString(2, author.trim().toLowerCase());
-             ResultSet rs = checkStmt.executeQuery();
-             if (rs.next()) {
-                 // Consider returning a specific code or message if it exists, let UI decide to warn/prevent
-                 return "Warning: A book with the same title and author already exists (ID: " + rs.getInt("BookID") + "). Addition skipped.";
-                 // Or proceed after warning in UI
-             }
-         }
-
-
-        String insertQuery = "INSERT INTO books (Title, Author, Genre, Publication, TotalCopies, AvailableCopies) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
-            pstmt.setString(1, title.trim());
-            pstmt.setString(2, author.trim());
-            pstmt.setString(3, genre.trim());
-            pstmt.setInt(4, year);
-            pstmt.setInt(5, totalCopies);
-            pstmt.setInt(6, totalCopies); // Initially, all copies are available
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                // Reload books into memory map after successful addition
-                BookRecommendationSystem.loadBooks(); // Call static method
-                return "Success: Book '" + title.trim() + "' added successfully.";
-            } else {
-                return "Error: Failed to add the book to the database.";
-            }
-        }
-    }
-
-
-    /**
-     * Retrieves a list of all registered student users.
-     *
-     * @param conn The database connection.
-     * @return A List of String arrays for JTable display: [UserID, Username, Name, Email]. Empty list if none.
-     * @throws SQLException If a database error occurs.
-     */
-    public static List<String[]> getAllStudents(Connection conn) throws SQLException {
-        List<String[]> studentsData = new ArrayList<>();
-        String query = "SELECT UserID, Username, Name, Email FROM users WHERE Role = 'student' ORDER BY UserID";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                studentsData.add(new String[]{
-                    rs.getString("UserID"),
-                    rs.getString("Username"),
-                    rs.getString("Name"),
-                    rs.getString("Email")
-                });
-            }
-        }
-        return studentsData;
-    }
-
-} // End of Admin class
+package com.bookrecommender; // Ensure this package declaration is present
+
+// Add all necessary imports
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+// No need to import BookRecommendationSystem if Admin doesn't directly call static methods from it anymore
+// Correction: addNewBook updates the in-memory catalog via BookRecommendationSystem, so the import IS needed.
+import com.bookrecommender.BookRecommendationSystem;
+
+
+/**
+ * Represents an Admin user and handles admin-specific operations
+ * interacting with the database. Designed for use with a GUI.
+ */
+public class Admin { // Make the class public
+    // Start of the addNewBook() result when near-duplicates were found (the UI may confirm and retry)
+    public static final String SIMILAR_BOOKS_WARNING = "Warning: Similar books are already in the catalog:";
+    // Fine charged per day a loan is overdue (also used by the background overdue sweep)
+    public static final double FINE_RATE_PER_DAY = 0.50;
+    // Days a book may be kept before it is overdue
+    public static final int LOAN_PERIOD_DAYS = 14;
+    // Largest page the listing methods return (getIssuedBooksPage, getStudentsPage)
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    private int userId;
+    private String username;
+    private String name;
+    // No longer holds Connection
+
+    // Private constructor - instances created via static login method
+    private Admin(int userId, String username, String name) {
+        this.userId = userId;
+        this.username = username;
+        this.name = name;
+    }
+
+    // --- Getters ---
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // --- Static Methods for GUI Interaction ---
+
+    /**
+     * Attempts to log in an admin user.
+     *
+     * @param conn     The active database connection.
+     * @param username The username entered by the user.
+     * @param password The password entered by the user.
+     * @return An Admin object if login is successful, null otherwise.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Admin login(Connection conn, String username, String password) throws SQLException {
+        // TODO: Implement password hashing and comparison
+        String query = "SELECT UserID, Name FROM users WHERE Username = ? AND Password = ? AND Role = 'admin'";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, password); // Compare plain text password - VERY INSECURE
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                // Login successful
+                return new Admin(rs.getInt("UserID"), username, rs.getString("Name"));
+            } else {
+                // Login failed (invalid credentials or not an admin)
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the User ID for a given username and role.
+     * @param conn The database connection.
+     * @param username The username to lookup.
+     * @param role The role to match (e.g., 'student').
+     * @return The UserID if found, otherwise -1.
+     * @throws SQLException If a database error occurs.
+     */
+    private static int getUserIdByUsername(Connection conn, String username, String role) throws SQLException {
+        String query = "SELECT UserID FROM users WHERE Username = ? AND Role = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, role);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt("UserID") : -1; // Return UserID if found, else -1
+        }
+    }
+
+
+    /**
+     * Issues a book to a specified student.
+     * <p>
+     * Availability is checked by the write itself: the copy is taken with a conditional
+     * UPDATE (AvailableCopies &gt; 0) inside the transaction, which also locks the book row,
+     * so concurrent issues of the last copy cannot both succeed. The duplicate-issue check
+     * is part of the INSERT (and backed by the unique index checked by checkIssueConstraints()).
+     * Round trips: one lookup of the student with their history, then UPDATE, INSERT,
+     * INSERT and COMMIT; the book is only read again when the issue is refused.
+     *
+     * @param conn            The database connection.
+     * @param studentUsername The username of the student receiving the book.
+     * @param bookId          The ID of the book to issue.
+     * @return A success or error message string.
+     * @throws SQLException If an unexpected database error occurs during checks or transaction.
+     */
+    public static String issueBookToStudent(Connection conn, String studentUsername, int bookId) throws SQLException {
+        // 1. Validate student username
+        if (studentUsername == null || studentUsername.trim().isEmpty()) {
+            return "Error: Student username cannot be empty.";
+        }
+        studentUsername = studentUsername.trim();
+
+        // 2. Get student ID, and their history before this issue (for the co-occurrence model), in one query
+        int studentId = -1;
+        int[] historyIds = new int[16];
+        int historyCount = 0;
+        String studentQuery = "SELECT u.UserID, h.BookID FROM users u " +
+                              "LEFT JOIN user_book_history h ON h.UserID = u.UserID " +
+                              "WHERE u.Username = ? AND u.Role = 'student'";
+        try (PreparedStatement pstmt = conn.prepareStatement(studentQuery)) {
+            pstmt.setString(1, studentUsername);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                studentId = rs.getInt("UserID");
+                int historyBookId = rs.getInt("BookID");
+                if (rs.wasNull()) continue; // Student without history
+                if (historyCount == historyIds.length) historyIds = Arrays.copyOf(historyIds, historyCount * 2);
+                historyIds[historyCount++] = historyBookId;
+            }
+        }
+        if (studentId == -1) {
+            return "Error: Student username '" + studentUsername + "' not found.";
+        }
+        int[] priorHistory = UserHistoryScanner.distinctSorted(historyIds, historyCount);
+
+        // 3. Perform Issue Transaction
+        LocalDate issueDate = LocalDate.now();
+        LocalDate dueDate = issueDate.plusDays(LOAN_PERIOD_DAYS);
+        String bookTitle = BookRecommendationSystem.getBookTitle(bookId);
+        String refusal = null; // Set when a check inside the transaction fails
+
+        conn.setAutoCommit(false); // Start transaction
+        try {
+            // a. Take a copy; 0 rows means no such book or no copy left (the row stays locked until commit)
+            String takeCopyQuery = "UPDATE books SET AvailableCopies = AvailableCopies - 1 WHERE BookID = ? AND AvailableCopies > 0";
+            try (PreparedStatement updateStmt = conn.prepareStatement(takeCopyQuery)) {
+                updateStmt.setInt(1, bookId);
+                if (updateStmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return describeUnavailableBook(conn, bookId);
+                }
+            }
+
+            // b. Insert issue record unless the student already has this book (not returned)
+            String issueQuery = "INSERT INTO book_issues (BookID, UserID, IssueDate, DueDate, Status) " +
+                                "SELECT ?, ?, ?, ?, 'issued' FROM DUAL WHERE NOT EXISTS " +
+                                "(SELECT 1 FROM book_issues WHERE UserID = ? AND BookID = ? AND Status != 'returned')";
+            int issueId = -1;
+            try (PreparedStatement issueStmt = conn.prepareStatement(issueQuery, Statement.RETURN_GENERATED_KEYS)) {
+                issueStmt.setInt(1, bookId);
+                issueStmt.setInt(2, studentId);
+                issueStmt.setDate(3, Date.valueOf(issueDate));
+                issueStmt.setDate(4, Date.valueOf(dueDate));
+                issueStmt.setInt(5, studentId);
+                issueStmt.setInt(6, bookId);
+                if (issueStmt.executeUpdate() == 0) {
+                    refusal = "Error: Student '" + studentUsername + "' already has book '" + bookTitle + "' (ID: " + bookId + ") issued.";
+                } else {
+                    try (ResultSet keys = issueStmt.getGeneratedKeys()) {
+                        if (keys.next()) issueId = keys.getInt(1);
+                    }
+                }
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Unique open-issue index: a concurrent issue of the same book to the same student won
+                refusal = "Error: Student '" + studentUsername + "' already has book '" + bookTitle + "' (ID: " + bookId + ") issued.";
+            }
+            if (refusal != null) {
+                conn.rollback(); // Gives the copy back
+                return refusal;
+            }
+
+            // c. Add to user history
+            String historyQuery = "INSERT INTO user_book_history (UserID, BookID, InteractionType, Timestamp) VALUES (?, ?, 'issued', NOW())";
+            try (PreparedStatement historyStmt = conn.prepareStatement(historyQuery)) {
+                historyStmt.setInt(1, studentId);
+                historyStmt.setInt(2, bookId);
+                historyStmt.executeUpdate();
+            }
+
+            conn.commit(); // Commit transaction
+            // Mirror the count change in memory instead of reloading all books
+            BookRecommendationSystem.adjustAvailableCopies(bookId, -1);
+            // Count the new co-read pairs and drop the student's cached recommendations
+            BookRecommendationSystem.onBookIssued(studentId, bookId, priorHistory);
+            if (issueId != -1) {
+                BookRecommendationSystem.onLoanOpened(issueId, dueDate); // Schedule its overdue check
+            }
+            return "Success: Book '" + bookTitle + "' (ID: " + bookId + ") issued to '" + studentUsername + "'. Due: " + dueDate;
+
+        } catch (SQLException e) {
+            conn.rollback(); // Rollback transaction on error
+            System.err.println("Transaction failed during book issue: " + e.getMessage());
+            // Return a specific error or re-throw
+            return "Error: Database transaction failed during issue. Reason: " + e.getMessage();
+        } finally {
+            conn.setAutoCommit(true); // Restore default commit behavior
+        }
+    }
+
+    /**
+     * Returns a book issued to a student: marks the issue 'returned', stores its final fine
+     * and gives the copy back. Uses the same path as a one-scan circulation batch.
+     *
+     * @param conn            The database connection.
+     * @param studentUsername The username of the student returning the book.
+     * @param bookId          The ID of the returned book.
+     * @return A success or error message string.
+     * @throws SQLException If an unexpected database error occurs.
+     */
+    public static String returnBook(Connection conn, String studentUsername, int bookId) throws SQLException {
+        if (studentUsername == null || studentUsername.trim().isEmpty()) {
+            return "Error: Student username cannot be empty.";
+        }
+        List<CirculationBatch.Scan> scans = new ArrayList<>();
+        scans.add(new CirculationBatch.Scan(CirculationBatch.Action.RETURN, studentUsername, bookId));
+        return CirculationBatch.process(conn, scans).outcomes.get(0);
+    }
+
+    /**
+     * Applies a queue of circulation desk scans (issues and returns) in group-committed batches.
+     *
+     * @param conn  The database connection.
+     * @param scans The scans, in the order they were made.
+     * @return Per-scan outcomes and throughput (see CirculationBatch).
+     * @throws SQLException If a database error occurs before any scan is applied.
+     */
+    public static CirculationBatch.Result processCirculation(Connection conn, List<CirculationBatch.Scan> scans) throws SQLException {
+        return CirculationBatch.process(conn, scans);
+    }
+
+    /** Explains why no copy of a book could be taken (read only after the conditional UPDATE failed). */
+    private static String describeUnavailableBook(Connection conn, int bookId) throws SQLException {
+        String bookCheckQuery = "SELECT Title FROM books WHERE BookID = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(bookCheckQuery)) {
+            pstmt.setInt(1, bookId);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return "Error: Book ID " + bookId + " not found.";
+            }
+            return "Error: No copies of '" + rs.getString("Title") + "' (ID: " + bookId + ") are currently available.";
+        }
+    }
+
+    /**
+     * Checks that book_issues has the unique (UserID, open BookID) index from
+     * sql/001_book_issues_open_issue_index.sql, which makes a second open issue of the same
+     * book to the same student impossible. Read-only: the schema change is a migration run
+     * by an administrator, never by the application. If the index is missing, a warning is
+     * logged and issueBookToStudent() relies on its row lock and NOT EXISTS check alone.
+     *
+     * @param conn The database connection.
+     */
+    static void checkIssueConstraints(Connection conn) {
+        String checkQuery = "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'book_issues' AND INDEX_NAME = 'uq_book_issues_open'";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(checkQuery)) {
+            if (!rs.next() || rs.getInt(1) == 0) {
+                System.err.println("Warning: book_issues has no unique open-issue index; run "
+                        + "sql/001_book_issues_open_issue_index.sql to add it (see README).");
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not check book_issues indexes: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Calculates and updates fines for a specific student's overdue books.
+     * Changes status of newly overdue books to 'overdue'.
+     *
+     * @param conn            The database connection.
+     * @param studentUsername The username of the student.
+     * @return A status message detailing calculated fines and total outstanding fine.
+     * @throws SQLException If an unexpected database error occurs.
+     */
+    public static String calculateFineForStudent(Connection conn, String studentUsername) throws SQLException {
+        // 1. Validate username
+        if (studentUsername == null || studentUsername.trim().isEmpty()) {
+            return "Error: Student username cannot be empty.";
+        }
+        studentUsername = studentUsername.trim();
+
+        // 2. Get student ID
+        int studentId = getUserIdByUsername(conn, studentUsername, "student");
+        if (studentId == -1) {
+            return "Error: Student username '" + studentUsername + "' not found.";
+        }
+
+        // 3. Find newly overdue books (Status = 'issued' and DueDate < Today);
+        //    with derived fines nothing is stored, so every open overdue loan is listed
+        FineMode mode = BookRecommendationSystem.getFineMode();
+        String statusFilter = mode == FineMode.DERIVED ? "bi.Status != 'returned'" : "bi.Status = 'issued'";
+        String query = "SELECT bi.IssueID, b.Title, bi.DueDate " +
+                       "FROM book_issues bi JOIN books b ON bi.BookID = b.BookID " +
+                       "WHERE bi.UserID = ? AND " + statusFilter + " AND bi.DueDate < CURDATE()";
+
+        Map<Integer, Double> finesToUpdate = new HashMap<>();
+        double totalNewFineCalculated = 0;
+        StringBuilder fineDetails = new StringBuilder();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, studentId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int issueId = rs.getInt("IssueID");
+                String title = rs.getString("Title");
+                LocalDate dueDate = rs.getDate("DueDate").toLocalDate();
+                long daysOverdue = ChronoUnit.DAYS.between(dueDate, LocalDate.now());
+
+                if (daysOverdue > 0) {
+                    double fine = daysOverdue * FINE_RATE_PER_DAY;
+                    finesToUpdate.put(issueId, fine);
+                    totalNewFineCalculated += fine;
+                    fineDetails.append(String.format("- '%s' (Issue %d): %d days overdue, New Fine: $%.2f\n",
+                                                    title, issueId, daysOverdue, fine));
+                }
+            }
+        }
+
+        // 4. Update Database if new fines were calculated (derived fines are only written on settlement)
+        if (mode == FineMode.DERIVED) {
+            if (finesToUpdate.isEmpty()) {
+                fineDetails.append("No overdue books found for '").append(studentUsername).append("'.\n");
+            } else {
+                fineDetails.insert(0, "Current fines (computed from due dates, not stored):\n");
+            }
+        } else if (!finesToUpdate.isEmpty()) {
+            String updateQuery = "UPDATE book_issues SET Fine = ?, Status = 'overdue' WHERE IssueID = ?";
+            conn.setAutoCommit(false); // Start transaction
+            try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
+                for (Map.Entry<Integer, Double> entry : finesToUpdate.entrySet()) {
+                    updateStmt.setDouble(1, entry.getValue());
+                    updateStmt.setInt(2, entry.getKey());
+                    updateStmt.addBatch();
+                }
+                updateStmt.executeBatch();
+                conn.commit();
+                fineDetails.insert(0, "Calculated and updated fines for:\n");
+                fineDetails.append(String.format("Total New Fine Added: $%.2f\n", totalNewFineCalculated));
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("Error updating fines: " + e.getMessage());
+                return "Error: Database transaction failed while updating fines. Reason: " + e.getMessage();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } else {
+            fineDetails.append("No newly overdue books found for '").append(studentUsername).append("'.\n");
+        }
+
+        // 5. Get Total Outstanding Fine
+        String fineCheckQuery = "SELECT SUM(" + mode.fineColumn("bi") + ") AS TotalFine " +
+                                "FROM book_issues bi WHERE bi.UserID = ? AND bi.Status != 'returned'";
+        try (PreparedStatement fineStmt = conn.prepareStatement(fineCheckQuery)) {
+            fineStmt.setInt(1, studentId);
+            ResultSet fineRs = fineStmt.executeQuery();
+            if (fineRs.next()) {
+                double totalOutstandingFine = fineRs.getDouble("TotalFine");
+                fineDetails.append(String.format("Total Current Outstanding Fine: $%.2f", totalOutstandingFine));
+            }
+        }
+
+        return fineDetails.toString();
+    }
+
+
+    /**
+     * Settles a student's fines: writes each open overdue loan's current fine (days overdue
+     * * FINE_RATE_PER_DAY) and 'overdue' status into book_issues, in one statement.
+     * With FineMode.DERIVED this is the only time an open loan's fine is stored.
+     *
+     * @param conn            The database connection.
+     * @param studentUsername The username of the student.
+     * @return A status message with the number of loans and the total fine settled.
+     * @throws SQLException If a database error occurs.
+     */
+    public static String settleFinesForStudent(Connection conn, String studentUsername) throws SQLException {
+        if (studentUsername == null || studentUsername.trim().isEmpty()) {
+            return "Error: Student username cannot be empty.";
+        }
+        studentUsername = studentUsername.trim();
+        int studentId = getUserIdByUsername(conn, studentUsername, "student");
+        if (studentId == -1) {
+            return "Error: Student username '" + studentUsername + "' not found.";
+        }
+
+        String updateQuery = "UPDATE book_issues bi SET bi.Fine = " + FineMode.DERIVED.fineColumn("bi") + ", " +
+                             "bi.Status = 'overdue' " +
+                             "WHERE bi.UserID = ? AND bi.Status != 'returned' AND bi.DueDate < CURDATE()";
+        int settled;
+        try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+            pstmt.setInt(1, studentId);
+            settled = pstmt.executeUpdate();
+        }
+        if (settled == 0) {
+            return "Success: '" + studentUsername + "' has no overdue books; nothing to settle.";
+        }
+
+        double total = 0;
+        String totalQuery = "SELECT SUM(Fine) AS TotalFine FROM book_issues " +
+                            "WHERE UserID = ? AND Status = 'overdue'";
+        try (PreparedStatement pstmt = conn.prepareStatement(totalQuery)) {
+            pstmt.setInt(1, studentId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) total = rs.getDouble("TotalFine");
+        }
+        return String.format("Success: Settled fines on %d overdue book(s) for '%s'. Total stored fine: $%.2f",
+                settled, studentUsername, total);
+    }
+
+
+    /**
+     * Reads one page of open issues across all students, ordered by student username, due
+     * date and IssueID. Paging seeks past the previous page's last row (keyset pagination),
+     * so deep pages cost the same as the first and no query returns more than one page.
+     *
+     * @param conn           The database connection.
+     * @param after          The last row of the previous page, or null for the first page.
+     * @param limit          Rows per page (1..MAX_PAGE_SIZE).
+     * @param usernamePrefix Only students whose username starts with this (null or blank for all).
+     * @param overdueOnly    Only issues past their due date.
+     * @return The page; fine and status follow the current FineMode.
+     * @throws SQLException If a database error occurs.
+     */
+    public static Page<IssuedBookRow> getIssuedBooksPage(Connection conn, IssuedBookRow after, int limit,
+                                                         String usernamePrefix, boolean overdueOnly) throws SQLException {
+        return getIssuedBooksPage(conn, after, 0, limit, usernamePrefix, overdueOnly);
+    }
+
+    /**
+     * Like getIssuedBooksPage(conn, after, limit, ...), but first skips 'skip' rows past 'after'.
+     * Lets a scrolling view jump ahead from the nearest position it knows. The skipped rows are
+     * not returned, but the server still reads and discards each of them (LIMIT offset), so the
+     * cost grows with 'skip'; seek from the closest known row to keep it small.
+     *
+     * @param skip Rows to pass over after 'after' before the page starts (0 for the next page).
+     */
+    public static Page<IssuedBookRow> getIssuedBooksPage(Connection conn, IssuedBookRow after, int skip, int limit,
+                                                         String usernamePrefix, boolean overdueOnly) throws SQLException {
+        return issuedBooksPage(conn, after, false, skip, limit, usernamePrefix, overdueOnly);
+    }
+
+    /**
+     * Reads the page that ends 'skip' rows before 'before' (a backward keyset seek: the
+     * index is walked in descending order from 'before'). Lets a scrolling view read the
+     * rows above a position it knows without skipping from the start of the listing.
+     *
+     * @param before A row of the listing; the page ends before it.
+     * @param skip   Rows to pass over before 'before' (0 for the rows right above it).
+     * @return Up to 'limit' rows, in listing order; hasMore tells whether rows exist before the first one.
+     * @see #getIssuedBooksPage(Connection, IssuedBookRow, int, int, String, boolean)
+     */
+    public static Page<IssuedBookRow> getIssuedBooksPageBefore(Connection conn, IssuedBookRow before, int skip, int limit,
+                                                               String usernamePrefix, boolean overdueOnly) throws SQLException {
+        return issuedBooksPage(conn, before, true, skip, limit, usernamePrefix, overdueOnly);
+    }
+
+    /** Page query for both directions: rows after 'from' in listing order, or before it walking backwards. */
+    private static Page<IssuedBookRow> issuedBooksPage(Connection conn, IssuedBookRow from, boolean backward, int skip, int limit,
+                                                       String usernamePrefix, boolean overdueOnly) throws SQLException {
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FineMode mode = BookRecommendationSystem.getFineMode();
+        boolean filtered = usernamePrefix != null && !usernamePrefix.trim().isEmpty();
+        StringBuilder query = new StringBuilder(
+                "SELECT bi.IssueID, u.Username AS StudentUsername, b.Title, b.BookID, bi.IssueDate, bi.DueDate, " +
+                mode.statusColumn("bi") + " AS Status, " + mode.fineColumn("bi") + " AS Fine " +
+                ISSUED_BOOKS_FROM + issuedBooksWhere(filtered, overdueOnly));
+        String cmp = backward ? "<" : ">";
+        String order = backward ? " DESC" : "";
+        if (from != null) {
+            // (Username, DueDate, IssueID) > from (or <), spelled out so the index on Username is used
+            query.append(" AND (u.Username " + cmp + " ? OR (u.Username = ? AND (bi.DueDate " + cmp + " ? OR (bi.DueDate = ? AND bi.IssueID " + cmp + " ?))))");
+        }
+        query.append(" ORDER BY u.Username" + order + ", bi.DueDate" + order + ", bi.IssueID" + order + " LIMIT ?, ?");
+
+        List<IssuedBookRow> rows = new ArrayList<>(limit);
+        boolean hasMore = false;
+        try (PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+            int p = 1;
+            if (filtered) pstmt.setString(p++, likePrefix(usernamePrefix.trim()));
+            if (from != null) {
+                pstmt.setString(p++, from.studentUsername);
+                pstmt.setString(p++, from.studentUsername);
+                pstmt.setDate(p++, Date.valueOf(from.dueDate));
+                pstmt.setDate(p++, Date.valueOf(from.dueDate));
+                pstmt.setInt(p++, from.issueId);
+            }
+            pstmt.setInt(p++, Math.max(0, skip));
+            pstmt.setInt(p, limit + 1); // One extra row tells whether another page exists
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (rows.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                Date issueDate = rs.getDate("IssueDate");
+                rows.add(new IssuedBookRow(
+                        rs.getInt("IssueID"),
+                        rs.getString("StudentUsername"),
+                        rs.getString("Title"),
+                        rs.getInt("BookID"),
+                        issueDate == null ? null : issueDate.toLocalDate(),
+                        rs.getDate("DueDate").toLocalDate(),
+                        rs.getString("Status"),
+                        rs.getDouble("Fine")));
+            }
+        }
+        if (backward) Collections.reverse(rows); // Read nearest first; return in listing order
+        return new Page<>(rows, hasMore);
+    }
+
+    /**
+     * Counts the open issues getIssuedBooksPage() would list with the same filters.
+     *
+     * @param conn           The database connection.
+     * @param usernamePrefix Only students whose username starts with this (null or blank for all).
+     * @param overdueOnly    Only issues past their due date.
+     * @return The number of rows.
+     * @throws SQLException If a database error occurs.
+     */
+    public static int countIssuedBooks(Connection conn, String usernamePrefix, boolean overdueOnly) throws SQLException {
+        boolean filtered = usernamePrefix != null && !usernamePrefix.trim().isEmpty();
+        String query = "SELECT COUNT(*) " + ISSUED_BOOKS_FROM + issuedBooksWhere(filtered, overdueOnly);
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            if (filtered) pstmt.setString(1, likePrefix(usernamePrefix.trim()));
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Shared by the issued-books page and count queries: the count must drop the same rows the
+    // joins do (issues of deleted books or users), or a listing sized by it never fills up
+    private static final String ISSUED_BOOKS_FROM = "FROM book_issues bi " +
+                                                    "JOIN books b ON bi.BookID = b.BookID " +
+                                                    "JOIN users u ON bi.UserID = u.UserID ";
+
+    /** @return The WHERE clause shared by the issued-books page and count queries (bi = book_issues, u = users). */
+    private static String issuedBooksWhere(boolean filtered, boolean overdueOnly) {
+        return "WHERE bi.Status != 'returned'" +
+               (filtered ? " AND u.Username LIKE ?" : "") +
+               (overdueOnly ? " AND bi.DueDate < CURDATE()" : "");
+    }
+
+    /** @return A LIKE pattern matching values that start with text (% and _ in text match literally). */
+    private static String likePrefix(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Adds a new book to the database.
+     *
+     * @param conn          The database connection.
+     * @param title         Book title.
+     * @param author        Book author.
+     * @param genre         Book genre.
+     * @param year          Publication year.
+     * @param totalCopies   Total number of copies.
+     * @return A success or error message string.
+     * @throws SQLException If an unexpected database error occurs.
+     */
+    public static String addNewBook(Connection conn, String title, String author, String genre, int year, int totalCopies) throws SQLException {
+        return addNewBook(conn, title, author, genre, year, totalCopies, false);
+    }
+
+    /**
+     * Adds a new book, optionally skipping the near-duplicate check.
+     * Without ignoreSimilar, a book whose title and author are within a couple of typos of
+     * an existing one (see BookRecommendationSystem.findSimilarBooks) is not added and a
+     * message starting with SIMILAR_BOOKS_WARNING is returned, so the UI can ask first.
+     *
+     * @param conn          The database connection.
+     * @param title         Book title.
+     * @param author        Book author.
+     * @param genre         Book genre.
+     * @param year          Publication year.
+     * @param totalCopies   Total number of copies.
+     * @param ignoreSimilar true to add the book even if similar books exist.
+     * @return A success or error message string.
+     * @throws SQLException If an unexpected database error occurs.
+     */
+    public static String addNewBook(Connection conn, String title, String author, String genre, int year, int totalCopies,
+                                    boolean ignoreSimilar) throws SQLException {
+        // Basic validation
+        if (title == null || title.trim().isEmpty() ||
+            author == null || author.trim().isEmpty() ||
+            genre == null || genre.trim().isEmpty()) {
+            return "Error: Title, Author, and Genre cannot be empty.";
+        }
+         if (year <= 0 || year > LocalDate.now().getYear() + 5) { // Basic year check
+             return "Error: Invalid Publication Year.";
+         }
+         if (totalCopies <= 0) {
+             return "Error: Total Copies must be a positive number.";
+         }
+
+        // Optional: Check if book already exists (based on title/author - case insensitive)
+        String checkBookExistsQuery = "SELECT BookID FROM books WHERE LOWER(Title) = ? AND LOWER(Author) = ?";
+         try (PreparedStatement checkStmt = conn.prepareStatement(checkBookExistsQuery)) {
+             checkStmt.setString(1, title.trim().toLowerCase());
+             checkStmt.setString(2, author.trim().toLowerCase());
+             ResultSet rs = checkStmt.executeQuery();
+             if (rs.next()) {
+                 // Consider returning a specific code or message if it exists, let UI decide to warn/prevent
+                 return "Warning: A book with the same title and author already exists (ID: " + rs.getInt("BookID") + "). Addition skipped.";
+                 // Or proceed after warning in UI
+             }
+         }
+
+        // Near-duplicates (typos, punctuation) are checked against the in-memory catalog
+        if (!ignoreSimilar) {
+            List<Integer> similar = BookRecommendationSystem.findSimilarBooks(title, author, 5);
+            if (!similar.isEmpty()) {
+                StringBuilder message = new StringBuilder(SIMILAR_BOOKS_WARNING);
+                for (int bookId : similar) {
+                    message.append("\n  ").append(bookId).append(": ").append(BookRecommendationSystem.getBookTitle(bookId))
+                           .append(" by ").append(BookRecommendationSystem.getBookAuthor(bookId));
+                }
+                return message.toString();
+            }
+        }
+
+
+        String insertQuery = "INSERT INTO books (Title, Author, Genre, Publication, TotalCopies, AvailableCopies) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, title.trim());
+            pstmt.setString(2, author.trim());
+            pstmt.setString(3, genre.trim());
+            pstmt.setInt(4, year);
+            pstmt.setInt(5, totalCopies);
+            pstmt.setInt(6, totalCopies); // Initially, all copies are available
+            int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        int bookId = keys.getInt(1);
+                        // Apply just this book to the in-memory catalog and graph (no full reload)
+                        BookRecommendationSystem.addBookToCatalog(bookId, title.trim(), author.trim(), genre.trim(), year, totalCopies);
+                        // Queue readers of this genre/author for a recommendations refresh
+                        BookRecommendationSystem.onBookAdded(bookId);
+                    } else {
+                        BookRecommendationSystem.loadBooks(); // No key returned; fall back to a full reload
+                    }
+                }
+                return "Success: Book '" + title.trim() + "' added successfully.";
+            } else {
+                return "Error: Failed to add the book to the database.";
+            }
+        }
+    }
+
+
+    /**
+     * Imports books from a CSV file (header: Title, Author, Genre, Publication, TotalCopies)
+     * with parallel parsing, in-memory duplicate checks and batched inserts; the catalog is
+     * rebuilt once at the end. See CatalogImporter.
+     *
+     * @param file     The CSV file.
+     * @param listener Receives progress while the import runs (may be null).
+     * @return A status message with the counts, plus the first invalid rows.
+     * @throws SQLException If a database error occurs.
+     */
+    public static String importBooksFromCsv(Path file, CatalogImporter.ProgressListener listener) throws SQLException {
+        CatalogImporter.Result result;
+        try {
+            result = new CatalogImporter(Runtime.getRuntime().availableProcessors()).importCsv(file, listener);
+        } catch (IOException e) {
+            return "Error: Could not import '" + file.getFileName() + "'. Reason: " + e.getMessage();
+        }
+        StringBuilder message = new StringBuilder("Success: Imported ").append(result.imported)
+                .append(" books from '").append(file.getFileName()).append("'. ").append(result);
+        if (!result.errors.isEmpty()) {
+            message.append("\nInvalid rows").append(result.invalid > result.errors.size() ? " (first " + result.errors.size() + ")" : "").append(":");
+            for (String error : result.errors) {
+                message.append("\n  ").append(error);
+            }
+        }
+        return message.toString();
+    }
+
+
+    /**
+     * Reloads the whole catalog from the database and rebuilds the book graph.
+     * New books are applied incrementally, so this is only needed after changes made
+     * outside the application (e.g. direct edits to the books table).
+     *
+     * @return A status message with the number of books loaded.
+     * @throws SQLException If a database error occurs.
+     */
+    public static String rebuildCatalog() throws SQLException {
+        long start = System.currentTimeMillis();
+        BookRecommendationSystem.loadBooks();
+        return "Success: Catalog rebuilt (" + BookRecommendationSystem.getAllBookTitles().size() + " books, "
+                + (System.currentTimeMillis() - start) + " ms).";
+    }
+
+
+    /**
+     * Marks every overdue loan in the library and updates its fine in one pass
+     * (the background sweep does the same when due dates pass).
+     *
+     * @param conn The database connection.
+     * @return A status message with the number of loans updated and rows/second.
+     * @throws SQLException If a database error occurs.
+     */
+    public static String sweepOverdueLoans(Connection conn) throws SQLException {
+        return BookRecommendationSystem.runOverdueSweep(conn);
+    }
+
+
+    /**
+     * Reads one page of student accounts ordered by UserID (keyset pagination, see
+     * getIssuedBooksPage()).
+     *
+     * @param conn         The database connection.
+     * @param afterUserId  The last UserID of the previous page, or 0 for the first page.
+     * @param limit        Rows per page (1..MAX_PAGE_SIZE).
+     * @param filterPrefix Only students whose username or name starts with this (null or blank for all).
+     * @return The page.
+     * @throws SQLException If a database error occurs.
+     */
+    public static Page<StudentRow> getStudentsPage(Connection conn, int afterUserId, int limit, String filterPrefix) throws SQLException {
+        return getStudentsPage(conn, afterUserId, 0, limit, filterPrefix);
+    }
+
+    /**
+     * Like getStudentsPage(conn, afterUserId, limit, filterPrefix), but first skips 'skip'
+     * rows past afterUserId (see getIssuedBooksPage with skip for what skipping costs).
+     *
+     * @param skip Rows to pass over after afterUserId before the page starts (0 for the next page).
+     */
+    public static Page<StudentRow> getStudentsPage(Connection conn, int afterUserId, int skip, int limit,
+                                                   String filterPrefix) throws SQLException {
+        return studentsPage(conn, afterUserId, false, skip, limit, filterPrefix);
+    }
+
+    /**
+     * Reads the page of students that ends 'skip' rows before beforeUserId (a backward keyset
+     * seek, see getIssuedBooksPageBefore).
+     *
+     * @return Up to 'limit' rows, in UserID order; hasMore tells whether rows exist before the first one.
+     */
+    public static Page<StudentRow> getStudentsPageBefore(Connection conn, int beforeUserId, int skip, int limit,
+                                                         String filterPrefix) throws SQLException {
+        return studentsPage(conn, beforeUserId, true, skip, limit, filterPrefix);
+    }
+
+    /** Page query for both directions: rows after fromUserId in UserID order, or before it walking backwards. */
+    private static Page<StudentRow> studentsPage(Connection conn, int fromUserId, boolean backward, int skip, int limit,
+                                                 String filterPrefix) throws SQLException {
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean filtered = filterPrefix != null && !filterPrefix.trim().isEmpty();
+        String query = "SELECT UserID, Username, Name, Email FROM users " +
+                       studentsWhere(filtered) + (backward ? " AND UserID < ?" : " AND UserID > ?") +
+                       " ORDER BY UserID" + (backward ? " DESC" : "") + " LIMIT ?, ?";
+        List<StudentRow> rows = new ArrayList<>(limit);
+        boolean hasMore = false;
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            int p = 1;
+            if (filtered) {
+                String pattern = likePrefix(filterPrefix.trim());
+                pstmt.setString(p++, pattern);
+                pstmt.setString(p++, pattern);
+            }
+            pstmt.setInt(p++, fromUserId);
+            pstmt.setInt(p++, Math.max(0, skip));
+            pstmt.setInt(p, limit + 1);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (rows.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                rows.add(new StudentRow(
+                        rs.getInt("UserID"),
+                        rs.getString("Username"),
+                        rs.getString("Name"),
+                        rs.getString("Email")));
+            }
+        }
+        if (backward) Collections.reverse(rows);
+        return new Page<>(rows, hasMore);
+    }
+
+    /**
+     * Counts the students getStudentsPage() would list with the same filter.
+     *
+     * @param conn         The database connection.
+     * @param filterPrefix Only students whose username or name starts with this (null or blank for all).
+     * @return The number of rows.
+     * @throws SQLException If a database error occurs.
+     */
+    public static int countStudents(Connection conn, String filterPrefix) throws SQLException {
+        boolean filtered = filterPrefix != null && !filterPrefix.trim().isEmpty();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM users " + studentsWhere(filtered))) {
+            if (filtered) {
+                String pattern = likePrefix(filterPrefix.trim());
+                pstmt.setString(1, pattern);
+                pstmt.setString(2, pattern);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** @return The WHERE clause shared by the students page and count queries. */
+    private static String studentsWhere(boolean filtered) {
+        return "WHERE Role = 'student'" + (filtered ? " AND (Username LIKE ? OR Name LIKE ?)" : "");
+    }
+
+} // End of Admin class
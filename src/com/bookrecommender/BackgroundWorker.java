@@ -0,0 +1,109 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A daemon thread that waits for work and does it on its own database connection, off the
+ * UI path and the pool. The connection is opened when there is work, closed before the
+ * worker goes idle (idle periods can outlast the server's wait_timeout), and dropped after
+ * any failure so the next attempt reconnects instead of retrying on a dead connection.
+ * <p>
+ * Subclasses say when there is work, how to wait for it and how to do it; a failed pass
+ * is retried after retryDelayMs.
+ */
+abstract class BackgroundWorker {
+    private final String threadName;
+    private final long retryDelayMs;
+    private Thread worker;
+    private volatile boolean running;
+
+    /**
+     * @param threadName   Name of the worker thread.
+     * @param retryDelayMs Back-off after a failed pass.
+     */
+    BackgroundWorker(String threadName, long retryDelayMs) {
+        this.threadName = threadName;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /** @return true if work is waiting (checked before the connection is released for an idle wait). */
+    abstract boolean hasWork();
+
+    /** Blocks until hasWork() may be true, or the worker is stopped (interrupted). */
+    abstract void awaitWork() throws InterruptedException;
+
+    /**
+     * Does the waiting work on the worker's connection (auto-commit off).
+     * @throws SQLException On failure; anything not done must be requeued before throwing.
+     */
+    abstract void doWork(Connection conn) throws SQLException;
+
+    /** Called once after stop(), e.g. to log counters. */
+    abstract void stopped();
+
+    /** @return false once stop() has been called. */
+    final boolean isRunning() {
+        return running;
+    }
+
+    /** Starts the background worker (no-op if it is already running). */
+    final synchronized void start() {
+        if (running) return;
+        running = true;
+        worker = new Thread(this::runLoop, threadName);
+        worker.setDaemon(true); // Never keeps the GUI alive on exit
+        worker.start();
+    }
+
+    /** Stops the worker; queued work is kept for a later start(). */
+    final synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        stopped();
+    }
+
+    private void runLoop() {
+        Connection conn = null;
+        try {
+            while (running) {
+                if (!hasWork()) {
+                    conn = close(conn); // Don't hold a connection through a long idle wait
+                    awaitWork();
+                    continue;
+                }
+                try {
+                    if (conn == null) {
+                        conn = BookRecommendationSystem.openConnection();
+                        conn.setAutoCommit(false);
+                    }
+                    doWork(conn);
+                } catch (SQLException e) {
+                    System.err.println(threadName + " failed, reconnecting and retrying in "
+                            + retryDelayMs / 1000 + " s: " + e.getMessage());
+                    conn = close(conn); // May be dead (wait_timeout, network); reopen on the next attempt
+                    Thread.sleep(retryDelayMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Stopping
+        } finally {
+            close(conn);
+        }
+    }
+
+    /** Closes the connection, ignoring errors (it may already be dead). @return null. */
+    private static Connection close(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                // Already broken; nothing to release
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,192 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Precomputes recommendations for every user with history (e.g. overnight).
+ * <ol>
+ *   <li>Streams user_book_history in one scan ordered by UserID.</li>
+ *   <li>Groups the rows per user, in chunks of users.</li>
+ *   <li>Scores each chunk in parallel on a ForkJoinPool against the shared in-memory catalog.</li>
+ *   <li>Writes the top N per user into user_recommendations with batched statements.</li>
+ * </ol>
+ * The scan and the writes use two separate connections, so the shared GUI connection is untouched.
+ */
+public class BatchRecommendationJob {
+    public static final int DEFAULT_TOP_N = 20;          // Recommendations stored per user
+    private static final int USERS_PER_CHUNK = 5_000;    // Users scored and written together
+    private static final int USERS_PER_TASK = 128;       // Fork/join split threshold
+
+    private final int topN;
+    private final int parallelism;
+
+    /**
+     * @param topN        Number of recommendations stored per user.
+     * @param parallelism Number of scoring threads (e.g. available processors).
+     */
+    public BatchRecommendationJob(int topN, int parallelism) {
+        if (topN <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("topN and parallelism must be positive.");
+        }
+        this.topN = topN;
+        this.parallelism = parallelism;
+    }
+
+    /** Outcome of one run. */
+    public static final class Result {
+        public final long historyRows;
+        public final int users;
+        public final long recommendationsWritten;
+        public final long elapsedMillis;
+
+        Result(long historyRows, int users, long recommendationsWritten, long elapsedMillis) {
+            this.historyRows = historyRows;
+            this.users = users;
+            this.recommendationsWritten = recommendationsWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double usersPerSecond() {
+            return elapsedMillis == 0 ? users : users * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Batch recommendations: %d users (%d history rows) -> %d rows in %.1f s (%.0f users/s)",
+                    users, historyRows, recommendationsWritten, elapsedMillis / 1000.0, usersPerSecond());
+        }
+    }
+
+    /**
+     * Runs the job against the currently loaded catalog.
+     * @return Counts and throughput of the run.
+     * @throws SQLException If a database access error occurs.
+     */
+    public Result run() throws SQLException {
+        long start = System.currentTimeMillis();
+        Timestamp generatedAt = new Timestamp(start / 1000 * 1000); // TIMESTAMP stores whole seconds
+        BookCatalog books = BookRecommendationSystem.getCatalog(); // One catalog for the whole run
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (Connection readConn = BookRecommendationSystem.openConnection();
+             Connection writeConn = BookRecommendationSystem.openConnection()) {
+            RecommendationStore.ensureTable(writeConn);
+            writeConn.setAutoCommit(false);
+
+            List<Integer> chunkUsers = new ArrayList<>(USERS_PER_CHUNK);
+            List<int[]> chunkHistories = new ArrayList<>(USERS_PER_CHUNK);
+            int[] userCount = {0};
+            long[] rowsWritten = {0};
+
+            long rows = UserHistoryScanner.scanAll(readConn, (userId, bookIds) -> {
+                chunkUsers.add(userId);
+                chunkHistories.add(bookIds);
+                userCount[0]++;
+                if (chunkUsers.size() == USERS_PER_CHUNK) {
+                    rowsWritten[0] += scoreAndWrite(pool, books, chunkUsers, chunkHistories, writeConn, generatedAt);
+                }
+            });
+            if (!chunkUsers.isEmpty()) {
+                rowsWritten[0] += scoreAndWrite(pool, books, chunkUsers, chunkHistories, writeConn, generatedAt);
+            }
+
+            // Users whose history disappeared keep no stale rows (their marker stays: materialized, empty)
+            try (PreparedStatement cleanup = writeConn.prepareStatement(
+                    "DELETE FROM user_recommendations WHERE GeneratedAt < ? AND Position > 0")) {
+                cleanup.setTimestamp(1, generatedAt);
+                cleanup.executeUpdate();
+            }
+            writeConn.commit();
+
+            Result result = new Result(rows, userCount[0], rowsWritten[0], System.currentTimeMillis() - start);
+            System.out.println(result);
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scores one chunk of users in parallel, writes it in one transaction, and clears the chunk lists.
+     * @return Number of recommendation rows written.
+     */
+    private long scoreAndWrite(ForkJoinPool pool, BookCatalog books, List<Integer> users, List<int[]> histories,
+                               Connection writeConn, Timestamp generatedAt) throws SQLException {
+        int n = users.size();
+        int[][] resultIds = new int[n][];
+        double[][] resultScores = new double[n][];
+        pool.invoke(new ScoreTask(books, histories, resultIds, resultScores, 0, n));
+        long written = RecommendationStore.replaceUsers(writeConn, users, resultIds, resultScores, generatedAt);
+        users.clear();
+        histories.clear();
+        return written;
+    }
+
+    /** Fork/join task scoring users [from, to) of a chunk. */
+    private final class ScoreTask extends RecursiveAction {
+        private final BookCatalog books;
+        private final List<int[]> histories;
+        private final int[][] resultIds;
+        private final double[][] resultScores;
+        private final int from, to;
+
+        ScoreTask(BookCatalog books, List<int[]> histories, int[][] resultIds, double[][] resultScores, int from, int to) {
+            this.books = books;
+            this.histories = histories;
+            this.resultIds = resultIds;
+            this.resultScores = resultScores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > USERS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ScoreTask(books, histories, resultIds, resultScores, from, mid),
+                          new ScoreTask(books, histories, resultIds, resultScores, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                IntIntHashMap issuedSlots = new IntIntHashMap(histories.get(i).length, -1);
+                for (int bookId : histories.get(i)) {
+                    int slot = books.slotOf(bookId);
+                    if (slot >= 0) issuedSlots.put(slot, slot);
+                }
+                TopKCollector topK = BookRecommendationSystem.topByOverlap(books, issuedSlots, topN);
+                int[] ids = new int[topK.size()];
+                double[] scores = new double[topK.size()];
+                topK.drainInto(ids, scores);
+                resultIds[i] = ids;
+                resultScores[i] = scores;
+            }
+        }
+    }
+
+    /**
+     * Command-line entry point for scheduled runs.
+     * Usage: BatchRecommendationJob [topN] [threads]
+     */
+    public static void main(String[] args) {
+        int topN = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TOP_N;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try {
+            BookRecommendationSystem.connectDatabase();
+            BookRecommendationSystem.loadBooks(CatalogLoadMode.PARALLEL); // Large catalogs load faster split across connections
+            new BatchRecommendationJob(topN, threads).run();
+        } catch (SQLException e) {
+            System.err.println("Batch recommendation job failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            BookRecommendationSystem.closeDatabase();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.bookrecommender;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Columnar in-memory book catalog.
+ * Books are stored in dense "slots" (0..size-1): each column is a primitive or
+ * String array indexed by slot, and a BookID -> slot map resolves lookups.
+ * Authors and genres are dictionary-encoded, and posting lists map each
+ * normalized genre/author to the slots that carry it.
+ * Instances are built once through {@link Builder} and not modified afterwards,
+ * except for the available-copies column, which tracks issues as they happen.
+ * Single books are added copy-on-write through {@link #withBook}, so readers holding
+ * the previous instance are unaffected.
+ */
+final class BookCatalog {
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final int size;
+    private final int[] bookIds;      // slot -> BookID
+    private final String[] titles;    // slot -> Title (original case)
+    private final int[] authorCodes;  // slot -> author dictionary code
+    private final int[] genreCodes;   // slot -> genre dictionary code
+    private final short[] years;      // slot -> Publication year
+    private final AtomicIntegerArray availableCopies; // slot -> AvailableCopies (updated on issue)
+    private final IntIntHashMap slotByBookId;
+
+    private final StringDictionary authors;
+    private final StringDictionary genres;
+    private final int[][] authorPostings; // normalized author key -> slots (ascending)
+    private final int[][] genrePostings;  // normalized genre key -> slots (ascending)
+
+    private BookCatalog(Builder b) {
+        // The builder is done after build() (its map is shared already), so exactly filled columns are taken over, not copied
+        this.size = b.size;
+        this.bookIds = b.bookIds.length == size ? b.bookIds : Arrays.copyOf(b.bookIds, size);
+        this.titles = b.titles.length == size ? b.titles : Arrays.copyOf(b.titles, size);
+        this.authorCodes = b.authorCodes.length == size ? b.authorCodes : Arrays.copyOf(b.authorCodes, size);
+        this.genreCodes = b.genreCodes.length == size ? b.genreCodes : Arrays.copyOf(b.genreCodes, size);
+        this.years = b.years.length == size ? b.years : Arrays.copyOf(b.years, size);
+        this.availableCopies = new AtomicIntegerArray(b.availableCopies.length == size
+                ? b.availableCopies : Arrays.copyOf(b.availableCopies, size)); // Copied once by AtomicIntegerArray either way
+        this.slotByBookId = b.slotByBookId;
+        this.authors = b.authors;
+        this.genres = b.genres;
+        this.authorPostings = buildPostings(authorCodes, authors, size);
+        this.genrePostings = buildPostings(genreCodes, genres, size);
+    }
+
+    private BookCatalog(int size, int[] bookIds, String[] titles, int[] authorCodes, int[] genreCodes, short[] years,
+                        AtomicIntegerArray availableCopies, IntIntHashMap slotByBookId,
+                        StringDictionary authors, StringDictionary genres, int[][] authorPostings, int[][] genrePostings) {
+        this.size = size;
+        this.bookIds = bookIds;
+        this.titles = titles;
+        this.authorCodes = authorCodes;
+        this.genreCodes = genreCodes;
+        this.years = years;
+        this.availableCopies = availableCopies;
+        this.slotByBookId = slotByBookId;
+        this.authors = authors;
+        this.genres = genres;
+        this.authorPostings = authorPostings;
+        this.genrePostings = genrePostings;
+    }
+
+    /**
+     * Returns a new catalog with one more book in the next slot (size()).
+     * Columns and lookup maps are copied, dictionaries and postings extended; this
+     * costs O(size) array copies, not a reload from the database.
+     * Available-copies changes made to this instance afterwards are not carried over,
+     * so callers must not adjust copies concurrently.
+     *
+     * @throws IllegalArgumentException If the BookID is already in the catalog.
+     */
+    BookCatalog withBook(int bookId, String title, String author, String genre, int year, int available) {
+        if (slotOf(bookId) >= 0) {
+            throw new IllegalArgumentException("Book " + bookId + " is already in the catalog.");
+        }
+        int slot = size;
+        int[] newBookIds = Arrays.copyOf(bookIds, size + 1);
+        String[] newTitles = Arrays.copyOf(titles, size + 1);
+        int[] newAuthorCodes = Arrays.copyOf(authorCodes, size + 1);
+        int[] newGenreCodes = Arrays.copyOf(genreCodes, size + 1);
+        short[] newYears = Arrays.copyOf(years, size + 1);
+        int[] copies = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            copies[i] = availableCopies.get(i);
+        }
+        IntIntHashMap newSlotByBookId = new IntIntHashMap(slotByBookId);
+        StringDictionary newAuthors = new StringDictionary(authors);
+        StringDictionary newGenres = new StringDictionary(genres);
+
+        newBookIds[slot] = bookId;
+        newTitles[slot] = title;
+        newAuthorCodes[slot] = newAuthors.encode(author);
+        newGenreCodes[slot] = newGenres.encode(genre);
+        newYears[slot] = (short) year;
+        copies[slot] = available;
+        newSlotByBookId.put(bookId, slot);
+
+        return new BookCatalog(size + 1, newBookIds, newTitles, newAuthorCodes, newGenreCodes, newYears,
+                new AtomicIntegerArray(copies), newSlotByBookId, newAuthors, newGenres,
+                appendToPosting(authorPostings, newAuthors.keyOf(newAuthorCodes[slot]), newAuthors.keyCount(), slot),
+                appendToPosting(genrePostings, newGenres.keyOf(newGenreCodes[slot]), newGenres.keyCount(), slot));
+    }
+
+    /** Copies the outer postings array and appends slot to one key's list (slots stay ascending). */
+    private static int[][] appendToPosting(int[][] postings, int key, int keyCount, int slot) {
+        int[][] updated = Arrays.copyOf(postings, keyCount);
+        for (int k = postings.length; k < keyCount; k++) {
+            updated[k] = NO_SLOTS; // New key
+        }
+        if (key >= 0) {
+            int[] posting = Arrays.copyOf(updated[key], updated[key].length + 1);
+            posting[posting.length - 1] = slot;
+            updated[key] = posting;
+        }
+        return updated;
+    }
+
+    /** Counting-sort the slots of each column by normalized key. */
+    private static int[][] buildPostings(int[] codes, StringDictionary dictionary, int size) {
+        int[] counts = new int[dictionary.keyCount()];
+        for (int slot = 0; slot < size; slot++) {
+            int key = dictionary.keyOf(codes[slot]);
+            if (key >= 0) counts[key]++;
+        }
+        int[][] postings = new int[counts.length][];
+        for (int key = 0; key < counts.length; key++) {
+            postings[key] = new int[counts[key]];
+            counts[key] = 0; // Reused as fill position
+        }
+        for (int slot = 0; slot < size; slot++) {
+            int key = dictionary.keyOf(codes[slot]);
+            if (key >= 0) postings[key][counts[key]++] = slot;
+        }
+        return postings;
+    }
+
+    // --- Column access by slot ---
+
+    int size() {
+        return size;
+    }
+
+    /** @return The slot for a BookID, or -1 if the book is not in the catalog. */
+    int slotOf(int bookId) {
+        return slotByBookId.get(bookId);
+    }
+
+    int bookIdAt(int slot) {
+        return bookIds[slot];
+    }
+
+    String titleAt(int slot) {
+        return titles[slot];
+    }
+
+    String authorAt(int slot) {
+        return authors.decode(authorCodes[slot]);
+    }
+
+    String genreAt(int slot) {
+        return genres.decode(genreCodes[slot]);
+    }
+
+    int yearAt(int slot) {
+        return years[slot];
+    }
+
+    int availableCopiesAt(int slot) {
+        return availableCopies.get(slot);
+    }
+
+    /**
+     * Adjusts the in-memory available-copies count of a book (e.g. -1 after an issue).
+     * @return false if the book is not in this catalog.
+     */
+    boolean adjustAvailableCopies(int bookId, int delta) {
+        int slot = slotOf(bookId);
+        if (slot < 0) return false;
+        availableCopies.addAndGet(slot, delta);
+        return true;
+    }
+
+    /** @return Raw author dictionary code (equal codes mean identical author strings). */
+    int authorCodeAt(int slot) {
+        return authorCodes[slot];
+    }
+
+    /** @return Raw genre dictionary code (equal codes mean identical genre strings). */
+    int genreCodeAt(int slot) {
+        return genreCodes[slot];
+    }
+
+    /** @return Normalized author key of a slot, or -1 if blank. */
+    int authorKeyAt(int slot) {
+        return authors.keyOf(authorCodes[slot]);
+    }
+
+    /** @return Normalized genre key of a slot, or -1 if blank. */
+    int genreKeyAt(int slot) {
+        return genres.keyOf(genreCodes[slot]);
+    }
+
+    /** @return Slots sharing the normalized author key (do not modify). */
+    int[] authorPosting(int authorKey) {
+        return authorKey < 0 ? NO_SLOTS : authorPostings[authorKey];
+    }
+
+    /** @return Slots sharing the normalized genre key (do not modify). */
+    int[] genrePosting(int genreKey) {
+        return genreKey < 0 ? NO_SLOTS : genrePostings[genreKey];
+    }
+
+    StringDictionary authors() {
+        return authors;
+    }
+
+    StringDictionary genres() {
+        return genres;
+    }
+
+    /**
+     * Read-only BookID -> Title view over the title column (no copying).
+     */
+    Map<Integer, String> titleMapView() {
+        return new AbstractMap<Integer, String>() {
+            @Override
+            public String get(Object key) {
+                int slot = key instanceof Integer ? slotOf((Integer) key) : -1;
+                return slot < 0 ? null : titles[slot];
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof Integer && slotOf((Integer) key) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Entry<Integer, String>> entrySet() {
+                return new AbstractSet<Entry<Integer, String>>() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public Iterator<Entry<Integer, String>> iterator() {
+                        return new Iterator<Entry<Integer, String>>() {
+                            private int slot = 0;
+
+                            @Override
+                            public boolean hasNext() {
+                                return slot < size;
+                            }
+
+                            @Override
+                            public Entry<Integer, String> next() {
+                                if (slot >= size) throw new NoSuchElementException();
+                                Entry<Integer, String> entry = new SimpleImmutableEntry<>(bookIds[slot], titles[slot]);
+                                slot++;
+                                return entry;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Accumulates rows (in any order) and produces an immutable catalog.
+     * A BookID added twice keeps its first slot and is overwritten by the later row.
+     */
+    static final class Builder {
+        private int size;
+        private int[] bookIds;
+        private String[] titles;
+        private int[] authorCodes;
+        private int[] genreCodes;
+        private short[] years;
+        private int[] availableCopies;
+        private final IntIntHashMap slotByBookId;
+        private final StringDictionary authors = new StringDictionary();
+        private final StringDictionary genres = new StringDictionary();
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            bookIds = new int[capacity];
+            titles = new String[capacity];
+            authorCodes = new int[capacity];
+            genreCodes = new int[capacity];
+            years = new short[capacity];
+            availableCopies = new int[capacity];
+            slotByBookId = new IntIntHashMap(capacity, -1);
+        }
+
+        Builder add(int bookId, String title, String author, String genre, int year, int available) {
+            int slot = slotByBookId.get(bookId);
+            if (slot < 0) {
+                if (size == bookIds.length) grow();
+                slot = size++;
+                slotByBookId.put(bookId, slot);
+            }
+            bookIds[slot] = bookId;
+            titles[slot] = title;
+            authorCodes[slot] = authors.encode(author);
+            genreCodes[slot] = genres.encode(genre);
+            years[slot] = (short) year;
+            availableCopies[slot] = available;
+            return this;
+        }
+
+        /**
+         * Adds every row of another builder (e.g. one partition of a parallel load).
+         * Author and genre strings are re-encoded into this builder's dictionaries.
+         */
+        Builder addAll(Builder other) {
+            for (int slot = 0; slot < other.size; slot++) {
+                add(other.bookIds[slot], other.titles[slot], other.authors.decode(other.authorCodes[slot]),
+                    other.genres.decode(other.genreCodes[slot]), other.years[slot], other.availableCopies[slot]);
+            }
+            return this;
+        }
+
+        private void grow() {
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authorCodes = Arrays.copyOf(authorCodes, capacity);
+            genreCodes = Arrays.copyOf(genreCodes, capacity);
+            years = Arrays.copyOf(years, capacity);
+            availableCopies = Arrays.copyOf(availableCopies, capacity);
+        }
+
+        int size() {
+            return size;
+        }
+
+        BookCatalog build() {
+            return new BookCatalog(this);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.bookrecommender;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Book similarity graph in compressed sparse row (CSR) form, indexed by catalog slot.
+ * Two books are connected if they share an author, share a genre, or were published
+ * within YEAR_WINDOW years of each other. The neighbors of slot s are
+ * targets[offsets[s] .. offsets[s+1]), and edgeTypes holds a bitmask per entry
+ * saying which of the three rules produced the edge.
+ *
+ * Edges are generated per node from buckets (same author, same genre) and a
+ * sliding window over books sorted by year, instead of comparing every pair.
+ * Nodes are processed in parallel in two passes: count degrees, then fill.
+ * If even a lower bound on the size exceeds MAX_ADJACENCY_ENTRIES, sparser rule
+ * sets are used (dropping the year rule first, then the genre rule).
+ *
+ * Books added after the build are applied as deltas (see withNode): the CSR arrays
+ * are shared, and per-node "extra" neighbor arrays hold the new edges. Once the deltas
+ * grow past needsCompaction(), the graph should be rebuilt from the catalog.
+ */
+final class BookGraph {
+    static final byte SAME_AUTHOR = 1;
+    static final byte SAME_GENRE = 2;
+    static final byte CLOSE_YEAR = 4;
+    static final int YEAR_WINDOW = 5; // Years apart that still count as "close"
+
+    // Upper bound on stored adjacency entries (2 per undirected edge, ~5 bytes each).
+    // The year rule (and very large genres) make big catalogs nearly complete; when a
+    // cheap lower bound on the size exceeds this, the next-sparser rule set is used.
+    static final long MAX_ADJACENCY_ENTRIES = 100_000_000L;
+    private static final byte[] RULE_FALLBACKS = {
+            SAME_AUTHOR | SAME_GENRE | CLOSE_YEAR,
+            SAME_AUTHOR | SAME_GENRE,
+            SAME_AUTHOR
+    };
+
+    // Delta entries tolerated before a rebuild is due: this many, or half the CSR size if larger
+    private static final long MIN_COMPACTION_ENTRIES = 1_000_000L;
+    private static final int[] NO_TARGETS = new int[0];
+    private static final byte[] NO_TYPES = new byte[0];
+
+    private final int[] offsets;   // baseNodes + 1 entries
+    private final int[] targets;   // Neighbor slots
+    private final byte[] edgeTypes; // Rule bitmask per entry
+    private final byte rules;      // Which rules were applied (bitmask of the edge types)
+
+    // Deltas from books added after the build (null when there are none)
+    private final int nodeCount;
+    private final int[][] extraTargets; // slot -> neighbors added since the build
+    private final byte[][] extraTypes;  // slot -> their rule bitmasks
+    private final long extraEntries;
+
+    private BookGraph(int[] offsets, int[] targets, byte[] edgeTypes, byte rules) {
+        this(offsets, targets, edgeTypes, rules, offsets.length - 1, null, null, 0);
+    }
+
+    private BookGraph(int[] offsets, int[] targets, byte[] edgeTypes, byte rules,
+                      int nodeCount, int[][] extraTargets, byte[][] extraTypes, long extraEntries) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgeTypes = edgeTypes;
+        this.rules = rules;
+        this.nodeCount = nodeCount;
+        this.extraTargets = extraTargets;
+        this.extraTypes = extraTypes;
+        this.extraEntries = extraEntries;
+    }
+
+    /** Empty graph for an empty catalog. */
+    static BookGraph empty() {
+        return new BookGraph(new int[1], new int[0], new byte[0], RULE_FALLBACKS[0]);
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /** @return Number of undirected edges. */
+    long edgeCount() {
+        return (targets.length + extraEntries) / 2;
+    }
+
+    int degree(int slot) {
+        int degree = slot < offsets.length - 1 ? offsets[slot + 1] - offsets[slot] : 0;
+        if (extraTargets != null && extraTargets[slot] != null) {
+            degree += extraTargets[slot].length;
+        }
+        return degree;
+    }
+
+    /** @return The index-th neighbor of a slot, 0 <= index < degree(slot). */
+    int neighbor(int slot, int index) {
+        int baseDegree = slot < offsets.length - 1 ? offsets[slot + 1] - offsets[slot] : 0;
+        return index < baseDegree ? targets[offsets[slot] + index] : extraTargets[slot][index - baseDegree];
+    }
+
+    /** @return Rule bitmask of the index-th edge of a slot. */
+    byte edgeType(int slot, int index) {
+        int baseDegree = slot < offsets.length - 1 ? offsets[slot + 1] - offsets[slot] : 0;
+        return index < baseDegree ? edgeTypes[offsets[slot] + index] : extraTypes[slot][index - baseDegree];
+    }
+
+    /** @return Bitmask of the rules (SAME_AUTHOR, SAME_GENRE, CLOSE_YEAR) used to build this graph. */
+    byte rules() {
+        return rules;
+    }
+
+    /** @return Approximate heap size of the CSR arrays and deltas in bytes. */
+    long memoryBytes() {
+        long bytes = 4L * offsets.length + 4L * targets.length + edgeTypes.length;
+        if (extraTargets != null) {
+            bytes += 8L * extraTargets.length + 5L * extraEntries;
+        }
+        return bytes;
+    }
+
+    /** @return True when the delta edges have grown enough that a full rebuild is worthwhile. */
+    boolean needsCompaction() {
+        return extraEntries > Math.max(MIN_COMPACTION_ENTRIES, targets.length / 2);
+    }
+
+    /**
+     * Returns a graph with the catalog's last slot added as a new node, connected by the
+     * same rules as this graph. Costs one pass over the catalog plus a copy of each new
+     * neighbor's delta array; the CSR arrays are shared with this graph.
+     *
+     * @param books The catalog after the addition (exactly one slot more than nodeCount()).
+     */
+    BookGraph withNode(BookCatalog books) {
+        int newSlot = nodeCount;
+        if (books.size() != newSlot + 1) {
+            throw new IllegalArgumentException("Catalog has " + books.size() + " books; expected " + (newSlot + 1) + ".");
+        }
+        int author = books.authorCodeAt(newSlot);
+        int genre = books.genreCodeAt(newSlot);
+        int year = books.yearAt(newSlot);
+        int[] neighbors = new int[16];
+        byte[] types = new byte[16];
+        int count = 0;
+        for (int slot = 0; slot < newSlot; slot++) {
+            byte type = 0;
+            if ((rules & SAME_AUTHOR) != 0 && author >= 0 && books.authorCodeAt(slot) == author) type |= SAME_AUTHOR;
+            if ((rules & SAME_GENRE) != 0 && genre >= 0 && books.genreCodeAt(slot) == genre) type |= SAME_GENRE;
+            if ((rules & CLOSE_YEAR) != 0 && Math.abs(books.yearAt(slot) - year) <= YEAR_WINDOW) type |= CLOSE_YEAR;
+            if (type == 0) continue;
+            if (count == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, count * 2);
+                types = Arrays.copyOf(types, count * 2);
+            }
+            neighbors[count] = slot;
+            types[count] = type;
+            count++;
+        }
+
+        // Copy-on-write: new outer arrays, and a new delta array for every touched node
+        int[][] newExtraTargets = extraTargets == null ? new int[newSlot + 1][] : Arrays.copyOf(extraTargets, newSlot + 1);
+        byte[][] newExtraTypes = extraTypes == null ? new byte[newSlot + 1][] : Arrays.copyOf(extraTypes, newSlot + 1);
+        for (int i = 0; i < count; i++) {
+            int other = neighbors[i];
+            int[] oldTargets = newExtraTargets[other] != null ? newExtraTargets[other] : NO_TARGETS;
+            byte[] oldTypes = newExtraTypes[other] != null ? newExtraTypes[other] : NO_TYPES;
+            int[] grownTargets = Arrays.copyOf(oldTargets, oldTargets.length + 1);
+            byte[] grownTypes = Arrays.copyOf(oldTypes, oldTypes.length + 1);
+            grownTargets[oldTargets.length] = newSlot;
+            grownTypes[oldTypes.length] = types[i];
+            newExtraTargets[other] = grownTargets;
+            newExtraTypes[other] = grownTypes;
+        }
+        newExtraTargets[newSlot] = Arrays.copyOf(neighbors, count);
+        newExtraTypes[newSlot] = Arrays.copyOf(types, count);
+        return new BookGraph(offsets, targets, edgeTypes, rules, newSlot + 1,
+                newExtraTargets, newExtraTypes, extraEntries + 2L * count);
+    }
+
+    /**
+     * Builds the graph for a catalog and logs build time and memory.
+     */
+    static BookGraph build(BookCatalog books) {
+        long start = System.currentTimeMillis();
+        Buckets buckets = new Buckets(books);
+        byte rules = RULE_FALLBACKS[RULE_FALLBACKS.length - 1];
+        for (byte candidate : RULE_FALLBACKS) {
+            long lowerBound = minimumEntries(books, buckets, candidate);
+            if (lowerBound <= MAX_ADJACENCY_ENTRIES) {
+                rules = candidate;
+                break;
+            }
+            System.out.println("Graph with rules " + describe(candidate) + " needs at least " + lowerBound
+                    + " adjacency entries (limit " + MAX_ADJACENCY_ENTRIES + "); trying fewer rules.");
+        }
+        BookGraph graph = build(books, buckets, rules);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.printf("Graph building complete. Edges added: %d (rules: %s; CSR, %.1f MB, %d ms, %d threads)%n",
+                graph.edgeCount(), describe(rules), graph.memoryBytes() / (1024.0 * 1024.0), elapsed,
+                Runtime.getRuntime().availableProcessors());
+        return graph;
+    }
+
+    static String describe(byte rules) {
+        StringBuilder sb = new StringBuilder();
+        if ((rules & SAME_AUTHOR) != 0) sb.append("author");
+        if ((rules & SAME_GENRE) != 0) sb.append(sb.length() > 0 ? "+" : "").append("genre");
+        if ((rules & CLOSE_YEAR) != 0) sb.append(sb.length() > 0 ? "+" : "").append("year");
+        return sb.toString();
+    }
+
+    /**
+     * Cheap lower bound on the adjacency entries for a rule set: each node has at least
+     * as many neighbors as its largest bucket (minus itself). Also bounds the build work,
+     * which is at most three times this.
+     */
+    private static long minimumEntries(BookCatalog books, Buckets buckets, byte rules) {
+        long total = 0;
+        for (int slot = 0; slot < books.size(); slot++) {
+            int largest = 1;
+            int author = books.authorCodeAt(slot);
+            if ((rules & SAME_AUTHOR) != 0 && author >= 0) {
+                largest = Math.max(largest, buckets.authorStart[author + 1] - buckets.authorStart[author]);
+            }
+            int genre = books.genreCodeAt(slot);
+            if ((rules & SAME_GENRE) != 0 && genre >= 0) {
+                largest = Math.max(largest, buckets.genreStart[genre + 1] - buckets.genreStart[genre]);
+            }
+            if ((rules & CLOSE_YEAR) != 0) {
+                int year = books.yearAt(slot);
+                largest = Math.max(largest, lowerBound(buckets.sortedYears, year + YEAR_WINDOW + 1)
+                        - lowerBound(buckets.sortedYears, year - YEAR_WINDOW));
+            }
+            total += largest - 1;
+        }
+        return total;
+    }
+
+    private static BookGraph build(BookCatalog books, Buckets buckets, byte rules) {
+        int n = books.size();
+
+        // Pass 1: degrees (scratch stamps are per pass, so each pass gets fresh buffers)
+        ThreadLocal<Scratch> countScratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        int[] degree = new int[n];
+        IntStream.range(0, n).parallel().forEach(slot ->
+                degree[slot] = countScratch.get().collect(books, buckets, slot, rules));
+
+        int[] offsets = new int[n + 1];
+        long total = 0;
+        for (int slot = 0; slot < n; slot++) {
+            total += degree[slot];
+            offsets[slot + 1] = (int) Math.min(total, Integer.MAX_VALUE);
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Book graph too large for CSR arrays: " + total + " entries.");
+        }
+
+        // Pass 2: fill neighbors and edge types
+        int[] targets = new int[(int) total];
+        byte[] edgeTypes = new byte[(int) total];
+        ThreadLocal<Scratch> fillScratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        IntStream.range(0, n).parallel().forEach(slot -> {
+            Scratch s = fillScratch.get();
+            int count = s.collect(books, buckets, slot, rules);
+            System.arraycopy(s.neighbors, 0, targets, offsets[slot], count);
+            System.arraycopy(s.types, 0, edgeTypes, offsets[slot], count);
+        });
+        return new BookGraph(offsets, targets, edgeTypes, rules);
+    }
+
+    /**
+     * Per-thread buffers for enumerating one node's neighbors without duplicates.
+     * position[v] is valid only while stamp[v] equals the current node + 1.
+     */
+    private static final class Scratch {
+        final int[] stamp;
+        final int[] position;
+        int[] neighbors = new int[64];
+        byte[] types = new byte[64];
+
+        Scratch(int n) {
+            stamp = new int[n];
+            position = new int[n];
+        }
+
+        /** Collects the neighbors of slot into neighbors/types; returns the count. */
+        int collect(BookCatalog books, Buckets buckets, int slot, byte rules) {
+            int mark = slot + 1;
+            int count = 0;
+            int author = books.authorCodeAt(slot);
+            if ((rules & SAME_AUTHOR) != 0 && author >= 0) {
+                for (int i = buckets.authorStart[author]; i < buckets.authorStart[author + 1]; i++) {
+                    count = add(buckets.authorSlots[i], SAME_AUTHOR, slot, mark, count);
+                }
+            }
+            int genre = books.genreCodeAt(slot);
+            if ((rules & SAME_GENRE) != 0 && genre >= 0) {
+                for (int i = buckets.genreStart[genre]; i < buckets.genreStart[genre + 1]; i++) {
+                    count = add(buckets.genreSlots[i], SAME_GENRE, slot, mark, count);
+                }
+            }
+            if ((rules & CLOSE_YEAR) != 0) {
+                int year = books.yearAt(slot);
+                int from = lowerBound(buckets.sortedYears, year - YEAR_WINDOW);
+                int to = lowerBound(buckets.sortedYears, year + YEAR_WINDOW + 1);
+                for (int i = from; i < to; i++) {
+                    count = add(buckets.slotsByYear[i], CLOSE_YEAR, slot, mark, count);
+                }
+            }
+            return count;
+        }
+
+        private int add(int other, byte type, int slot, int mark, int count) {
+            if (other == slot) return count; // No self-loops
+            if (stamp[other] == mark) {
+                types[position[other]] |= type;
+                return count;
+            }
+            if (count == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, count * 2);
+                types = Arrays.copyOf(types, count * 2);
+            }
+            stamp[other] = mark;
+            position[other] = count;
+            neighbors[count] = other;
+            types[count] = type;
+            return count + 1;
+        }
+    }
+
+    /** First index in a sorted array whose value is >= key. */
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Slots grouped by raw author code and raw genre code (the original rule compares
+     * exact strings), plus all slots sorted by publication year.
+     */
+    private static final class Buckets {
+        final int[] authorStart, authorSlots;
+        final int[] genreStart, genreSlots;
+        final int[] slotsByYear, sortedYears;
+
+        Buckets(BookCatalog books) {
+            int n = books.size();
+            int[] authorCodes = new int[n];
+            int[] genreCodes = new int[n];
+            for (int slot = 0; slot < n; slot++) {
+                authorCodes[slot] = books.authorCodeAt(slot);
+                genreCodes[slot] = books.genreCodeAt(slot);
+            }
+            authorStart = new int[books.authors().size() + 1];
+            authorSlots = groupByCode(authorCodes, authorStart);
+            genreStart = new int[books.genres().size() + 1];
+            genreSlots = groupByCode(genreCodes, genreStart);
+
+            // Sort slots by year (years fit in a short, so pack year and slot into one long)
+            long[] packed = new long[n];
+            for (int slot = 0; slot < n; slot++) {
+                packed[slot] = ((long) books.yearAt(slot) << 32) | slot;
+            }
+            Arrays.parallelSort(packed);
+            slotsByYear = new int[n];
+            sortedYears = new int[n];
+            for (int i = 0; i < n; i++) {
+                slotsByYear[i] = (int) packed[i];
+                sortedYears[i] = (int) (packed[i] >> 32);
+            }
+        }
+
+        /** Counting sort of slots by code; start[c]..start[c+1] delimits code c. Code -1 is skipped. */
+        private static int[] groupByCode(int[] codes, int[] start) {
+            for (int code : codes) {
+                if (code >= 0) start[code + 1]++;
+            }
+            for (int c = 1; c < start.length; c++) {
+                start[c] += start[c - 1];
+            }
+            int[] fill = Arrays.copyOf(start, start.length);
+            int[] slots = new int[start[start.length - 1]];
+            for (int slot = 0; slot < codes.length; slot++) {
+                if (codes[slot] >= 0) slots[fill[codes[slot]]++] = slot;
+            }
+            return slots;
+        }
+    }
+}
@@ -1,245 +1,1013 @@
-package com.bookrecommender;
-
-import java.sql.*;
-import java.util.*;
-import java.util.stream.Collectors;
-// No longer needs regex/Pattern here, moved to UI/Student class
-// No longer needs console-specific imports like Scanner or time imports here
-
-/**
- * Manages database connection, loading book data, and providing recommendation logic
- * for the Book Recommendation System GUI.
- * The original graph logic is kept but unused by the current recommendation method.
- */
-public class BookRecommendationSystem {
-    // MySQL connection details (Consider externalizing these)
-    private static final String URL = "jdbc:mysql://localhost:3306/cp"; // Replace 'cp' with your actual database name
-    private static final String USER = "root";
-    private static final String PASSWORD = "password"; // Replace with your actual password
-
-    // Static connection object accessible by UI components
-    private static Connection conn;
-
-    // Static maps to hold book details loaded from the database (accessible via getters)
-    private static Map<Integer, String> bookTitles = new HashMap<>();
-    private static Map<Integer, String> bookAuthors = new HashMap<>();
-    private static Map<Integer, String> bookGenres = new HashMap<>();
-    // Graph and years map kept for potential future use or compatibility, but not used in current recommendations
-    private static Map<Integer, List<Integer>> graph = new HashMap<>();
-    private static Map<Integer, Integer> bookYears = new HashMap<>();
-
-    /**
-     * Establishes the database connection.
-     * Should be called once when the GUI application starts.
-     * @throws SQLException if the connection fails.
-     */
-    public static void connectDatabase() throws SQLException {
-        if (conn == null || conn.isClosed()) {
-            try {
-                conn = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Database connection established successfully.");
-            } catch (SQLException e) {
-                System.err.println("FATAL: Database connection failed: " + e.getMessage());
-                throw e; // Re-throw to be handled by the GUI launcher
-            }
-        }
-    }
-
-    /**
-     * Closes the database connection.
-     * Should be called when the GUI application exits.
-     */
-    public static void closeDatabase() {
-        if (conn != null) {
-            try {
-                if (!conn.isClosed()) {
-                    conn.close();
-                    System.out.println("Database connection closed.");
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
-        }
-    }
-
-    /**
-     * Gets the active database connection.
-     * Ensures connectDatabase() was called first.
-     * @return The active Connection object.
-     * @throws SQLException if the connection is null or closed.
-     */
-    public static Connection getConnection() throws SQLException {
-        if (conn == null || conn.isClosed()) {
-            // Optionally try to reconnect or throw a more specific error
-             System.err.println("Database connection is not available. Trying to reconnect...");
-             connectDatabase(); // Attempt to reconnect
-             if (conn == null || conn.isClosed()) {
-                 throw new SQLException("Database connection is not available.");
-             }
-        }
-        return conn;
-    }
-
-
-    /**
-     * Loads book data from the database into static maps.
-     * Builds the graph (currently unused by recommendation logic).
-     * Should be called after connectDatabase().
-     * @throws SQLException if a database access error occurs.
-     */
-    public static void loadBooks() throws SQLException {
-        if (conn == null || conn.isClosed()) {
-            throw new SQLException("Cannot load books, database is not connected.");
-        }
-        String query = "SELECT BookID, Title, Author, Genre, Publication FROM books";
-
-        // Clear existing maps before loading
-        bookTitles.clear();
-        bookAuthors.clear();
-        bookGenres.clear();
-        bookYears.clear();
-        graph.clear(); // Clear graph too
-
-        int bookCount = 0;
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                bookCount++;
-                int bookId = rs.getInt("BookID");
-                // Store details in respective maps (original case for display)
-                bookTitles.put(bookId, rs.getString("Title"));
-                bookAuthors.put(bookId, rs.getString("Author"));
-                bookGenres.put(bookId, rs.getString("Genre"));
-                bookYears.put(bookId, rs.getInt("Publication"));
-                graph.putIfAbsent(bookId, new ArrayList<>()); // Initialize graph entry
-            }
-        }
-         System.out.println("Loaded " + bookCount + " books from the database.");
-
-        // Build graph (kept for compatibility, unused by current recommendBooks)
-        buildGraph(); // Encapsulated graph building
-    }
-
-    /**
-     * Helper method to build the graph based on loaded book data.
-     * Connects books if they share Author, Genre, or are published within 5 years.
-     * (Unused by the current recommendation logic).
-     */
-    private static void buildGraph() {
-         System.out.println("Building book graph (unused by current recommendation)...");
-         int edges = 0;
-         for (int book1 : bookTitles.keySet()) {
-             for (int book2 : bookTitles.keySet()) {
-                 if (book1 >= book2) continue; // Avoid duplicates and self-loops
-
-                 String author1 = bookAuthors.get(book1);
-                 String author2 = bookAuthors.get(book2);
-                 String genre1 = bookGenres.get(book1);
-                 String genre2 = bookGenres.get(book2);
-                 Integer year1 = bookYears.get(book1);
-                 Integer year2 = bookYears.get(book2);
-
-                 boolean sameAuthor = author1 != null && author1.equals(author2);
-                 boolean sameGenre = genre1 != null && genre1.equals(genre2);
-                 boolean closeYear = year1 != null && year2 != null && Math.abs(year1 - year2) <= 5;
-
-                 if (sameAuthor || sameGenre || closeYear) {
-                     graph.computeIfAbsent(book1, k -> new ArrayList<>()).add(book2);
-                     graph.computeIfAbsent(book2, k -> new ArrayList<>()).add(book1);
-                     edges++;
-                 }
-             }
-         }
-         System.out.println("Graph building complete. Edges added: " + edges);
-    }
-
-
-    /**
-     * Recommends books based SOLELY on matching authors and genres (case-insensitive)
-     * of the user's issued book history.
-     *
-     * @param userId The ID of the user for whom to generate recommendations.
-     * @return A list of up to 5 recommended BookIDs. Returns empty list if no history or no recommendations found.
-     * @throws SQLException If a database access error occurs.
-     */
-    public static List<Integer> recommendBooks(int userId) throws SQLException {
-        // 1. Get user's book history (issued books)
-        Set<Integer> issuedBookIds = new HashSet<>();
-        String historyQuery = "SELECT DISTINCT BookID FROM user_book_history WHERE UserID = ?";
-        try (PreparedStatement pstmt = getConnection().prepareStatement(historyQuery)) { // Use getConnection()
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                issuedBookIds.add(rs.getInt("BookID"));
-            }
-        }
-
-        if (issuedBookIds.isEmpty()) {
-            return new ArrayList<>(); // No history, no recommendations
-        }
-
-        // 2. Get genres and authors of the issued books (LOWERCASE for comparison)
-        Set<String> issuedGenresLower = new HashSet<>();
-        Set<String> issuedAuthorsLower = new HashSet<>();
-        for (int issuedBookId : issuedBookIds) {
-            String genre = bookGenres.get(issuedBookId);
-            String author = bookAuthors.get(issuedBookId);
-            if (genre != null && !genre.trim().isEmpty()) {
-                issuedGenresLower.add(genre.trim().toLowerCase());
-            }
-            if (author != null && !author.trim().isEmpty()) {
-                issuedAuthorsLower.add(author.trim().toLowerCase());
-            }
-        }
-
-        // 3. Score potential recommendations (case-insensitive)
-        Map<Integer, Integer> recommendationScores = new HashMap<>();
-        for (int candidateBookId : bookTitles.keySet()) {
-            if (!issuedBookIds.contains(candidateBookId)) { // Exclude already issued books
-                int currentScore = 0;
-                String candidateGenre = bookGenres.get(candidateBookId);
-                String candidateAuthor = bookAuthors.get(candidateBookId);
-                String candidateGenreLower = (candidateGenre != null) ? candidateGenre.trim().toLowerCase() : null;
-                String candidateAuthorLower = (candidateAuthor != null) ? candidateAuthor.trim().toLowerCase() : null;
-
-                // Score based on genre match
-                if (candidateGenreLower != null && !candidateGenreLower.isEmpty() && issuedGenresLower.contains(candidateGenreLower)) {
-                    currentScore++;
-                }
-                // Score based on author match
-                if (candidateAuthorLower != null && !candidateAuthorLower.isEmpty() && issuedAuthorsLower.contains(candidateAuthorLower)) {
-                    currentScore++;
-                }
-
-                if (currentScore > 0) {
-                    recommendationScores.put(candidateBookId, currentScore);
-                }
-            }
-        }
-
-        // 4. Sort books by score (descending) and return the top 5 IDs
-        return recommendationScores.entrySet().stream()
-                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-    }
-
-    // --- Static Getters for Book Data (Used by UI) ---
-
-    public static String getBookTitle(int bookId) {
-        return bookTitles.getOrDefault(bookId, "Unknown Title");
-    }
-
-    public static String getBookAuthor(int bookId) {
-        return bookAuthors.getOrDefault(bookId, "Unknown Author");
-    }
-
-    public static String getBookGenre(int bookId) {
-        return bookGenres.getOrDefault(bookId, "Unknown Genre");
-    }
-
-     public static Map<Integer, String> getAllBookTitles() {
-        return Collections.unmodifiableMap(bookTitles); // Return unmodifiable map
-    }
-
-}
+package com.bookrecommender;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+// No longer needs regex/Pattern here, moved to UI/Student class
+// No longer needs console-specific imports like Scanner or time imports here
+
+/**
+ * Manages database connection, loading book data, and providing recommendation logic
+ * for the Book Recommendation System GUI.
+ * Three scorers are available (see RecommendationStrategy): genre/author overlap,
+ * personalized PageRank over the book graph, and item-item co-occurrence from user history.
+ */
+public class BookRecommendationSystem {
+    // MySQL connection details (Consider externalizing these)
+    // rewriteBatchedStatements lets Connector/J send JDBC batches as multi-row statements
+    private static final String URL = "jdbc:mysql://localhost:3306/cp?rewriteBatchedStatements=true"; // Replace 'cp' with your actual database name
+    private static final String USER = "root";
+    private static final String PASSWORD = "password"; // Replace with your actual password
+
+    // How loadBooks() reads the books table; PARALLEL only splits catalogs of 100k+ books
+    public static final CatalogLoadMode DEFAULT_LOAD_MODE = CatalogLoadMode.STREAMING;
+
+    // How fines are kept: STORED rewrites them as loans age (overdue sweep); call setFineMode(FineMode.DERIVED)
+    // at startup to compute them when read instead, so aging loans cause no writes
+    public static final FineMode DEFAULT_FINE_MODE = FineMode.STORED;
+    private static volatile FineMode fineMode = DEFAULT_FINE_MODE;
+
+    // Page size used when callers don't ask for a specific number of recommendations
+    public static final int DEFAULT_RECOMMENDATION_COUNT = 5;
+
+    // Fuzzy search: corrections tried per unknown query word, keyword matches checked for near-duplicates
+    private static final int FUZZY_SUGGESTIONS_PER_WORD = 2;
+    private static final int SIMILAR_BOOK_CANDIDATES = 20;
+
+    // Connection pool shared by all UI components; borrow with getConnection() and close() to return
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_LEASE_TIMEOUT_MS = 10_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+    private static final int POOL_STATEMENT_CACHE_SIZE = 64; // Prepared statements kept per pooled connection
+    // Pooled connections prepare on the server: statements are cached, so the extra prepare round-trip is paid once
+    private static final String POOLED_URL_OPTIONS = "&useServerPrepStmts=true";
+    private static volatile ConnectionPool pool;
+
+    // Catalog + book graph + version, published as one immutable snapshot (see CatalogSnapshot).
+    // Readers call snapshot() once per request and need no locks; writers build a new
+    // snapshot off to the side and swap it in.
+    private static final AtomicReference<CatalogSnapshot> currentSnapshot = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private static final GraphRecommender graphRecommender = new GraphRecommender(GraphRecommender.DEFAULT_WALK_BUDGET);
+    // Item-item co-occurrence model (COLLABORATIVE strategy); untrained until trainCollaborativeModel() finishes
+    private static volatile ItemCooccurrenceModel cooccurrenceModel = new ItemCooccurrenceModel(ItemCooccurrenceModel.DEFAULT_NEIGHBORS);
+    // Model being trained, if any; receives new issues too so none are lost when it is swapped in
+    private static volatile ItemCooccurrenceModel trainingModel;
+    // Genre -> subgenre -> author tree with book/copy/issue counts (TAXONOMY strategy, genre browsing).
+    // Rebuilt by loadBooks(), updated in place on adds and issues (replaced under catalogLock)
+    private static volatile TaxonomyTree taxonomy = TaxonomyTree.build(CatalogSnapshot.EMPTY.catalog(), new IntIntHashMap(0, 0));
+    // Serializes snapshot writers with copy adjustments (so copy-on-write adds lose none); readers never take it
+    private static final Object catalogLock = new Object();
+    private static boolean graphCompactionRunning = false; // Guarded by catalogLock
+    // Serializes loadBooks() runs; held for the whole read and build, never by readers or single-book writers
+    private static final Object reloadLock = new Object();
+    // Changes applied to the live catalog while loadBooks() reads and builds a new one; replayed onto
+    // the new catalog before it is swapped in. Both guarded by catalogLock; the log is null between reloads
+    private static List<CatalogChange> reloadChanges;
+    private static long changeSequence;
+
+    // Recent recommendation pages per user (LRU); see onHistoryChanged() and loadBooks() for invalidation
+    private static final int RECOMMENDATION_CACHE_SIZE = 10_000;
+    private static final RecommendationCache recommendationCache = new RecommendationCache(RECOMMENDATION_CACHE_SIZE);
+
+    // Number of recommendations materialized per user in user_recommendations
+    public static final int MATERIALIZED_RECOMMENDATION_COUNT = BatchRecommendationJob.DEFAULT_TOP_N;
+    // Recomputes dirty users' rows in user_recommendations in the background
+    private static final RecommendationRefresher recommendationRefresher = new RecommendationRefresher(MATERIALIZED_RECOMMENDATION_COUNT);
+    // Marks loans overdue and updates their fines as due dates pass, for all students
+    private static final OverdueSweeper overdueSweeper = new OverdueSweeper();
+
+    /**
+     * Creates the connection pool (and its minimum number of connections).
+     * Should be called once when the GUI application starts.
+     * @throws SQLException if the connection fails.
+     */
+    public static synchronized void connectDatabase() throws SQLException {
+        if (pool == null) {
+            try {
+                pool = new ConnectionPool(() -> DriverManager.getConnection(URL + POOLED_URL_OPTIONS, USER, PASSWORD),
+                        POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_LEASE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+                        POOL_STATEMENT_CACHE_SIZE);
+                System.out.println("Database connection pool established successfully.");
+                try (Connection conn = pool.borrow()) {
+                    Admin.checkIssueConstraints(conn); // Warns if the open-issue index migration hasn't run
+                }
+            } catch (SQLException e) {
+                System.err.println("FATAL: Database connection failed: " + e.getMessage());
+                throw e; // Re-throw to be handled by the GUI launcher
+            }
+        }
+    }
+
+    /**
+     * Opens a new, separate database connection (not from the pool).
+     * Used by background jobs that stream large result sets or hold a connection for
+     * their whole lifetime. The caller owns the connection and must close it.
+     * @throws SQLException if the connection fails.
+     */
+    static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    /**
+     * Closes the connection pool.
+     * Should be called when the GUI application exits.
+     */
+    public static synchronized void closeDatabase() {
+        recommendationRefresher.stop();
+        overdueSweeper.stop();
+        if (pool != null) {
+            System.out.println(pool); // Pool statistics for sizing
+            pool.close();
+            pool = null;
+            System.out.println("Database connection pool closed.");
+            System.out.println(recommendationCache); // Cache statistics for sizing
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool. The caller must close() it (try-with-resources)
+     * to return it; any transaction left open is rolled back on return.
+     * Ensures connectDatabase() was called first.
+     * @return A pooled Connection, exclusive to the caller until closed.
+     * @throws SQLException if the pool is not available or no connection frees up in time.
+     */
+    public static Connection getConnection() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            System.err.println("Database connection pool is not available. Trying to connect...");
+            connectDatabase(); // Attempt to connect
+            current = pool;
+            if (current == null) {
+                throw new SQLException("Database connection is not available.");
+            }
+        }
+        return current.borrow();
+    }
+
+
+    /**
+     * Loads book data from the database into the columnar catalog, streaming the rows
+     * on a dedicated connection (see DEFAULT_LOAD_MODE).
+     * Builds the book graph used by the GRAPH recommendation strategy and the
+     * title/author prefix index used by searchBooks(), the keyword index used by
+     * searchBooksByKeywords() and the typo-tolerant word index used by searchBooksFuzzy().
+     * Should be called after connectDatabase(). This is the full rebuild; single new
+     * books are applied incrementally with addBookToCatalog().
+     * @throws SQLException if a database access error occurs.
+     */
+    public static void loadBooks() throws SQLException {
+        loadBooks(DEFAULT_LOAD_MODE);
+    }
+
+    /**
+     * Loads book data from the database with the given load mode and rebuilds the graph.
+     * The previous catalog stays in use until the new snapshot is swapped in; books added,
+     * issued or returned meanwhile are replayed onto the new one first. Reloads run one at a time.
+     * @param mode BUFFERED (driver default), STREAMING (row by row) or PARALLEL (BookID ranges on several connections).
+     * @throws SQLException if a database access error occurs.
+     */
+    public static void loadBooks(CatalogLoadMode mode) throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Cannot load books, database is not connected.");
+        }
+        reloadCatalog(new CatalogSource() {
+            @Override
+            public BookCatalog readBooks(Runnable readStarting) throws SQLException {
+                long start = System.currentTimeMillis();
+                readStarting.run();
+                BookCatalog loaded = CatalogLoader.load(mode);
+                System.out.println("Loaded " + loaded.size() + " books from the database ("
+                        + loaded.authors().size() + " authors, " + loaded.genres().size() + " genres; "
+                        + mode + ", " + (System.currentTimeMillis() - start) + " ms).");
+                return loaded;
+            }
+
+            @Override
+            public IntIntHashMap readIssueCounts(Runnable readStarting) throws SQLException {
+                try (Connection conn = getConnection()) {
+                    readStarting.run();
+                    return loadIssueCounts(conn);
+                }
+            }
+        });
+    }
+
+    /**
+     * Where a reload reads the books and per-book issue counts from. Each method must run
+     * readStarting immediately before it reads: changes logged after that call are assumed
+     * to be missing from what it returns and are replayed onto it.
+     */
+    interface CatalogSource {
+        BookCatalog readBooks(Runnable readStarting) throws SQLException;
+
+        IntIntHashMap readIssueCounts(Runnable readStarting) throws SQLException;
+    }
+
+    /**
+     * Reads a new catalog from the source, builds the graph, indexes and taxonomy over it,
+     * replays the changes made meanwhile and swaps it in (see loadBooks()).
+     * @throws SQLException if the source fails; the current catalog stays in use.
+     */
+    static void reloadCatalog(CatalogSource source) throws SQLException {
+        synchronized (reloadLock) { // One rebuild at a time; a second caller reloads again after it
+            synchronized (catalogLock) {
+                reloadChanges = new ArrayList<>(); // From here on, live changes are also logged
+            }
+            try {
+                loadAndSwap(source);
+            } finally {
+                synchronized (catalogLock) {
+                    reloadChanges = null;
+                }
+            }
+        }
+    }
+
+    /** Caller holds reloadLock and has started the change log. */
+    private static void loadAndSwap(CatalogSource source) throws SQLException {
+        long[] readSequences = new long[2]; // Change sequence when the books / the issue counts were read
+        BookCatalog loaded = source.readBooks(() -> readSequences[0] = currentChangeSequence());
+
+        // Build graph (used by the GRAPH recommendation strategy)
+        System.out.println("Building book graph...");
+        BookGraph loadedGraph = BookGraph.build(loaded); // Bucketed, parallel CSR build
+
+        // Build search indexes (autocomplete over titles/authors, ranked keyword search)
+        long indexStart = System.currentTimeMillis();
+        PrefixIndex loadedIndex = PrefixIndex.build(loaded);
+        TextSearchIndex loadedTextIndex = TextSearchIndex.build(loaded);
+        FuzzyIndex loadedFuzzyIndex = FuzzyIndex.build(loaded);
+        System.out.println("Built search indexes (" + loadedTextIndex.termCount() + " terms, "
+                + (System.currentTimeMillis() - indexStart) + " ms).");
+
+        // Build genre taxonomy (aggregates include past issues)
+        IntIntHashMap issueCounts = source.readIssueCounts(() -> readSequences[1] = currentChangeSequence());
+        TaxonomyTree loadedTaxonomy = TaxonomyTree.build(loaded, issueCounts);
+
+        boolean compact;
+        synchronized (catalogLock) {
+            // Replay what changed in memory while we were reading, so no add, issue or return is lost.
+            // Changes are logged just after their commit, so a read may already include one committed
+            // right before it started but logged after readStarting; that window is one method call.
+            int replayed = 0;
+            for (CatalogChange change : reloadChanges) {
+                if (change.kind == CatalogChange.ADD_BOOK) {
+                    if (loaded.slotOf(change.bookId) < 0) { // Committed after the books were read
+                        loaded = loaded.withBook(change.bookId, change.title, change.author, change.genre,
+                                change.year, change.delta);
+                        int slot = loaded.size() - 1;
+                        loadedGraph = loadedGraph.withNode(loaded);
+                        loadedIndex = loadedIndex.withBook(loaded, slot);
+                        loadedTextIndex = loadedTextIndex.withBook(loaded, slot);
+                        loadedFuzzyIndex = loadedFuzzyIndex.withBook(loaded, slot);
+                        loadedTaxonomy.addBook(change.bookId, change.genre, change.author, change.delta);
+                        for (int i = issueCounts.get(change.bookId); i > 0; i--) {
+                            loadedTaxonomy.recordIssue(change.bookId); // Counted by the read, but the book wasn't
+                        }
+                        replayed++;
+                    }
+                } else if (change.kind == CatalogChange.COPIES) {
+                    if (change.sequence >= readSequences[0]) {
+                        loaded.adjustAvailableCopies(change.bookId, change.delta);
+                        loadedTaxonomy.adjustAvailableCopies(change.bookId, change.delta);
+                        replayed++;
+                    }
+                } else if (change.sequence >= readSequences[1]) { // ISSUE
+                    loadedTaxonomy.recordIssue(change.bookId);
+                    replayed++;
+                }
+            }
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " catalog changes made during the reload.");
+            }
+            currentSnapshot.set(currentSnapshot.get().next(loaded, loadedGraph, loadedIndex, loadedTextIndex,
+                    loadedFuzzyIndex)); // Atomic swap
+            taxonomy = loadedTaxonomy;
+            recommendationCache.invalidateAll(); // Old pages refer to the previous catalog
+            compact = loadedGraph.needsCompaction() && !graphCompactionRunning;
+            if (compact) graphCompactionRunning = true;
+        }
+        if (compact) {
+            startGraphCompaction();
+        }
+    }
+
+    /**
+     * One in-memory catalog change, logged while a reload runs (see loadBooks()).
+     * For ADD_BOOK, delta holds the available copies.
+     */
+    private static final class CatalogChange {
+        static final int ADD_BOOK = 0, COPIES = 1, ISSUE = 2;
+
+        final int kind;
+        final long sequence;
+        final int bookId;
+        final int delta;
+        final String title, author, genre;
+        final int year;
+
+        CatalogChange(int kind, long sequence, int bookId, int delta, String title, String author, String genre, int year) {
+            this.kind = kind;
+            this.sequence = sequence;
+            this.bookId = bookId;
+            this.delta = delta;
+            this.title = title;
+            this.author = author;
+            this.genre = genre;
+            this.year = year;
+        }
+    }
+
+    private static long currentChangeSequence() {
+        synchronized (catalogLock) {
+            return changeSequence;
+        }
+    }
+
+    /** Caller holds catalogLock. Logs a change if a reload is running. */
+    private static void logChange(int kind, int bookId, int delta, String title, String author, String genre, int year) {
+        long sequence = changeSequence++;
+        if (reloadChanges != null) {
+            reloadChanges.add(new CatalogChange(kind, sequence, bookId, delta, title, author, genre, year));
+        }
+    }
+
+    /**
+     * Adds one newly inserted book to the in-memory catalog, graph and search indexes without
+     * reloading: the catalog and indexes are extended copy-on-write and only the new node's
+     * edges are computed.
+     * When the accumulated graph deltas grow large, a full graph rebuild runs in the background.
+     *
+     * @param bookId    The new book's ID (as generated by the database).
+     * @param title     Title as stored.
+     * @param author    Author as stored.
+     * @param genre     Genre as stored.
+     * @param year      Publication year.
+     * @param available Available copies.
+     */
+    public static void addBookToCatalog(int bookId, String title, String author, String genre, int year, int available) {
+        boolean compact;
+        synchronized (catalogLock) {
+            CatalogSnapshot current = currentSnapshot.get();
+            BookCatalog updated = current.catalog().withBook(bookId, title, author, genre, year, available);
+            BookGraph updatedGraph = current.graph().withNode(updated);
+            int slot = updated.size() - 1;
+            PrefixIndex updatedIndex = current.prefixIndex().withBook(updated, slot);
+            TextSearchIndex updatedTextIndex = current.textIndex().withBook(updated, slot);
+            FuzzyIndex updatedFuzzyIndex = current.fuzzyIndex().withBook(updated, slot);
+            currentSnapshot.set(current.next(updated, updatedGraph, updatedIndex, updatedTextIndex, updatedFuzzyIndex));
+            taxonomy.addBook(bookId, genre, author, available);
+            logChange(CatalogChange.ADD_BOOK, bookId, available, title, author, genre, year);
+            recommendationCache.invalidateAll(); // The new book is a candidate for everyone
+            compact = updatedGraph.needsCompaction() && !graphCompactionRunning;
+            if (compact) graphCompactionRunning = true;
+        }
+        if (compact) {
+            startGraphCompaction();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the current catalog on a background thread and swaps it in.
+     * If adds replace the snapshot during the rebuild, the result is discarded; those adds saw
+     * the compaction running and did not start another, so it rebuilds again from the new
+     * snapshot as long as its graph still needs compaction.
+     */
+    private static void startGraphCompaction() {
+        Thread compactor = new Thread(() -> {
+            boolean done = false;
+            try {
+                while (!done) {
+                    CatalogSnapshot base = currentSnapshot.get();
+                    BookGraph rebuilt = BookGraph.build(base.catalog());
+                    synchronized (catalogLock) {
+                        CatalogSnapshot current = currentSnapshot.get();
+                        if (current == base) {
+                            currentSnapshot.set(base.withGraph(rebuilt)); // Same books, so cached pages stay valid
+                            done = true;
+                        } else {
+                            done = !current.graph().needsCompaction(); // E.g. a reload built a fresh graph
+                        }
+                        if (done) graphCompactionRunning = false; // Decided under the lock, so no add is missed
+                    }
+                }
+            } finally {
+                if (!done) {
+                    synchronized (catalogLock) {
+                        graphCompactionRunning = false; // Build failed; the next add that needs it retries
+                    }
+                }
+            }
+        }, "graph-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**
+     * Recommends books based SOLELY on matching authors and genres (case-insensitive)
+     * of the user's issued book history.
+     *
+     * @param userId The ID of the user for whom to generate recommendations.
+     * @return A list of up to 5 recommended BookIDs. Returns empty list if no history or no recommendations found.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<Integer> recommendBooks(int userId) throws SQLException {
+        return recommendBooks(userId, DEFAULT_RECOMMENDATION_COUNT, 0, RecommendationFilter.NONE);
+    }
+
+    /**
+     * Returns one page of genre/author overlap recommendations.
+     * Candidates are ranked by score (descending) with ties broken by BookID (ascending),
+     * so consecutive pages never overlap or skip books while the catalog is unchanged.
+     *
+     * @param userId The ID of the user for whom to generate recommendations.
+     * @param k      Maximum number of BookIDs to return (page size).
+     * @param offset Number of top-ranked books to skip (page start).
+     * @param filter Restrictions on genre, publication year and availability; use RecommendationFilter.NONE for none.
+     * @return Up to k recommended BookIDs, best first. Empty if no history or no matches.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<Integer> recommendBooks(int userId, int k, int offset, RecommendationFilter filter) throws SQLException {
+        return recommendBooks(userId, k, offset, filter, RecommendationStrategy.OVERLAP);
+    }
+
+    /**
+     * Returns one page of recommendations ranked by the given strategy.
+     * Ties break by BookID (ascending) for all strategies; GRAPH walks are seeded from
+     * the user and catalog version, so its pages are stable too. COLLABORATIVE falls back
+     * to OVERLAP until the co-occurrence model has been trained.
+     *
+     * @param userId   The ID of the user for whom to generate recommendations.
+     * @param k        Maximum number of BookIDs to return (page size).
+     * @param offset   Number of top-ranked books to skip (page start).
+     * @param filter   Restrictions on genre, publication year and availability; use RecommendationFilter.NONE for none.
+     * @param strategy OVERLAP (genre/author match), GRAPH (personalized PageRank), COLLABORATIVE (co-occurrence)
+     *                 or TAXONOMY (genre tree with sibling expansion).
+     * @return Up to k recommended BookIDs, best first. Empty if no history or no matches.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<Integer> recommendBooks(int userId, int k, int offset, RecommendationFilter filter,
+                                               RecommendationStrategy strategy) throws SQLException {
+        return recommendBooks(null, userId, k, offset, filter, strategy);
+    }
+
+    /**
+     * As recommendBooks(userId, k, offset, filter, strategy), reading the history through
+     * the caller's connection if one is given (so a caller already holding a pooled
+     * connection doesn't borrow a second one). With null, a connection is borrowed
+     * only on a cache miss.
+     */
+    static List<Integer> recommendBooks(Connection callerConn, int userId, int k, int offset, RecommendationFilter filter,
+                                        RecommendationStrategy strategy) throws SQLException {
+        if (k < 0 || offset < 0) {
+            throw new IllegalArgumentException("k and offset must be non-negative (k=" + k + ", offset=" + offset + ")");
+        }
+        RecommendationFilter activeFilter = filter != null ? filter : RecommendationFilter.NONE;
+        RecommendationStrategy activeStrategy = strategy != null ? strategy : RecommendationStrategy.OVERLAP;
+        // "Available only" pages, and strategies ranked with library-wide issue state, change with
+        // every issue anywhere, so they are never cached
+        boolean cacheable = !activeFilter.isAvailableOnly() && activeStrategy.isCacheable();
+        CatalogSnapshot snapshot = currentSnapshot.get(); // One consistent catalog + graph for this request
+        long version = snapshot.version();
+        long cacheEpoch = recommendationCache.currentEpoch();
+        if (cacheable) {
+            List<Integer> cached = recommendationCache.get(userId, version, k, offset, activeFilter, activeStrategy);
+            if (cached != null) {
+                return new ArrayList<>(cached);
+            }
+        }
+
+        BookCatalog books = snapshot.catalog();
+        ItemCooccurrenceModel model = cooccurrenceModel;
+        IntIntHashMap issuedSlots;
+        if (callerConn != null) {
+            issuedSlots = loadHistorySlots(callerConn, books, userId);
+        } else {
+            try (Connection conn = getConnection()) {
+                issuedSlots = loadHistorySlots(conn, books, userId);
+            }
+        }
+        List<Integer> page;
+        if (activeStrategy == RecommendationStrategy.GRAPH) {
+            long seed = 31L * userId + version; // Deterministic per user and catalog
+            page = graphRecommender.rank(snapshot.graph(), books, issuedSlots, k, offset, activeFilter, seed);
+        } else if (activeStrategy == RecommendationStrategy.COLLABORATIVE && model.isTrained()) {
+            page = model.rank(books, issuedSlots, k, offset, activeFilter);
+        } else if (activeStrategy == RecommendationStrategy.TAXONOMY) {
+            page = rankByTaxonomy(taxonomy, books, issuedSlots, k, offset, activeFilter);
+        } else {
+            // OVERLAP, or COLLABORATIVE before the model is trained
+            page = rankByOverlap(books, issuedSlots, k, offset, activeFilter);
+        }
+        if (cacheable) {
+            recommendationCache.put(userId, version, k, offset, activeFilter, activeStrategy, page, cacheEpoch);
+        }
+        return page;
+    }
+
+    /**
+     * Returns one page of recommendations from the materialized user_recommendations
+     * table (one primary-key lookup), falling back to live computation when the page
+     * is not materialized: strategies other than OVERLAP or filtered queries, pages past the stored top N,
+     * or users whose rows have not been generated yet (they are queued for the refresher; users
+     * whose stored list is empty are not queued again).
+     *
+     * @param conn   The database connection used for the lookup.
+     * @param userId The user.
+     * @param k      Maximum number of BookIDs to return.
+     * @param offset Number of top-ranked books to skip.
+     * @param filter Restrictions; only RecommendationFilter.NONE is served from the table.
+     * @param strategy Scoring method; only OVERLAP is served from the table.
+     * @return Up to k recommended BookIDs, best first.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<Integer> getMaterializedRecommendations(Connection conn, int userId, int k, int offset,
+                                                               RecommendationFilter filter, RecommendationStrategy strategy) throws SQLException {
+        boolean unfiltered = filter == null || filter.isEmpty();
+        boolean materialized = strategy == null || strategy == RecommendationStrategy.OVERLAP; // Table holds OVERLAP lists
+        if (materialized && unfiltered && (long) offset + k <= MATERIALIZED_RECOMMENDATION_COUNT) {
+            List<Integer> stored = RecommendationStore.readPage(conn, userId, offset, k);
+            if (!stored.isEmpty()) {
+                return stored;
+            }
+            if (offset == 0 && !RecommendationStore.isMaterialized(conn, userId)) {
+                recommendationRefresher.markUserDirty(userId); // Never stored; materialize for next time
+            }
+        }
+        return recommendBooks(conn, userId, k, offset, filter, strategy);
+    }
+
+    /**
+     * Starts the background refresher that keeps user_recommendations up to date.
+     * Should be called once after loadBooks().
+     */
+    public static void startRecommendationRefresher() {
+        recommendationRefresher.start();
+    }
+
+    /**
+     * Starts the background sweep that marks loans overdue and updates fines as their
+     * due dates pass. Should be called once after connectDatabase().
+     */
+    public static void startOverdueSweeper() {
+        if (fineMode != FineMode.STORED) {
+            System.out.println("Overdue sweeper not started: fines are derived at read time.");
+            return;
+        }
+        overdueSweeper.start();
+    }
+
+    /** @return How fines and overdue status are kept (see FineMode). */
+    public static FineMode getFineMode() {
+        return fineMode;
+    }
+
+    /**
+     * Switches between stored and read-time fines. Should be called before
+     * startOverdueSweeper(); stored fines are only brought up to date by the next sweep.
+     * @param mode The new mode.
+     */
+    public static void setFineMode(FineMode mode) {
+        fineMode = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * Must be called after a new issue record is committed, so the overdue sweep
+     * picks it up when its due date passes.
+     * @param issueId The new IssueID.
+     * @param dueDate Its due date.
+     */
+    public static void onLoanOpened(int issueId, LocalDate dueDate) {
+        if (fineMode != FineMode.STORED) return; // Nothing is written as the loan ages
+        overdueSweeper.track(issueId, dueDate);
+    }
+
+    /**
+     * Runs one overdue sweep pass now, on the caller's thread, for every loan whose
+     * fine is out of date (normally the background sweeper does this at midnight).
+     * Does nothing in FineMode.DERIVED, where fines are never out of date.
+     * @param conn A connection to write with.
+     * @return A status message with the rows updated and the rate.
+     * @throws SQLException If a database error occurs.
+     */
+    public static String runOverdueSweep(Connection conn) throws SQLException {
+        if (fineMode != FineMode.STORED) {
+            return "Success: Fines are computed when read (" + fineMode + " mode); there is nothing to sweep.";
+        }
+        OverdueSweeper.Pass pass = overdueSweeper.sweep(conn);
+        return "Success: Overdue sweep updated " + pass.rows + " loans in " + pass.millis + " ms ("
+                + pass.rowsPerSecond() + " rows/s). Open loans tracked: " + overdueSweeper.trackedLoans() + ".";
+    }
+
+    /**
+     * Must be called after a user's issue history changes (e.g. a new issue),
+     * so their cached and materialized recommendations are recomputed.
+     * @param userId The user whose history changed.
+     */
+    public static void onHistoryChanged(int userId) {
+        recommendationCache.invalidateUser(userId);
+        recommendationRefresher.markUserDirty(userId);
+    }
+
+    /**
+     * Must be called after a book has been issued, with the student's history as it was
+     * before the issue. Updates the co-occurrence model and the taxonomy's issue counts, and
+     * then behaves like onHistoryChanged().
+     * @param userId       The student.
+     * @param bookId       The issued book.
+     * @param priorBookIds The student's distinct BookIDs before the issue (see loadHistoryBookIds()).
+     */
+    public static void onBookIssued(int userId, int bookId, int[] priorBookIds) {
+        cooccurrenceModel.recordIssue(bookId, priorBookIds);
+        synchronized (catalogLock) { // Not lost to a concurrent reload
+            taxonomy.recordIssue(bookId);
+            logChange(CatalogChange.ISSUE, bookId, 0, null, null, null, 0);
+        }
+        ItemCooccurrenceModel training = trainingModel;
+        if (training != null) {
+            training.recordIssue(bookId, priorBookIds);
+        }
+        onHistoryChanged(userId);
+    }
+
+    /**
+     * Trains a new co-occurrence model from user_book_history on its own connection and
+     * swaps it in. Blocks for the length of one history scan; see startCollaborativeTraining().
+     * @throws SQLException If a database access error occurs (the old model stays in use).
+     */
+    public static void trainCollaborativeModel() throws SQLException {
+        ItemCooccurrenceModel model = new ItemCooccurrenceModel(ItemCooccurrenceModel.DEFAULT_NEIGHBORS);
+        trainingModel = model;
+        try (Connection readConn = openConnection()) {
+            model.train(readConn, Runtime.getRuntime().availableProcessors());
+            cooccurrenceModel = model;
+        } finally {
+            trainingModel = null;
+        }
+    }
+
+    /**
+     * Trains the co-occurrence model on a background daemon thread.
+     * Should be called once after loadBooks(); COLLABORATIVE uses OVERLAP until it finishes.
+     */
+    public static void startCollaborativeTraining() {
+        Thread trainer = new Thread(() -> {
+            try {
+                trainCollaborativeModel();
+            } catch (SQLException e) {
+                System.err.println("Co-occurrence model training failed: " + e.getMessage());
+            }
+        }, "cooccurrence-trainer");
+        trainer.setDaemon(true);
+        trainer.start();
+    }
+
+    /**
+     * Must be called after a book is added to the catalog, so users who read the
+     * same genre or author get their materialized recommendations recomputed.
+     * @param bookId The new book's ID (must already be in the loaded catalog).
+     */
+    public static void onBookAdded(int bookId) {
+        recommendationRefresher.markBookAdded(bookId);
+    }
+
+    /** @return Current catalog version (incremented on every reload or added book). */
+    public static long getCatalogVersion() {
+        return currentSnapshot.get().version();
+    }
+
+    /** @return The current catalog snapshot; take it once per operation and use it throughout. */
+    static CatalogSnapshot snapshot() {
+        return currentSnapshot.get();
+    }
+
+    /** @return The catalog currently in use (immutable apart from available copies). */
+    static BookCatalog getCatalog() {
+        return currentSnapshot.get().catalog();
+    }
+
+    /** @return The recommendation cache, for reading its hit/miss/eviction counters. */
+    public static RecommendationCache getRecommendationCache() {
+        return recommendationCache;
+    }
+
+    /**
+     * Reads the user's issue history as a set of catalog slots.
+     * Books no longer in the catalog are skipped (they carry no genre/author).
+     */
+    static IntIntHashMap loadHistorySlots(Connection connection, BookCatalog books, int userId) throws SQLException {
+        IntIntHashMap issuedSlots = new IntIntHashMap(16, -1);
+        String historyQuery = "SELECT DISTINCT BookID FROM user_book_history WHERE UserID = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(historyQuery)) {
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int slot = books.slotOf(rs.getInt("BookID"));
+                if (slot >= 0) {
+                    issuedSlots.put(slot, slot);
+                }
+            }
+        }
+        return issuedSlots;
+    }
+
+    /**
+     * Reads the user's distinct issued BookIDs (sorted ascending), including books no
+     * longer in the catalog.
+     */
+    public static int[] loadHistoryBookIds(Connection connection, int userId) throws SQLException {
+        int[] bookIds = new int[16];
+        int count = 0;
+        String historyQuery = "SELECT DISTINCT BookID FROM user_book_history WHERE UserID = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(historyQuery)) {
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (count == bookIds.length) bookIds = Arrays.copyOf(bookIds, count * 2);
+                bookIds[count++] = rs.getInt("BookID");
+            }
+        }
+        return UserHistoryScanner.distinctSorted(bookIds, count);
+    }
+
+    /**
+     * Scores candidates sharing a genre or author with the issued books and keeps
+     * the best offset + k in a bounded heap.
+     *
+     * @param books       The catalog to score against.
+     * @param issuedSlots The user's issued books as catalog slots (excluded from results).
+     * @return Up to k BookIDs starting at rank offset.
+     */
+    static List<Integer> rankByOverlap(BookCatalog books, IntIntHashMap issuedSlots, int k, int offset, RecommendationFilter filter) {
+        if (issuedSlots.size() == 0 || k == 0) {
+            return new ArrayList<>(); // No history, no recommendations
+        }
+        IntIntHashMap recommendationScores = scoreByOverlap(books, issuedSlots);
+
+        // Keep the best offset + k in a bounded min-heap (O(n log k), no full sort)
+        TopKCollector topK = new TopKCollector((int) Math.min(recommendationScores.size(), (long) offset + k));
+        collectTopK(books, recommendationScores, filter, topK);
+        return topK.drainIds(offset);
+    }
+
+    /**
+     * Scores candidates through the genre taxonomy (the user's authors, then popular sibling
+     * authors and subgenres; see TaxonomyTree.scoreCandidates) and keeps the best offset + k.
+     * @return Up to k BookIDs starting at rank offset.
+     */
+    static List<Integer> rankByTaxonomy(TaxonomyTree tree, BookCatalog books, IntIntHashMap issuedSlots, int k, int offset,
+                                        RecommendationFilter filter) {
+        if (issuedSlots.size() == 0 || k == 0) {
+            return new ArrayList<>(); // No history, no recommendations
+        }
+        IntIntHashMap recommendationScores = tree.scoreCandidates(books, issuedSlots);
+        TopKCollector topK = new TopKCollector((int) Math.min(recommendationScores.size(), (long) offset + k));
+        collectTopK(books, recommendationScores, filter, topK);
+        return topK.drainIds(offset);
+    }
+
+    /**
+     * Collects the unfiltered top n overlap recommendations (BookIDs with scores).
+     * Used by the batch job and the refresher, which store scores alongside IDs.
+     */
+    static TopKCollector topByOverlap(BookCatalog books, IntIntHashMap issuedSlots, int n) {
+        TopKCollector topK = new TopKCollector(n);
+        if (issuedSlots.size() > 0) {
+            collectTopK(books, scoreByOverlap(books, issuedSlots), RecommendationFilter.NONE, topK);
+        }
+        return topK;
+    }
+
+    /**
+     * Scores candidates sharing a genre or author with the issued books:
+     * +1 for a genre match and +1 for an author match. Issued books are excluded.
+     * @return Map from candidate slot to score.
+     */
+    static IntIntHashMap scoreByOverlap(BookCatalog books, IntIntHashMap issuedSlots) {
+        // 1. Get the normalized genre and author keys of the issued books
+        Set<Integer> issuedGenreKeys = new HashSet<>();
+        Set<Integer> issuedAuthorKeys = new HashSet<>();
+        issuedSlots.forEach((slot, unused) -> {
+            if (books.genreKeyAt(slot) >= 0) issuedGenreKeys.add(books.genreKeyAt(slot));
+            if (books.authorKeyAt(slot) >= 0) issuedAuthorKeys.add(books.authorKeyAt(slot));
+        });
+
+        // 2. Walk the posting lists of the matched genres/authors
+        IntIntHashMap recommendationScores = new IntIntHashMap(64, 0);
+        for (int genreKey : issuedGenreKeys) {
+            for (int candidateSlot : books.genrePosting(genreKey)) {
+                if (!issuedSlots.containsKey(candidateSlot)) { // Exclude already issued books
+                    recommendationScores.addTo(candidateSlot, 1);
+                }
+            }
+        }
+        for (int authorKey : issuedAuthorKeys) {
+            for (int candidateSlot : books.authorPosting(authorKey)) {
+                if (!issuedSlots.containsKey(candidateSlot)) {
+                    recommendationScores.addTo(candidateSlot, 1);
+                }
+            }
+        }
+        return recommendationScores;
+    }
+
+    /**
+     * Offers every scored slot that passes the filter to the collector (as BookIDs).
+     */
+    static void collectTopK(BookCatalog books, IntIntHashMap scores, RecommendationFilter filter, TopKCollector topK) {
+        RecommendationFilter activeFilter = filter != null ? filter : RecommendationFilter.NONE;
+        int filterGenreKey = activeFilter.resolveGenreKey(books);
+        scores.forEach((slot, score) -> {
+            if (activeFilter.accepts(books, slot, filterGenreKey)) {
+                topK.offer(books.bookIdAt(slot), score);
+            }
+        });
+    }
+
+    /**
+     * Updates the in-memory available-copies count after an issue or return,
+     * so "available only" filters don't need a catalog reload.
+     * @param bookId The book whose count changed.
+     * @param delta  The change (e.g. -1 for an issue).
+     */
+    public static void adjustAvailableCopies(int bookId, int delta) {
+        synchronized (catalogLock) { // Not lost to a concurrent copy-on-write add
+            currentSnapshot.get().catalog().adjustAvailableCopies(bookId, delta);
+            taxonomy.adjustAvailableCopies(bookId, delta);
+            logChange(CatalogChange.COPIES, bookId, delta, null, null, null, 0);
+        }
+    }
+
+    /**
+     * Autocomplete search over the loaded catalog: books whose title, a word of the
+     * title, or author starts with the typed text (case and punctuation ignored).
+     * Runs entirely in memory against the current snapshot.
+     *
+     * @param query Text typed so far.
+     * @param limit Maximum number of results (at most PrefixIndex.MAX_RESULTS).
+     * @return Matching BookIDs, title matches first; empty if nothing matches.
+     */
+    public static List<Integer> searchBooks(String query, int limit) {
+        CatalogSnapshot snapshot = currentSnapshot.get(); // Index slots refer to this snapshot's catalog
+        int[] slots = snapshot.prefixIndex().search(query, limit);
+        List<Integer> bookIds = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            bookIds.add(snapshot.catalog().bookIdAt(slot));
+        }
+        return bookIds;
+    }
+
+    /**
+     * Relevance-ranked keyword search over title, author and genre (BM25, in memory).
+     * Words may appear in any order and field; books matching more and rarer words rank
+     * higher, and title matches weigh more than author or genre matches.
+     *
+     * @param query Free-text query.
+     * @param limit Maximum number of results (at most TextSearchIndex.MAX_RESULTS).
+     * @return BookIDs, most relevant first; empty if no word matches.
+     */
+    public static List<Integer> searchBooksByKeywords(String query, int limit) {
+        CatalogSnapshot snapshot = currentSnapshot.get();
+        int[] slots = snapshot.textIndex().search(query, limit);
+        List<Integer> bookIds = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            bookIds.add(snapshot.catalog().bookIdAt(slot));
+        }
+        return bookIds;
+    }
+
+    /**
+     * Keyword search that tolerates typos: each query word that isn't in any title or
+     * author is replaced by the closest catalog words (up to 2 edits, see FuzzyIndex),
+     * and the corrected query is ranked like searchBooksByKeywords().
+     *
+     * @param query Free-text query, possibly misspelled.
+     * @param limit Maximum number of results (at most TextSearchIndex.MAX_RESULTS).
+     * @return BookIDs, most relevant first; empty if no word matches even approximately.
+     */
+    public static List<Integer> searchBooksFuzzy(String query, int limit) {
+        CatalogSnapshot snapshot = currentSnapshot.get();
+        int[] slots = snapshot.textIndex().search(correctQuery(snapshot.fuzzyIndex(), query), limit);
+        List<Integer> bookIds = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            bookIds.add(snapshot.catalog().bookIdAt(slot));
+        }
+        return bookIds;
+    }
+
+    /**
+     * Finds catalog books that look like the same book as the given title and author:
+     * both normalized strings within FuzzyIndex.MAX_DISTANCE edits (e.g. "The Hobit" by
+     * "J.R.R. Tolkein"). Used to warn about near-duplicates when adding books.
+     *
+     * @param title  Title of the new book.
+     * @param author Author of the new book.
+     * @param limit  Maximum number of books to return.
+     * @return BookIDs of probable duplicates (empty if none).
+     */
+    public static List<Integer> findSimilarBooks(String title, String author, int limit) {
+        CatalogSnapshot snapshot = currentSnapshot.get();
+        BookCatalog books = snapshot.catalog();
+        String normalizedTitle = PrefixIndex.normalize(title);
+        String normalizedAuthor = PrefixIndex.normalize(author);
+        // Candidates: best keyword matches for the corrected title and author words
+        String query = correctQuery(snapshot.fuzzyIndex(), title + " " + author);
+        List<Integer> similar = new ArrayList<>();
+        for (int slot : snapshot.textIndex().search(query, SIMILAR_BOOK_CANDIDATES)) {
+            if (FuzzyIndex.distance(normalizedTitle, PrefixIndex.normalize(books.titleAt(slot)), FuzzyIndex.MAX_DISTANCE)
+                    <= FuzzyIndex.MAX_DISTANCE
+                    && FuzzyIndex.distance(normalizedAuthor, PrefixIndex.normalize(books.authorAt(slot)), FuzzyIndex.MAX_DISTANCE)
+                    <= FuzzyIndex.MAX_DISTANCE) {
+                similar.add(books.bookIdAt(slot));
+                if (similar.size() == limit) break;
+            }
+        }
+        return similar;
+    }
+
+    /** Keeps known words and replaces unknown ones by their closest dictionary words. */
+    private static String correctQuery(FuzzyIndex fuzzy, String query) {
+        StringBuilder corrected = new StringBuilder();
+        for (String word : TextSearchIndex.tokenize(query)) {
+            corrected.append(word).append(' '); // Kept even if unknown (it may be a genre word)
+            if (!fuzzy.contains(word)) {
+                for (String suggestion : fuzzy.suggest(word, FUZZY_SUGGESTIONS_PER_WORD)) {
+                    corrected.append(suggestion).append(' ');
+                }
+            }
+        }
+        return corrected.toString();
+    }
+
+    /**
+     * Browses the genre taxonomy from memory (no database access).
+     * Rows are {Name, Books, Available Copies, Times Issued}, most issued first.
+     *
+     * @param genre    null to list genres; otherwise lists the subgenres of this genre.
+     * @param subgenre null, or a subgenre of genre to list its authors.
+     * @return The child nodes' aggregates; empty if the genre/subgenre doesn't exist.
+     */
+    public static List<String[]> browseGenres(String genre, String subgenre) {
+        return toRows(taxonomy.children(genre, subgenre));
+    }
+
+    /**
+     * Top authors of a genre over all its subgenres, from the in-memory taxonomy.
+     * Rows are {Author, Books, Available Copies, Times Issued}, most issued first.
+     *
+     * @param genre Genre name (case-insensitive, without subgenre).
+     * @param limit Maximum number of authors.
+     * @return Up to limit rows; empty if the genre doesn't exist.
+     */
+    public static List<String[]> getTopAuthors(String genre, int limit) {
+        return toRows(taxonomy.topAuthors(genre, limit));
+    }
+
+    private static List<String[]> toRows(List<TaxonomyTree.Stats> nodes) {
+        List<String[]> rows = new ArrayList<>(nodes.size());
+        for (TaxonomyTree.Stats node : nodes) {
+            rows.add(new String[]{node.name, String.valueOf(node.bookCount),
+                    String.valueOf(node.availableCopies), String.valueOf(node.issueCount)});
+        }
+        return rows;
+    }
+
+    /** @return BookID -> number of times issued, over all issue records. */
+    private static IntIntHashMap loadIssueCounts(Connection connection) throws SQLException {
+        IntIntHashMap counts = new IntIntHashMap(1024, 0);
+        String sql = "SELECT BookID, COUNT(*) AS Issues FROM book_issues GROUP BY BookID";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql); ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getInt("BookID"), rs.getInt("Issues"));
+            }
+        }
+        return counts;
+    }
+
+    // --- Static Getters for Book Data (Used by UI) ---
+
+    public static String getBookTitle(int bookId) {
+        BookCatalog books = getCatalog();
+        int slot = books.slotOf(bookId);
+        return slot >= 0 ? books.titleAt(slot) : "Unknown Title";
+    }
+
+    public static String getBookAuthor(int bookId) {
+        BookCatalog books = getCatalog();
+        int slot = books.slotOf(bookId);
+        return slot >= 0 ? books.authorAt(slot) : "Unknown Author";
+    }
+
+    public static String getBookGenre(int bookId) {
+        BookCatalog books = getCatalog();
+        int slot = books.slotOf(bookId);
+        return slot >= 0 ? books.genreAt(slot) : "Unknown Genre";
+    }
+
+     public static Map<Integer, String> getAllBookTitles() {
+        return getCatalog().titleMapView(); // Read-only view over the title column
+    }
+
+}
@@ -0,0 +1,475 @@
+package com.bookrecommender;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports books from a CSV file in bulk.
+ * <ol>
+ *   <li>The file is streamed record by record (quoted fields may contain commas, quotes
+ *       and line breaks) and cut into chunks of RECORDS_PER_CHUNK.</li>
+ *   <li>Chunks are parsed and validated in parallel; at most two chunks per thread are in
+ *       flight, so memory does not grow with the file.</li>
+ *   <li>Results are consumed in file order and deduplicated against a title+author hash set
+ *       seeded from the in-memory catalog (no per-row SQL), which also drops repeats within
+ *       the file.</li>
+ *   <li>New books are written with batched INSERTs (rewriteBatchedStatements), one
+ *       transaction per batch, on the importer's own connection. If the database rejects
+ *       a batch because of its data, the batch is retried row by row and only the rows the
+ *       database refuses are reported as invalid.</li>
+ *   <li>The catalog, graph and search indexes are rebuilt once at the end.</li>
+ * </ol>
+ * The header row names the columns (any order, case ignored): Title, Author, Genre,
+ * Publication (or Year) and TotalCopies (or Copies). Title, Author and Genre are checked
+ * against the column sizes of the books table.
+ */
+public class CatalogImporter {
+    private static final int RECORDS_PER_CHUNK = 2_000; // Records parsed per task
+    private static final int ROWS_PER_BATCH = 1_000;    // INSERTs per batch and per transaction
+    private static final int MAX_REPORTED_ERRORS = 50;  // Invalid rows listed in the result
+
+    private final int parallelism;
+
+    /** Receives progress while an import runs (on the importing thread). */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param percent  Share of the file read so far (0-100).
+         * @param rowsRead Data rows read so far.
+         * @param imported Books inserted so far.
+         */
+        void onProgress(int percent, long rowsRead, long imported);
+    }
+
+    /** Outcome of one import. */
+    public static final class Result {
+        public final long rowsRead;
+        public final long imported;
+        public final long duplicates;
+        public final long invalid;
+        public final List<String> errors; // First MAX_REPORTED_ERRORS invalid rows ("Line n: reason")
+        public final long elapsedMillis;
+
+        Result(long rowsRead, long imported, long duplicates, long invalid, List<String> errors, long elapsedMillis) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.invalid = invalid;
+            this.errors = errors;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows read: %d imported, %d duplicates, %d invalid (%d ms, %.0f rows/s).",
+                    rowsRead, imported, duplicates, invalid, elapsedMillis, rowsPerSecond());
+        }
+    }
+
+    /** One parsed and validated data row. */
+    private static final class Row {
+        final int line;
+        final String title, author, genre;
+        final int year, copies;
+        final String error; // null if the row is valid
+
+        Row(int line, String title, String author, String genre, int year, int copies, String error) {
+            this.line = line;
+            this.title = title;
+            this.author = author;
+            this.genre = genre;
+            this.year = year;
+            this.copies = copies;
+            this.error = error;
+        }
+    }
+
+    /** Column positions taken from the header row, and the books table's column sizes. */
+    private static final class Columns {
+        int title = -1, author = -1, genre = -1, year = -1, copies = -1;
+        int maxTitle = Integer.MAX_VALUE, maxAuthor = Integer.MAX_VALUE, maxGenre = Integer.MAX_VALUE; // In characters
+    }
+
+    /**
+     * @param parallelism Number of parsing threads (e.g. available processors).
+     */
+    public CatalogImporter(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Imports a CSV file into the books table and rebuilds the in-memory catalog once.
+     *
+     * @param file     The CSV file (UTF-8, header row first).
+     * @param listener Progress receiver, or null.
+     * @return Counts of imported, duplicate and invalid rows.
+     * @throws IOException  If the file can't be read or has no usable header.
+     * @throws SQLException If a database error occurs (batches committed before it stay imported).
+     */
+    public Result importCsv(Path file, ProgressListener listener) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        long fileSize = Math.max(1, Files.size(file));
+        Set<String> knownBooks = catalogKeys(BookRecommendationSystem.getCatalog());
+
+        long rowsRead = 0, imported = 0, duplicates = 0, invalid = 0;
+        List<String> errors = new ArrayList<>();
+        List<Integer> newBookIds = new ArrayList<>();
+        boolean completed = false;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             Connection conn = BookRecommendationSystem.openConnection()) {
+            long[] charsRead = new long[1];
+            int[] lineNumber = new int[1];
+            String header = readRecord(reader, charsRead, lineNumber);
+            if (header == null) {
+                throw new IOException("The file is empty.");
+            }
+            Columns columns = parseHeader(splitRecord(header));
+            loadColumnSizes(conn, columns);
+
+            conn.setAutoCommit(false);
+            String insertQuery = "INSERT INTO books (Title, Author, Genre, Publication, TotalCopies, AvailableCopies) VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement insert = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                ArrayDeque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+                List<Row> batch = new ArrayList<>(ROWS_PER_BATCH);
+                List<Row> rejected = new ArrayList<>();
+                boolean endOfFile = false;
+                while (!endOfFile || !inFlight.isEmpty()) {
+                    // Keep the parsers busy: read ahead up to two chunks per thread
+                    while (!endOfFile && inFlight.size() < parallelism * 2) {
+                        List<String> records = new ArrayList<>(RECORDS_PER_CHUNK);
+                        int[] recordLines = new int[RECORDS_PER_CHUNK]; // Line each record starts on
+                        while (records.size() < RECORDS_PER_CHUNK) {
+                            int startLine = lineNumber[0] + 1;
+                            String record = readRecord(reader, charsRead, lineNumber);
+                            if (record == null) break;
+                            if (record.trim().isEmpty()) continue;
+                            recordLines[records.size()] = startLine;
+                            records.add(record);
+                        }
+                        if (records.size() < RECORDS_PER_CHUNK) endOfFile = true;
+                        if (records.isEmpty()) break;
+                        inFlight.add(executor.submit(() -> parseChunk(records, recordLines, columns)));
+                    }
+                    if (inFlight.isEmpty()) break;
+
+                    // Consume the oldest chunk (file order, so the first copy of a book wins)
+                    for (Row row : inFlight.poll().get()) {
+                        rowsRead++;
+                        if (row.error != null) {
+                            invalid++;
+                            if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + row.line + ": " + row.error);
+                            continue;
+                        }
+                        if (!knownBooks.add(bookKey(row.title, row.author))) {
+                            duplicates++;
+                            continue;
+                        }
+                        batch.add(row);
+                        if (batch.size() == ROWS_PER_BATCH) {
+                            imported += flush(conn, insert, batch, newBookIds, rejected);
+                        }
+                    }
+                    for (Row row : rejected) {
+                        invalid++;
+                        knownBooks.remove(bookKey(row.title, row.author)); // Not imported, so a later copy may be
+                        if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + row.line + ": " + row.error);
+                    }
+                    rejected.clear();
+                    if (listener != null) {
+                        listener.onProgress((int) Math.min(100, charsRead[0] * 100 / fileSize), rowsRead, imported);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    imported += flush(conn, insert, batch, newBookIds, rejected);
+                }
+                for (Row row : rejected) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + row.line + ": " + row.error);
+                }
+                completed = true;
+            } catch (SQLException e) {
+                conn.rollback(); // Only the current batch; earlier batches are committed
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing the file failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (!completed && !newBookIds.isEmpty()) {
+                // Failed part-way: the committed batches still have to reach the catalog
+                try {
+                    refreshCatalog(newBookIds);
+                } catch (SQLException e) {
+                    System.err.println("Catalog reload after failed import failed: " + e.getMessage());
+                }
+            }
+        }
+        if (!newBookIds.isEmpty()) {
+            refreshCatalog(newBookIds); // One rebuild for the whole import
+        }
+        if (listener != null) {
+            listener.onProgress(100, rowsRead, imported);
+        }
+        Result result = new Result(rowsRead, imported, duplicates, invalid, errors, System.currentTimeMillis() - start);
+        System.out.println("Catalog import from " + file.getFileName() + ": " + result);
+        return result;
+    }
+
+    /** Rebuilds the catalog and indexes once, then queues readers of the new books for a recommendations refresh. */
+    private static void refreshCatalog(List<Integer> newBookIds) throws SQLException {
+        BookRecommendationSystem.loadBooks();
+        for (int bookId : newBookIds) {
+            BookRecommendationSystem.onBookAdded(bookId);
+        }
+    }
+
+    /**
+     * Executes and commits the pending batch, then clears it. If the database rejects the batch
+     * because of its data (e.g. a value too long for its column), the batch is rolled back and
+     * retried one row at a time; rows that are still refused are added to 'rejected' with the
+     * database's reason, the others are committed.
+     * @return Rows inserted.
+     * @throws SQLException If the batch fails for any other reason (connection, deadlock, ...).
+     */
+    private static int flush(Connection conn, PreparedStatement insert, List<Row> batch, List<Integer> newBookIds,
+                             List<Row> rejected) throws SQLException {
+        int inserted = 0;
+        try {
+            for (Row row : batch) {
+                bind(insert, row);
+                insert.addBatch();
+            }
+            int[] counts = insert.executeBatch();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                while (keys.next()) newBookIds.add(keys.getInt(1));
+            }
+            conn.commit();
+            for (int count : counts) {
+                inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        } catch (BatchUpdateException e) {
+            if (!isDataError(e)) throw e;
+            conn.rollback(); // Rewritten batches fail as a whole; find the bad rows one by one
+            insert.clearBatch();
+            for (Row row : batch) {
+                try {
+                    bind(insert, row);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        if (keys.next()) newBookIds.add(keys.getInt(1));
+                    }
+                    inserted++;
+                } catch (SQLException rowError) {
+                    if (!isDataError(rowError)) throw rowError;
+                    rejected.add(new Row(row.line, row.title, row.author, row.genre, row.year, row.copies,
+                            "Rejected by the database: " + rowError.getMessage()));
+                }
+            }
+            conn.commit(); // A refused row wrote nothing; keep the rest
+        }
+        batch.clear();
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement insert, Row row) throws SQLException {
+        insert.setString(1, row.title);
+        insert.setString(2, row.author);
+        insert.setString(3, row.genre);
+        insert.setInt(4, row.year);
+        insert.setInt(5, row.copies);
+        insert.setInt(6, row.copies); // Initially, all copies are available
+    }
+
+    /** @return True if the row's values caused the error (SQLSTATE class 22 data or 23 constraint). */
+    private static boolean isDataError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    /** Reads the sizes of the books table's text columns, so too-long values are reported at parse time. */
+    private static void loadColumnSizes(Connection conn, Columns columns) throws SQLException {
+        String query = "SELECT COLUMN_NAME, CHARACTER_MAXIMUM_LENGTH FROM information_schema.COLUMNS " +
+                       "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'books' AND COLUMN_NAME IN ('Title', 'Author', 'Genre')";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                long size = rs.getLong("CHARACTER_MAXIMUM_LENGTH");
+                if (rs.wasNull() || size > Integer.MAX_VALUE) continue; // Not a sized text column
+                switch (rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT)) {
+                    case "title": columns.maxTitle = (int) size; break;
+                    case "author": columns.maxAuthor = (int) size; break;
+                    case "genre": columns.maxGenre = (int) size; break;
+                    default: break;
+                }
+            }
+        }
+    }
+
+    /** @return The dedup keys of every book already in the catalog. */
+    private static Set<String> catalogKeys(BookCatalog catalog) {
+        Set<String> keys = new HashSet<>(Math.max(16, catalog.size() * 2));
+        for (int slot = 0; slot < catalog.size(); slot++) {
+            keys.add(bookKey(catalog.titleAt(slot), catalog.authorAt(slot)));
+        }
+        return keys;
+    }
+
+    /** Same rule as addNewBook()'s duplicate check: trimmed title and author, case ignored. */
+    private static String bookKey(String title, String author) {
+        return title.trim().toLowerCase(Locale.ROOT) + '\u0000' + author.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Columns parseHeader(List<String> names) throws IOException {
+        Columns columns = new Columns();
+        for (int i = 0; i < names.size(); i++) {
+            switch (names.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT)) { // Excel adds a BOM
+                case "title": columns.title = i; break;
+                case "author": columns.author = i; break;
+                case "genre": columns.genre = i; break;
+                case "publication": case "year": columns.year = i; break;
+                case "totalcopies": case "copies": columns.copies = i; break;
+                default: break; // Extra columns are ignored
+            }
+        }
+        if (columns.title < 0 || columns.author < 0 || columns.genre < 0 || columns.year < 0 || columns.copies < 0) {
+            throw new IOException("Header must name Title, Author, Genre, Publication and TotalCopies columns.");
+        }
+        return columns;
+    }
+
+    /** Parses and validates one chunk (runs on a parser thread). */
+    private static List<Row> parseChunk(List<String> records, int[] lines, Columns columns) {
+        List<Row> rows = new ArrayList<>(records.size());
+        int maxYear = LocalDate.now().getYear() + 5;
+        for (int i = 0; i < records.size(); i++) {
+            List<String> fields = splitRecord(records.get(i));
+            String title = field(fields, columns.title);
+            String author = field(fields, columns.author);
+            String genre = field(fields, columns.genre);
+            String error = null;
+            int year = 0, copies = 0;
+            if (title.isEmpty() || author.isEmpty() || genre.isEmpty()) {
+                error = "Title, Author, and Genre cannot be empty.";
+            } else if (characters(title) > columns.maxTitle) {
+                error = "Title is longer than " + columns.maxTitle + " characters.";
+            } else if (characters(author) > columns.maxAuthor) {
+                error = "Author is longer than " + columns.maxAuthor + " characters.";
+            } else if (characters(genre) > columns.maxGenre) {
+                error = "Genre is longer than " + columns.maxGenre + " characters.";
+            } else {
+                try {
+                    year = Integer.parseInt(field(fields, columns.year));
+                    copies = Integer.parseInt(field(fields, columns.copies));
+                    if (year <= 0 || year > maxYear) error = "Invalid Publication Year.";
+                    else if (copies <= 0) error = "Total Copies must be a positive number.";
+                } catch (NumberFormatException e) {
+                    error = "Publication and TotalCopies must be numbers.";
+                }
+            }
+            rows.add(new Row(lines[i], title, author, genre, year, copies, error));
+        }
+        return rows;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    /** @return Length as the database counts it (characters, not UTF-16 units). */
+    private static int characters(String text) {
+        return text.codePointCount(0, text.length());
+    }
+
+    /**
+     * Reads one CSV record, which spans several lines when a quoted field contains line breaks.
+     * @return The record (line breaks inside quotes kept as '\n'), or null at end of file.
+     */
+    private static String readRecord(BufferedReader reader, long[] charsRead, int[] lineNumber) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+        lineNumber[0]++;
+        charsRead[0] += line.length() + 1;
+        if (line.indexOf('"') < 0) return line; // Common case: nothing quoted
+        StringBuilder record = new StringBuilder(line);
+        int quotes = countQuotes(line); // Counted per line as it is appended, not over the whole record
+        while (quotes % 2 != 0) { // Inside a quoted field: the record continues
+            String next = reader.readLine();
+            if (next == null) break; // Unterminated quote; the parser takes what is there
+            lineNumber[0]++;
+            charsRead[0] += next.length() + 1;
+            record.append('\n').append(next);
+            quotes += countQuotes(next);
+        }
+        return record.toString();
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') quotes++;
+        }
+        return quotes;
+    }
+
+    /** Splits one record into fields (RFC 4180: "" inside a quoted field is a quote). */
+    static List<String> splitRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
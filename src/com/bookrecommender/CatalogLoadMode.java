@@ -0,0 +1,13 @@
+package com.bookrecommender;
+
+/**
+ * How loadBooks() reads the books table.
+ */
+public enum CatalogLoadMode {
+    /** Driver default: the whole result set is buffered client-side before the first row is read (pooled connection). */
+    BUFFERED,
+    /** One streaming result set on a dedicated connection; rows go straight into the catalog. */
+    STREAMING,
+    /** The BookID range is split across several connections, each streamed, and the partitions merged. */
+    PARALLEL
+}
@@ -0,0 +1,139 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the books table into a BookCatalog in one of the CatalogLoadMode ways.
+ * Streaming modes use Connector/J row streaming (fetch size Integer.MIN_VALUE), so
+ * client memory holds one row at a time instead of the whole result set, and run on
+ * their own connections (a streaming connection can't run other statements until
+ * the result set is closed).
+ */
+final class CatalogLoader {
+    private static final String COLUMNS = "SELECT BookID, Title, Author, Genre, Publication, AvailableCopies FROM books";
+    private static final int MAX_PARTITIONS = 4;          // Connections used by PARALLEL
+    private static final int MIN_ROWS_PER_PARTITION = 50_000; // Smaller catalogs aren't worth splitting
+
+    private CatalogLoader() {
+    }
+
+    /**
+     * Loads the whole books table.
+     * @param mode How to read it.
+     * @return The loaded catalog.
+     * @throws SQLException If a database access error occurs.
+     */
+    static BookCatalog load(CatalogLoadMode mode) throws SQLException {
+        switch (mode) {
+            case BUFFERED:
+                BookCatalog.Builder builder = new BookCatalog.Builder(1024);
+                try (Connection conn = BookRecommendationSystem.getConnection();
+                     Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(COLUMNS)) {
+                    readRows(rs, builder);
+                }
+                return builder.build();
+            case STREAMING:
+                try (Connection streamConn = BookRecommendationSystem.openConnection()) {
+                    return readRange(streamConn, null, null).build();
+                }
+            case PARALLEL:
+            default:
+                return loadParallel();
+        }
+    }
+
+    /**
+     * Splits [MIN(BookID), MAX(BookID)] into equal ranges, streams each on its own
+     * connection and thread, and merges the partitions in range order (so slots end up
+     * in BookID order). Each partition is released as soon as it has been merged.
+     */
+    private static BookCatalog loadParallel() throws SQLException {
+        long minId, maxId, rowCount;
+        try (Connection conn = BookRecommendationSystem.openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(BookID), MAX(BookID), COUNT(*) FROM books")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            rowCount = rs.getLong(3);
+        }
+        int partitions = (int) Math.max(1, Math.min(MAX_PARTITIONS, rowCount / MIN_ROWS_PER_PARTITION));
+        if (partitions == 1) {
+            return load(CatalogLoadMode.STREAMING);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<BookCatalog.Builder>> parts = new ArrayList<>(partitions);
+            long span = (maxId - minId) / partitions + 1;
+            for (int p = 0; p < partitions; p++) {
+                int from = (int) (minId + p * span);
+                int to = (int) Math.min(maxId, minId + (p + 1) * span - 1);
+                parts.add(executor.submit(() -> {
+                    try (Connection partConn = BookRecommendationSystem.openConnection()) {
+                        return readRange(partConn, from, to);
+                    }
+                }));
+            }
+            // Size the merge exactly (build() then takes the columns over instead of copying them), and
+            // drop each partition once merged, so peak heap stays near two catalogs and falls as we go
+            int total = 0;
+            for (Future<BookCatalog.Builder> part : parts) {
+                total += part.get().size();
+            }
+            BookCatalog.Builder merged = new BookCatalog.Builder(total);
+            for (int p = 0; p < parts.size(); p++) {
+                merged.addAll(parts.get(p).get());
+                parts.set(p, null);
+            }
+            return merged.build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading books.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw new SQLException("Loading books failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Streams the books with BookID in [from, to] (all books if from is null) into a new builder. */
+    private static BookCatalog.Builder readRange(Connection conn, Integer from, Integer to) throws SQLException {
+        String query = from == null ? COLUMNS : COLUMNS + " WHERE BookID BETWEEN ? AND ?";
+        BookCatalog.Builder builder = new BookCatalog.Builder(1024);
+        try (PreparedStatement pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(Integer.MIN_VALUE); // Connector/J: stream rows instead of buffering the result
+            if (from != null) {
+                pstmt.setInt(1, from);
+                pstmt.setInt(2, to);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readRows(rs, builder);
+            }
+        }
+        return builder;
+    }
+
+    private static void readRows(ResultSet rs, BookCatalog.Builder builder) throws SQLException {
+        while (rs.next()) {
+            // Store details in the catalog columns (original case for display)
+            builder.add(rs.getInt("BookID"),
+                        rs.getString("Title"),
+                        rs.getString("Author"),
+                        rs.getString("Genre"),
+                        rs.getInt("Publication"),
+                        rs.getInt("AvailableCopies"));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bookrecommender;
+
+/**
+ * One consistent, immutable view of the in-memory book data: the catalog, the book
+ * graph and search indexes built over its slots, and the version number that
+ * recommendation cache keys refer to. Snapshots are published through an AtomicReference in
+ * BookRecommendationSystem; readers take one snapshot per request and use it without
+ * locks, so they never see a catalog from one reload with a graph from another.
+ * (The available-copies column is the only mutable part, and it is an atomic array.)
+ */
+final class CatalogSnapshot {
+    static final CatalogSnapshot EMPTY = empty();
+
+    private final BookCatalog catalog;
+    private final BookGraph graph;
+    private final PrefixIndex prefixIndex;
+    private final TextSearchIndex textIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final long version;
+
+    CatalogSnapshot(BookCatalog catalog, BookGraph graph, PrefixIndex prefixIndex, TextSearchIndex textIndex,
+                    FuzzyIndex fuzzyIndex, long version) {
+        if (graph.nodeCount() != catalog.size()) {
+            throw new IllegalArgumentException("Graph has " + graph.nodeCount() + " nodes but the catalog has "
+                    + catalog.size() + " books.");
+        }
+        if (prefixIndex.bookCount() != catalog.size()) {
+            throw new IllegalArgumentException("Prefix index covers " + prefixIndex.bookCount()
+                    + " books but the catalog has " + catalog.size() + ".");
+        }
+        if (textIndex.bookCount() != catalog.size()) {
+            throw new IllegalArgumentException("Text index covers " + textIndex.bookCount()
+                    + " books but the catalog has " + catalog.size() + ".");
+        }
+        if (fuzzyIndex.bookCount() != catalog.size()) {
+            throw new IllegalArgumentException("Fuzzy index covers " + fuzzyIndex.bookCount()
+                    + " books but the catalog has " + catalog.size() + ".");
+        }
+        this.catalog = catalog;
+        this.graph = graph;
+        this.prefixIndex = prefixIndex;
+        this.textIndex = textIndex;
+        this.fuzzyIndex = fuzzyIndex;
+        this.version = version;
+    }
+
+    private static CatalogSnapshot empty() {
+        BookCatalog none = new BookCatalog.Builder(0).build();
+        return new CatalogSnapshot(none, BookGraph.empty(), PrefixIndex.build(none), TextSearchIndex.build(none),
+                FuzzyIndex.build(none), 0);
+    }
+
+    BookCatalog catalog() {
+        return catalog;
+    }
+
+    BookGraph graph() {
+        return graph;
+    }
+
+    /** @return Title/author prefix index over the catalog's slots. */
+    PrefixIndex prefixIndex() {
+        return prefixIndex;
+    }
+
+    /** @return BM25 keyword index over the catalog's slots. */
+    TextSearchIndex textIndex() {
+        return textIndex;
+    }
+
+    /** @return Typo-tolerant word lookup over the catalog's titles and authors. */
+    FuzzyIndex fuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    /** @return Incremented whenever the set of books changes; part of every recommendation cache key. */
+    long version() {
+        return version;
+    }
+
+    /** @return A snapshot with a new catalog, graph and indexes and the next version. */
+    CatalogSnapshot next(BookCatalog newCatalog, BookGraph newGraph, PrefixIndex newPrefixIndex,
+                         TextSearchIndex newTextIndex, FuzzyIndex newFuzzyIndex) {
+        return new CatalogSnapshot(newCatalog, newGraph, newPrefixIndex, newTextIndex, newFuzzyIndex, version + 1);
+    }
+
+    /** @return The same books with an equivalent graph (e.g. compacted); the version is kept. */
+    CatalogSnapshot withGraph(BookGraph newGraph) {
+        return new CatalogSnapshot(catalog, newGraph, prefixIndex, textIndex, fuzzyIndex, version);
+    }
+}
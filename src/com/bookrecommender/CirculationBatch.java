@@ -0,0 +1,393 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Applies a queue of circulation desk scans (issues and returns) in bulk.
+ * <ol>
+ *   <li>Usernames and the students' histories are resolved once for the whole queue.</li>
+ *   <li>Scans are applied in groups of SCANS_PER_TRANSACTION, one transaction per group
+ *       (group commit). Each group locks the books it touches (SELECT ... FOR UPDATE, in
+ *       BookID order) and reads the students' open loans, then validates every scan in
+ *       queue order against that state in memory.</li>
+ *   <li>The accepted scans are written with batched INSERT/UPDATE statements and committed.</li>
+ * </ol>
+ * Every scan gets its own outcome ("Success: ..." or "Error: ..."); a refused scan does not
+ * affect the others. If a group's transaction fails, only that group is reported as failed.
+ */
+public final class CirculationBatch {
+    public static final int SCANS_PER_TRANSACTION = 250; // Group commit size
+    private static final int IDS_PER_QUERY = 1_000;      // IN-list size for lookups
+    // IN-lists are padded to one of these lengths, so each lookup has a few fixed shapes in the statement cache
+    private static final int[] IN_LIST_SIZES = {16, 128, IDS_PER_QUERY};
+
+    /** What a scan does. */
+    public enum Action { ISSUE, RETURN }
+
+    /** One scan at the desk: a student and a book, to be issued or returned. */
+    public static final class Scan {
+        public final Action action;
+        public final String username;
+        public final int bookId;
+
+        public Scan(Action action, String username, int bookId) {
+            this.action = action;
+            this.username = username == null ? "" : username.trim();
+            this.bookId = bookId;
+        }
+
+        /**
+         * Parses one line typed or scanned at the desk: "issue alice 42" or "return alice 42"
+         * ("i" and "r" also work; case is ignored).
+         * @param line The line.
+         * @return The scan, or null if the line is not in that format.
+         */
+        public static Scan parse(String line) {
+            String[] parts = line == null ? new String[0] : line.trim().split("\\s+");
+            if (parts.length != 3) return null;
+            Action action;
+            switch (parts[0].toLowerCase(Locale.ROOT)) {
+                case "i": case "issue": action = Action.ISSUE; break;
+                case "r": case "return": action = Action.RETURN; break;
+                default: return null;
+            }
+            try {
+                return new Scan(action, parts[1], Integer.parseInt(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /** Outcome of one process() call. */
+    public static final class Result {
+        public final List<String> outcomes; // One per scan, in queue order
+        public final int succeeded;
+        public final int transactions;
+        public final long elapsedMillis;
+
+        Result(List<String> outcomes, int succeeded, int transactions, long elapsedMillis) {
+            this.outcomes = outcomes;
+            this.succeeded = succeeded;
+            this.transactions = transactions;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double scansPerSecond() {
+            return elapsedMillis == 0 ? outcomes.size() : outcomes.size() * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d scans applied in %d transaction(s), %d ms (%.0f scans/s).",
+                    succeeded, outcomes.size(), transactions, elapsedMillis, scansPerSecond());
+        }
+    }
+
+    /** An open loan as read at the start of a group (issueId is -1 for one issued in this group). */
+    private static final class OpenLoan {
+        final int issueId;
+        final LocalDate dueDate;
+
+        OpenLoan(int issueId, LocalDate dueDate) {
+            this.issueId = issueId;
+            this.dueDate = dueDate;
+        }
+    }
+
+    private CirculationBatch() {
+    }
+
+    /**
+     * Validates and applies a queue of scans.
+     *
+     * @param conn  The database connection (its auto-commit mode is restored afterwards).
+     * @param scans The scans, in the order they were made.
+     * @return Per-scan outcomes and throughput.
+     * @throws SQLException If the up-front lookups fail (group failures are reported per scan instead).
+     */
+    public static Result process(Connection conn, List<Scan> scans) throws SQLException {
+        long start = System.currentTimeMillis();
+        String[] outcomes = new String[scans.size()];
+
+        // 1. Resolve students, and the histories of students who borrow (for the co-occurrence model)
+        Set<String> usernames = new LinkedHashSet<>();
+        for (Scan scan : scans) usernames.add(scan.username);
+        Map<String, Integer> userIds = loadStudentIds(conn, usernames);
+        Set<Integer> borrowers = new LinkedHashSet<>();
+        for (Scan scan : scans) {
+            Integer userId = userIds.get(scan.username);
+            if (scan.action == Action.ISSUE && userId != null) borrowers.add(userId);
+        }
+        Map<Integer, TreeSet<Integer>> histories = loadHistories(conn, borrowers);
+
+        // 2. Apply in groups, one transaction each
+        int succeeded = 0;
+        int transactions = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int from = 0; from < scans.size(); from += SCANS_PER_TRANSACTION) {
+                int to = Math.min(scans.size(), from + SCANS_PER_TRANSACTION);
+                try {
+                    applyGroup(conn, scans, from, to, userIds, histories, outcomes);
+                    transactions++;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    System.err.println("Circulation batch: transaction for scans " + (from + 1) + "-" + to + " failed: " + e.getMessage());
+                    for (int i = from; i < to; i++) {
+                        outcomes[i] = "Error: Not applied, database transaction failed. Reason: " + e.getMessage();
+                    }
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        for (String outcome : outcomes) {
+            if (outcome.startsWith("Success")) succeeded++;
+        }
+        Result result = new Result(Collections.unmodifiableList(Arrays.asList(outcomes)), succeeded, transactions,
+                System.currentTimeMillis() - start);
+        System.out.println("Circulation batch: " + result);
+        return result;
+    }
+
+    /** Validates scans [from, to) against locked state and writes the accepted ones in one transaction. */
+    private static void applyGroup(Connection conn, List<Scan> scans, int from, int to, Map<String, Integer> userIds,
+                                   Map<Integer, TreeSet<Integer>> histories, String[] outcomes) throws SQLException {
+        // a. Lock the books this group touches and read their copies
+        TreeSet<Integer> bookIds = new TreeSet<>(); // Ascending: every batch locks in the same order
+        Set<Integer> students = new LinkedHashSet<>();
+        for (int i = from; i < to; i++) {
+            Integer userId = userIds.get(scans.get(i).username);
+            if (userId == null) continue;
+            bookIds.add(scans.get(i).bookId);
+            students.add(userId);
+        }
+        Map<Integer, Integer> copies = new HashMap<>();
+        Map<Integer, String> titles = new HashMap<>();
+        forEachChunk(new ArrayList<>(bookIds), "SELECT BookID, Title, AvailableCopies FROM books WHERE BookID IN (",
+                ") ORDER BY BookID FOR UPDATE", conn, rs -> {
+                    copies.put(rs.getInt("BookID"), rs.getInt("AvailableCopies"));
+                    titles.put(rs.getInt("BookID"), rs.getString("Title"));
+                });
+
+        // b. The students' open loans (stable while the books are locked: every issue/return locks its book)
+        Map<Long, OpenLoan> openLoans = new HashMap<>();
+        forEachChunk(new ArrayList<>(students), "SELECT IssueID, UserID, BookID, DueDate FROM book_issues " +
+                "WHERE Status != 'returned' AND UserID IN (", ")", conn, rs -> {
+                    Date due = rs.getDate("DueDate");
+                    openLoans.put(loanKey(rs.getInt("UserID"), rs.getInt("BookID")),
+                            new OpenLoan(rs.getInt("IssueID"), due == null ? null : due.toLocalDate()));
+                });
+
+        // c. Validate in queue order against the in-memory state
+        LocalDate today = LocalDate.now();
+        LocalDate dueDate = today.plusDays(Admin.LOAN_PERIOD_DAYS);
+        List<Integer> issues = new ArrayList<>();  // Scan indexes to insert
+        List<Integer> returns = new ArrayList<>(); // Scan indexes to close
+        Map<Integer, OpenLoan> returnedLoans = new HashMap<>();
+        Map<Integer, Integer> copyDelta = new TreeMap<>();
+        for (int i = from; i < to; i++) {
+            Scan scan = scans.get(i);
+            Integer userId = userIds.get(scan.username);
+            Integer available = copies.get(scan.bookId);
+            if (userId == null) {
+                outcomes[i] = "Error: Student username '" + scan.username + "' not found.";
+                continue;
+            }
+            if (available == null) {
+                outcomes[i] = "Error: Book ID " + scan.bookId + " not found.";
+                continue;
+            }
+            String title = titles.get(scan.bookId);
+            long key = loanKey(userId, scan.bookId);
+            if (scan.action == Action.ISSUE) {
+                if (openLoans.containsKey(key)) {
+                    outcomes[i] = "Error: Student '" + scan.username + "' already has book '" + title + "' (ID: " + scan.bookId + ") issued.";
+                } else if (available < 1) {
+                    outcomes[i] = "Error: No copies of '" + title + "' (ID: " + scan.bookId + ") are currently available.";
+                } else {
+                    copies.put(scan.bookId, available - 1);
+                    copyDelta.merge(scan.bookId, -1, Integer::sum);
+                    openLoans.put(key, new OpenLoan(-1, dueDate));
+                    issues.add(i);
+                }
+            } else {
+                OpenLoan loan = openLoans.get(key);
+                if (loan == null) {
+                    outcomes[i] = "Error: Student '" + scan.username + "' has no open issue of book '" + title + "' (ID: " + scan.bookId + ").";
+                } else if (loan.issueId == -1) {
+                    outcomes[i] = "Error: Book '" + title + "' (ID: " + scan.bookId + ") was issued earlier in this queue; return it in a later batch.";
+                } else {
+                    openLoans.remove(key);
+                    copies.put(scan.bookId, available + 1);
+                    copyDelta.merge(scan.bookId, 1, Integer::sum);
+                    returnedLoans.put(i, loan);
+                    returns.add(i);
+                }
+            }
+        }
+
+        // d. Write the accepted scans with batched statements
+        int[] issueIds = new int[issues.size()];
+        Arrays.fill(issueIds, -1);
+        if (!issues.isEmpty()) {
+            String issueQuery = "INSERT INTO book_issues (BookID, UserID, IssueDate, DueDate, Status) VALUES (?, ?, ?, ?, 'issued')";
+            String historyQuery = "INSERT INTO user_book_history (UserID, BookID, InteractionType, Timestamp) VALUES (?, ?, 'issued', NOW())";
+            try (PreparedStatement issueStmt = conn.prepareStatement(issueQuery, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement historyStmt = conn.prepareStatement(historyQuery)) {
+                for (int i : issues) {
+                    Scan scan = scans.get(i);
+                    int userId = userIds.get(scan.username);
+                    issueStmt.setInt(1, scan.bookId);
+                    issueStmt.setInt(2, userId);
+                    issueStmt.setDate(3, Date.valueOf(today));
+                    issueStmt.setDate(4, Date.valueOf(dueDate));
+                    issueStmt.addBatch();
+                    historyStmt.setInt(1, userId);
+                    historyStmt.setInt(2, scan.bookId);
+                    historyStmt.addBatch();
+                }
+                issueStmt.executeBatch();
+                try (ResultSet keys = issueStmt.getGeneratedKeys()) {
+                    for (int k = 0; k < issueIds.length && keys.next(); k++) issueIds[k] = keys.getInt(1);
+                }
+                historyStmt.executeBatch();
+            }
+        }
+        double[] fines = new double[returns.size()];
+        if (!returns.isEmpty()) {
+            // The fine is stored for good on return (with FineMode.DERIVED it was never stored before)
+            String returnQuery = "UPDATE book_issues SET Status = 'returned', Fine = ? WHERE IssueID = ? AND Status != 'returned'";
+            try (PreparedStatement returnStmt = conn.prepareStatement(returnQuery)) {
+                for (int r = 0; r < returns.size(); r++) {
+                    OpenLoan loan = returnedLoans.get(returns.get(r));
+                    long daysOverdue = loan.dueDate == null ? 0 : ChronoUnit.DAYS.between(loan.dueDate, today);
+                    fines[r] = Math.max(0, daysOverdue) * Admin.FINE_RATE_PER_DAY;
+                    returnStmt.setDouble(1, fines[r]);
+                    returnStmt.setInt(2, loan.issueId);
+                    returnStmt.addBatch();
+                }
+                returnStmt.executeBatch();
+            }
+        }
+        if (!copyDelta.isEmpty()) {
+            String copiesQuery = "UPDATE books SET AvailableCopies = AvailableCopies + ? WHERE BookID = ?";
+            try (PreparedStatement copiesStmt = conn.prepareStatement(copiesQuery)) {
+                for (Map.Entry<Integer, Integer> entry : copyDelta.entrySet()) {
+                    if (entry.getValue() == 0) continue; // Returned and re-issued within the group
+                    copiesStmt.setInt(1, entry.getValue());
+                    copiesStmt.setInt(2, entry.getKey());
+                    copiesStmt.addBatch();
+                }
+                copiesStmt.executeBatch();
+            }
+        }
+        conn.commit();
+
+        // e. Outcomes and in-memory updates, now that the group is durable
+        for (Map.Entry<Integer, Integer> entry : copyDelta.entrySet()) {
+            if (entry.getValue() != 0) BookRecommendationSystem.adjustAvailableCopies(entry.getKey(), entry.getValue());
+        }
+        for (int k = 0; k < issues.size(); k++) {
+            Scan scan = scans.get(issues.get(k));
+            int userId = userIds.get(scan.username);
+            TreeSet<Integer> history = histories.computeIfAbsent(userId, id -> new TreeSet<>());
+            int[] prior = new int[history.size()];
+            int n = 0;
+            for (int bookId : history) prior[n++] = bookId;
+            BookRecommendationSystem.onBookIssued(userId, scan.bookId, prior);
+            history.add(scan.bookId); // Later issues in the queue see this one as prior history
+            if (issueIds[k] != -1) BookRecommendationSystem.onLoanOpened(issueIds[k], dueDate);
+            outcomes[issues.get(k)] = "Success: Book '" + titles.get(scan.bookId) + "' (ID: " + scan.bookId + ") issued to '"
+                    + scan.username + "'. Due: " + dueDate;
+        }
+        for (int r = 0; r < returns.size(); r++) {
+            Scan scan = scans.get(returns.get(r));
+            outcomes[returns.get(r)] = String.format("Success: Book '%s' (ID: %d) returned by '%s'. Fine: $%.2f",
+                    titles.get(scan.bookId), scan.bookId, scan.username, fines[r]);
+        }
+    }
+
+    private static long loanKey(int userId, int bookId) {
+        return ((long) userId << 32) | (bookId & 0xFFFFFFFFL);
+    }
+
+    /** @return Username -> UserID for the given names that belong to students. */
+    private static Map<String, Integer> loadStudentIds(Connection conn, Set<String> usernames) throws SQLException {
+        Map<String, Integer> idByLowerName = new HashMap<>();
+        forEachChunk(new ArrayList<>(usernames), "SELECT UserID, Username FROM users WHERE Role = 'student' AND Username IN (",
+                ")", conn, rs -> idByLowerName.put(rs.getString("Username").toLowerCase(Locale.ROOT), rs.getInt("UserID")));
+        // The lookup may be case-insensitive (collation); key the result by the names as scanned
+        Map<String, Integer> userIds = new HashMap<>();
+        for (String name : usernames) {
+            Integer userId = idByLowerName.get(name.toLowerCase(Locale.ROOT));
+            if (userId != null) userIds.put(name, userId);
+        }
+        return userIds;
+    }
+
+    /** @return UserID -> distinct BookIDs in their history, for the given users. */
+    private static Map<Integer, TreeSet<Integer>> loadHistories(Connection conn, Set<Integer> userIds) throws SQLException {
+        Map<Integer, TreeSet<Integer>> histories = new HashMap<>();
+        forEachChunk(new ArrayList<>(userIds), "SELECT UserID, BookID FROM user_book_history WHERE UserID IN (", ")", conn,
+                rs -> histories.computeIfAbsent(rs.getInt("UserID"), id -> new TreeSet<>()).add(rs.getInt("BookID")));
+        return histories;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Runs prefix + "?,?,...)" + suffix for the values, IDS_PER_QUERY at a time, and hands every
+     * row to the handler. Each IN-list is padded to the next of IN_LIST_SIZES by repeating its
+     * last value (a repeat matches no extra rows and keeps FOR UPDATE in ascending order), so a
+     * lookup prepares at most IN_LIST_SIZES.length distinct statements, however many values come in.
+     */
+    private static void forEachChunk(List<?> values, String prefix, String suffix, Connection conn, RowHandler handler) throws SQLException {
+        for (int from = 0; from < values.size(); from += IDS_PER_QUERY) {
+            List<?> part = values.subList(from, Math.min(values.size(), from + IDS_PER_QUERY));
+            int size = inListSize(part.size());
+            StringBuilder query = new StringBuilder(prefix);
+            for (int i = 0; i < size; i++) query.append(i == 0 ? "?" : ",?");
+            query.append(suffix);
+            try (PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+                for (int i = 0; i < size; i++) pstmt.setObject(i + 1, part.get(Math.min(i, part.size() - 1)));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.accept(rs);
+                    }
+                }
+            }
+        }
+    }
+
+    /** @return The smallest of IN_LIST_SIZES that holds n values. */
+    private static int inListSize(int n) {
+        for (int size : IN_LIST_SIZES) {
+            if (n <= size) return size;
+        }
+        return IDS_PER_QUERY;
+    }
+}
@@ -0,0 +1,410 @@
+package com.bookrecommender;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small JDBC connection pool.
+ * borrow() hands out a proxy whose close() returns the physical connection to the pool,
+ * so callers use plain try-with-resources. A returned connection is reset (an open
+ * transaction is rolled back and auto-commit restored), so no caller ever inherits
+ * another caller's transaction.
+ *
+ * <ul>
+ *   <li>Size: minSize connections are opened up front; at most maxSize exist at once.</li>
+ *   <li>Lease timeout: borrow() waits at most leaseTimeoutMillis for a free connection.</li>
+ *   <li>Validation: a connection idle for more than VALIDATE_AFTER_IDLE_MS is checked with isValid() before reuse.</li>
+ *   <li>Leak detection: leases held longer than leakThresholdMillis are logged once, with the borrowing stack trace.</li>
+ *   <li>Statement cache: each connection keeps its prepared statements across leases (see StatementCache).</li>
+ *   <li>Metrics: see toString().</li>
+ * </ul>
+ */
+final class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATE_AFTER_IDLE_MS = 1_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;  // Idle connections above minSize are closed after this
+    private static final long HOUSEKEEPING_INTERVAL_MS = 10_000;
+
+    /** Opens a new physical connection. */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long leaseTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize; // Per connection; 0 disables the cache
+
+    private final Object lock = new Object();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>(); // Most recently returned first
+    private final Set<Lease> active = new HashSet<>();
+    private int totalConnections; // Idle + leased + being opened
+    private boolean closed;
+    private final ScheduledExecutorService housekeeper;
+
+    // Metrics (guarded by lock)
+    private long borrows;
+    private long timeouts;
+    private long created;
+    private long discarded;
+    private long leaks;
+    private long totalWaitNanos;
+    private int peakActive;
+    // Statement cache metrics (updated outside the lock by the borrowing thread)
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    /**
+     * Creates the pool and opens minSize connections.
+     *
+     * @param factory             Opens physical connections.
+     * @param minSize             Connections kept open even when idle.
+     * @param maxSize             Upper bound on open connections.
+     * @param leaseTimeoutMillis  Maximum wait in borrow() before giving up.
+     * @param leakThresholdMillis Lease age after which a connection is reported as leaked.
+     * @param statementCacheSize  Prepared statements cached per connection (0 to disable).
+     * @throws SQLException If the initial connections can't be opened.
+     */
+    ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long leaseTimeoutMillis, long leakThresholdMillis,
+                   int statementCacheSize) throws SQLException {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize + ".");
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.push(wrap(factory.open()));
+                totalConnections++;
+                created++;
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection; close() it to give it back.
+     * @return A pooled connection, valid until closed.
+     * @throws SQLTimeoutException If none becomes free within the lease timeout.
+     * @throws SQLException If the pool is closed or a new connection can't be opened.
+     */
+    Connection borrow() throws SQLException {
+        long waitStart = System.nanoTime();
+        long deadline = System.currentTimeMillis() + leaseTimeoutMillis;
+        while (true) {
+            PooledConnection reused = null;
+            synchronized (lock) {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed.");
+                    }
+                    if (!idle.isEmpty()) {
+                        reused = idle.pop();
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++; // Reserve the slot, open outside the lock
+                        break;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        timeouts++;
+                        throw new SQLTimeoutException("Timed out after " + leaseTimeoutMillis
+                                + " ms waiting for a database connection (" + maxSize + " in use).");
+                    }
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+            }
+
+            PooledConnection pooled;
+            if (reused == null) {
+                try {
+                    pooled = wrap(factory.open());
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+                synchronized (lock) {
+                    created++;
+                }
+            } else {
+                pooled = reused;
+                if (System.currentTimeMillis() - reused.idleSince > VALIDATE_AFTER_IDLE_MS && !isValid(pooled.physical)) {
+                    discard(pooled); // Dropped by the server (e.g. wait_timeout); try the next one
+                    continue;
+                }
+            }
+            return lease(pooled, System.nanoTime() - waitStart);
+        }
+    }
+
+    private PooledConnection wrap(Connection physical) {
+        StatementCache statements = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementHits, statementMisses, statementEvictions)
+                : null;
+        return new PooledConnection(physical, statements);
+    }
+
+    private Connection lease(PooledConnection pooled, long waitNanos) {
+        Lease lease = new Lease(pooled);
+        lease.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, lease);
+        synchronized (lock) {
+            active.add(lease);
+            borrows++;
+            totalWaitNanos += waitNanos;
+            peakActive = Math.max(peakActive, active.size());
+        }
+        return lease.proxy;
+    }
+
+    /** Returns a lease's connection to the pool (called by the proxy's close()). */
+    private void release(Lease lease) {
+        boolean healthy = true;
+        Connection physical = lease.pooled.physical;
+        if (lease.pooled.statements != null) {
+            lease.pooled.statements.closeLeftOpen();
+        }
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback(); // Never hand an open transaction to the next borrower
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        boolean keep;
+        synchronized (lock) {
+            active.remove(lease);
+            keep = healthy && !closed;
+            if (keep) {
+                lease.pooled.idleSince = System.currentTimeMillis();
+                idle.push(lease.pooled);
+                lock.notifyAll();
+            }
+        }
+        if (!keep) {
+            discard(lease.pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        closeQuietly(pooled);
+        synchronized (lock) {
+            discarded++;
+        }
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        synchronized (lock) {
+            totalConnections--;
+            lock.notifyAll();
+        }
+    }
+
+    /** Reports leaked leases and closes connections idle past IDLE_TIMEOUT_MS (keeping minSize). */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        List<Lease> leaked = new ArrayList<>();
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (lock) {
+            for (Lease lease : active) {
+                if (!lease.leakReported && now - lease.borrowedAt > leakThresholdMillis) {
+                    lease.leakReported = true;
+                    leaks++;
+                    leaked.add(lease);
+                }
+            }
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && totalConnections - expired.size() > minSize) {
+                PooledConnection candidate = oldestFirst.next();
+                if (now - candidate.idleSince <= IDLE_TIMEOUT_MS) break;
+                oldestFirst.remove();
+                expired.add(candidate);
+            }
+        }
+        for (Lease lease : leaked) {
+            System.err.println("Warning: Database connection held for " + (now - lease.borrowedAt)
+                    + " ms without being closed (possible leak). Borrowed at:");
+            lease.borrowSite.printStackTrace();
+        }
+        for (PooledConnection connection : expired) {
+            closeQuietly(connection);
+            releaseSlot();
+        }
+    }
+
+    /**
+     * Closes idle connections and stops accepting borrows. Leased connections are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        synchronized (lock) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            totalConnections -= toClose.size();
+            lock.notifyAll();
+        }
+        for (PooledConnection connection : toClose) {
+            closeQuietly(connection);
+        }
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+    }
+
+    /** @return Connections currently leased. */
+    int activeCount() {
+        synchronized (lock) {
+            return active.size();
+        }
+    }
+
+    /** @return Connections currently idle in the pool. */
+    int idleCount() {
+        synchronized (lock) {
+            return idle.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            double avgWaitMs = borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+            return String.format("Connection pool: %d active (peak %d, max %d), %d idle; %d borrows, avg wait %.2f ms, "
+                            + "%d timeouts, %d opened, %d discarded, %d leaks; statement cache: %d hits, %d misses "
+                            + "(hit ratio %.1f%%), %d evictions",
+                    active.size(), peakActive, maxSize, idle.size(), borrows, avgWaitMs,
+                    timeouts, created, discarded, leaks, statementHits.get(), statementMisses.get(),
+                    getStatementHitRatio() * 100, statementEvictions.get());
+        }
+    }
+
+    /** @return Fraction of prepareStatement() calls served from the statement cache (0 if none yet). */
+    double getStatementHitRatio() {
+        long hits = statementHits.get();
+        long total = hits + statementMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(PooledConnection connection) {
+        if (connection.statements != null) {
+            connection.statements.closeAll();
+        }
+        try {
+            connection.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /** A physical connection and the state it keeps across leases. */
+    private static final class PooledConnection {
+        final Connection physical;
+        final StatementCache statements; // null when caching is disabled
+        long idleSince = System.currentTimeMillis(); // Guarded by lock
+
+        PooledConnection(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    /** One borrow of a physical connection; also the proxy's invocation handler. */
+    private final class Lease implements InvocationHandler {
+        final PooledConnection pooled;
+        final Connection physical;
+        final long borrowedAt = System.currentTimeMillis();
+        final Throwable borrowSite = new Throwable("Connection borrowed here"); // For leak reports
+        Connection proxy;
+        volatile boolean returned;
+        boolean leakReported; // Guarded by lock
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.physical = pooled.physical;
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (pooled.statements != null && method.getName().equals("prepareStatement")) {
+                return pooled.statements.prepare(proxy, args);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookrecommender;
+
+import java.math.BigDecimal;
+
+/**
+ * Where the fine (and overdue status) of an open loan comes from.
+ */
+public enum FineMode {
+    /** book_issues.Fine and Status are rewritten as loans age (calculateFineForStudent, the overdue sweep). */
+    STORED,
+    /**
+     * Fine and overdue status are computed by the reading query from DueDate and the current
+     * date; book_issues is only written when a fine is settled or the book is returned.
+     */
+    DERIVED;
+
+    // Days overdue * rate; the rate is a constant, so it is inlined as a literal
+    private static final String DERIVED_FINE = "DATEDIFF(CURDATE(), %1$s.DueDate) * "
+            + BigDecimal.valueOf(Admin.FINE_RATE_PER_DAY).toPlainString();
+
+    /**
+     * SQL expression for a book_issues row's fine under this mode.
+     * @param alias The table alias used for book_issues in the query (e.g. "bi").
+     */
+    String fineColumn(String alias) {
+        if (this == STORED) return alias + ".Fine";
+        return String.format("CASE WHEN %1$s.Status != 'returned' AND %1$s.DueDate < CURDATE() THEN "
+                + DERIVED_FINE + " ELSE %1$s.Fine END", alias);
+    }
+
+    /**
+     * SQL expression for a book_issues row's status under this mode.
+     * @param alias The table alias used for book_issues in the query (e.g. "bi").
+     */
+    String statusColumn(String alias) {
+        if (this == STORED) return alias + ".Status";
+        return String.format("CASE WHEN %1$s.Status = 'issued' AND %1$s.DueDate < CURDATE() THEN 'overdue' "
+                + "ELSE %1$s.Status END", alias);
+    }
+}
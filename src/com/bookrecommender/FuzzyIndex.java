@@ -0,0 +1,278 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant lookup of title and author words (SymSpell-style deletion index).
+ * Every dictionary word is indexed under all strings obtained by deleting up to
+ * MAX_DISTANCE characters from its first PREFIX_LENGTH characters. A misspelled query
+ * word generates its own deletions the same way; a shared deletion makes a word a
+ * candidate, and candidates are confirmed with a real edit distance. Lookups cost a
+ * few dozen binary searches instead of a scan of the dictionary.
+ * <p>
+ * Memory is bounded: deletions are stored as (hash, word id) longs in one sorted array,
+ * and words are indexed most frequent first until MAX_DELETE_ENTRIES is reached. Words
+ * left out (the rarest) can still be found exactly, just not by a misspelling.
+ * <p>
+ * Words first seen in books added after the build are kept in a small list that is
+ * compared directly; the index is rebuilt once that list reaches MAX_EXTRA_WORDS.
+ */
+final class FuzzyIndex {
+    static final int MAX_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;          // Only the start of a word is used for deletions
+    private static final int MAX_DELETE_ENTRIES = 4_000_000; // 32 MB of deletion entries at most
+    private static final int MAX_EXTRA_WORDS = 2048;     // Added words compared directly before a rebuild
+
+    private final String[] words;          // word id -> word
+    private final int[] frequencies;       // word id -> number of books using it
+    private final Map<String, Integer> idByWord;
+    private final long[] deletions;        // Sorted (deletion hash << 32 | word id)
+    private final String[] extraWords;     // Words from books added since the build (not in 'deletions')
+    private final int bookCount;
+
+    private FuzzyIndex(String[] words, int[] frequencies, Map<String, Integer> idByWord, long[] deletions,
+                       String[] extraWords, int bookCount) {
+        this.words = words;
+        this.frequencies = frequencies;
+        this.idByWord = idByWord;
+        this.deletions = deletions;
+        this.extraWords = extraWords;
+        this.bookCount = bookCount;
+    }
+
+    /**
+     * Builds the index over the title and author words of every book in a catalog.
+     * @param catalog The catalog to index.
+     * @return The new index.
+     */
+    static FuzzyIndex build(BookCatalog catalog) {
+        Map<String, Integer> idByWord = new HashMap<>();
+        List<String> wordList = new ArrayList<>();
+        int[] counts = new int[1024];
+        Set<String> bookWords = new HashSet<>();
+        for (int slot = 0; slot < catalog.size(); slot++) {
+            bookWords.clear();
+            collectWords(catalog, slot, bookWords);
+            for (String word : bookWords) {
+                Integer id = idByWord.get(word);
+                if (id == null) {
+                    id = wordList.size();
+                    wordList.add(word);
+                    idByWord.put(word, id);
+                    if (id == counts.length) counts = Arrays.copyOf(counts, id * 2);
+                }
+                counts[id]++;
+            }
+        }
+        String[] words = wordList.toArray(new String[0]);
+        int[] frequencies = Arrays.copyOf(counts, words.length);
+
+        // Index the most frequent words first so the budget goes to the words people search for
+        Integer[] byFrequency = new Integer[words.length];
+        for (int i = 0; i < words.length; i++) byFrequency[i] = i;
+        Arrays.sort(byFrequency, (a, b) -> Integer.compare(frequencies[b], frequencies[a]));
+
+        long[] entries = new long[Math.min(MAX_DELETE_ENTRIES, Math.max(16, words.length * 8))];
+        int size = 0;
+        int skipped = 0;
+        for (int id : byFrequency) {
+            Set<String> variants = deletionsOf(words[id], MAX_DISTANCE);
+            if (size + variants.size() > MAX_DELETE_ENTRIES) {
+                skipped++;
+                continue;
+            }
+            if (size + variants.size() > entries.length) {
+                entries = Arrays.copyOf(entries, Math.min(MAX_DELETE_ENTRIES, Math.max(entries.length * 2, size + variants.size())));
+            }
+            for (String variant : variants) {
+                entries[size++] = ((long) variant.hashCode() << 32) | id;
+            }
+        }
+        if (skipped > 0) {
+            System.out.println("Warning: Fuzzy index budget reached; " + skipped + " rare words are exact-match only.");
+        }
+        long[] deletions = Arrays.copyOf(entries, size);
+        Arrays.sort(deletions);
+        return new FuzzyIndex(words, frequencies, idByWord, deletions, new String[0], catalog.size());
+    }
+
+    /**
+     * Returns an index that also knows the words of one added slot (see BookCatalog.withBook).
+     * @param catalog The catalog that already contains the slot.
+     * @param slot    The new slot (must be bookCount()).
+     * @return The new index; this one is unchanged.
+     */
+    FuzzyIndex withBook(BookCatalog catalog, int slot) {
+        if (slot != bookCount) {
+            throw new IllegalArgumentException("Expected slot " + bookCount + " but got " + slot + ".");
+        }
+        Set<String> bookWords = new HashSet<>();
+        collectWords(catalog, slot, bookWords);
+        List<String> added = new ArrayList<>(Arrays.asList(extraWords));
+        for (String word : bookWords) {
+            if (!contains(word)) added.add(word);
+        }
+        if (added.size() > MAX_EXTRA_WORDS) {
+            return build(catalog); // Fold the added words into the deletion index
+        }
+        return new FuzzyIndex(words, frequencies, idByWord, deletions, added.toArray(new String[0]), bookCount + 1);
+    }
+
+    /** @return Number of catalog slots covered (equals the catalog size it was built for). */
+    int bookCount() {
+        return bookCount;
+    }
+
+    /** @return true if the word (already normalized) occurs in some title or author. */
+    boolean contains(String word) {
+        if (idByWord.containsKey(word)) return true;
+        for (String extra : extraWords) {
+            if (extra.equals(word)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Suggests dictionary words close to a (normalized) query word.
+     * Short words allow fewer edits (see maxDistanceFor), so "cat" doesn't match half the dictionary.
+     *
+     * @param word  The word as typed, normalized (lower case, no punctuation).
+     * @param limit Maximum number of suggestions.
+     * @return Words within the allowed edit distance, closest first, then most frequent; the
+     *         word itself comes first if it is in the dictionary.
+     */
+    List<String> suggest(String word, int limit) {
+        int maxDistance = maxDistanceFor(word);
+        List<Suggestion> found = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        boolean exact = false;
+        if (maxDistance > 0) {
+            for (String variant : deletionsOf(word, maxDistance)) { // Fewer deletions for short words
+                long key = (long) variant.hashCode() << 32;
+                for (int i = lowerBound(key); i < deletions.length && (deletions[i] >>> 32) == (key >>> 32); i++) {
+                    int id = (int) deletions[i];
+                    if (!seen.add(id)) continue; // Also drops hash collisions already checked
+                    int distance = distance(word, words[id], maxDistance);
+                    if (distance <= maxDistance) found.add(new Suggestion(words[id], distance, frequencies[id]));
+                    exact |= distance == 0;
+                }
+            }
+            for (String extra : extraWords) {
+                int distance = distance(word, extra, maxDistance);
+                if (distance <= maxDistance) found.add(new Suggestion(extra, distance, 1));
+                exact |= distance == 0;
+            }
+        }
+        if (!exact && contains(word)) {
+            found.add(new Suggestion(word, 0, 1)); // Short word, or a rare word left out of the deletion index
+        }
+        found.sort((a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance)
+                : a.frequency != b.frequency ? Integer.compare(b.frequency, a.frequency)
+                : a.word.compareTo(b.word));
+        List<String> result = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && result.size() < limit; i++) {
+            result.add(found.get(i).word);
+        }
+        return result;
+    }
+
+    /** @return Edits allowed for a query word: none below 3 letters, 1 up to 5 letters, else MAX_DISTANCE. */
+    static int maxDistanceFor(String word) {
+        return word.length() < 3 ? 0 : word.length() <= 5 ? 1 : MAX_DISTANCE;
+    }
+
+    private static final class Suggestion {
+        final String word;
+        final int distance;
+        final int frequency;
+
+        Suggestion(String word, int distance, int frequency) {
+            this.word = word;
+            this.distance = distance;
+            this.frequency = frequency;
+        }
+    }
+
+    /** @return Index of the first entry &gt;= key. */
+    private int lowerBound(long key) {
+        int lo = 0, hi = deletions.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (deletions[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** @return The word's prefix and every string made by deleting 1..maxDistance of its characters. */
+    private static Set<String> deletionsOf(String word, int maxDistance) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        List<String> frontier = new ArrayList<>();
+        frontier.add(prefix);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : frontier) {
+                if (s.length() <= 1) continue;
+                for (int i = 0; i < s.length(); i++) {
+                    String deleted = s.substring(0, i) + s.substring(i + 1);
+                    if (variants.add(deleted)) next.add(deleted);
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    /** Adds the distinct normalized words of a book's title and author. */
+    private static void collectWords(BookCatalog catalog, int slot, Set<String> into) {
+        addWords(catalog.titleAt(slot), into);
+        addWords(catalog.authorAt(slot), into);
+    }
+
+    private static void addWords(String text, Set<String> into) {
+        String normalized = PrefixIndex.normalize(text);
+        if (normalized.isEmpty()) return;
+        into.addAll(Arrays.asList(normalized.split(" ")));
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * abandoned early once it must exceed max.
+     * @return The distance, or max + 1 if it is larger than max.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int n = a.length(), m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) previous[j] = j;
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1); // Transposition
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], max + 1);
+    }
+}
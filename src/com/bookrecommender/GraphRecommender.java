@@ -0,0 +1,112 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Graph-based recommender: personalized PageRank estimated with Monte-Carlo
+ * random walks with restart over the CSR book graph.
+ * Each walk starts at one of the user's issued books, follows a uniformly random
+ * edge at every step, and stops with probability RESTART_PROBABILITY per step.
+ * A book's score is the number of walk visits it received, which is proportional
+ * to its personalized PageRank for the seed set.
+ *
+ * Walks run in rounds; after each round the current top k is compared to the previous
+ * round's, and the walk stops early once it has been unchanged for STABLE_ROUNDS rounds
+ * or the walk budget is spent. Cost is bounded by the budget, not by the graph size.
+ */
+final class GraphRecommender {
+    static final double RESTART_PROBABILITY = 0.15;
+    static final int DEFAULT_WALK_BUDGET = 20_000;  // Maximum walks per request
+    private static final int WALKS_PER_ROUND = 2_000;
+    private static final int STABLE_ROUNDS = 2;      // Unchanged top-k rounds before stopping
+    private static final int MAX_WALK_LENGTH = 100;  // Guards against pathological graphs
+
+    private final int walkBudget;
+
+    /**
+     * @param walkBudget Maximum number of random walks per request.
+     */
+    GraphRecommender(int walkBudget) {
+        if (walkBudget <= 0) {
+            throw new IllegalArgumentException("walkBudget must be positive.");
+        }
+        this.walkBudget = walkBudget;
+    }
+
+    /**
+     * Ranks books by random-walk visits from the issued books.
+     *
+     * @param graph       The book graph (same slots as books).
+     * @param books       The catalog.
+     * @param issuedSlots Seed books (excluded from the results).
+     * @param k           Page size.
+     * @param offset      Page start.
+     * @param filter      Candidate restrictions.
+     * @param seed        Random seed; the same seed gives the same ranking, so pages are stable.
+     * @return Up to k BookIDs starting at rank offset.
+     */
+    List<Integer> rank(BookGraph graph, BookCatalog books, IntIntHashMap issuedSlots, int k, int offset,
+                                 RecommendationFilter filter, long seed) {
+        if (issuedSlots.size() == 0 || k == 0) {
+            return new ArrayList<>();
+        }
+        int[] seeds = new int[issuedSlots.size()];
+        int[] seedCount = {0};
+        issuedSlots.forEach((slot, unused) -> seeds[seedCount[0]++] = slot);
+        Arrays.sort(seeds); // Iteration order of the map is not stable; the walk order must be
+
+        RecommendationFilter activeFilter = filter != null ? filter : RecommendationFilter.NONE;
+        int filterGenreKey = activeFilter.resolveGenreKey(books);
+        SplittableRandom random = new SplittableRandom(seed);
+        IntIntHashMap visits = new IntIntHashMap(1024, 0);
+        int pageEnd = offset + k;
+        int[] previousTop = null;
+        int stableRounds = 0;
+
+        for (int walks = 0; walks < walkBudget; ) {
+            int roundEnd = Math.min(walkBudget, walks + WALKS_PER_ROUND);
+            for (; walks < roundEnd; walks++) {
+                int node = seeds[walks % seeds.length]; // Restart distribution: uniform over seeds
+                for (int step = 0; step < MAX_WALK_LENGTH; step++) {
+                    int degree = graph.degree(node);
+                    if (degree == 0 || random.nextDouble() < RESTART_PROBABILITY) break;
+                    node = graph.neighbor(node, random.nextInt(degree));
+                    if (!issuedSlots.containsKey(node)) {
+                        visits.addTo(node, 1);
+                    }
+                }
+            }
+            int[] top = topIds(books, visits, pageEnd, activeFilter, filterGenreKey);
+            if (Arrays.equals(top, previousTop)) {
+                if (++stableRounds >= STABLE_ROUNDS) break; // Top-k has converged
+            } else {
+                stableRounds = 0;
+            }
+            previousTop = top;
+        }
+
+        List<Integer> page = new ArrayList<>();
+        if (previousTop != null) {
+            for (int i = offset; i < previousTop.length; i++) {
+                page.add(previousTop[i]);
+            }
+        }
+        return page;
+    }
+
+    /** @return The best n visited BookIDs passing the filter, best first. */
+    private static int[] topIds(BookCatalog books, IntIntHashMap visits, int n, RecommendationFilter filter, int filterGenreKey) {
+        TopKCollector topK = new TopKCollector(Math.min(n, visits.size()));
+        visits.forEach((slot, count) -> {
+            if (filter.accepts(books, slot, filterGenreKey)) {
+                topK.offer(books.bookIdAt(slot), count);
+            }
+        });
+        int[] ids = new int[topK.size()];
+        topK.drainInto(ids, null);
+        return ids;
+    }
+}
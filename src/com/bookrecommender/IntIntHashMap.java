@@ -0,0 +1,134 @@
+package com.bookrecommender;
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing hash map from int keys to int values.
+ * Used by the catalog and the recommenders to avoid boxing Integer keys
+ * (one array pair instead of one Entry + two Integer objects per mapping).
+ * Not thread-safe; instances shared between threads must not be mutated.
+ */
+final class IntIntHashMap {
+    private static final int EMPTY_KEY = Integer.MIN_VALUE; // Reserved, never a valid key
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+    private final int missingValue; // Returned by get() for absent keys
+
+    /**
+     * @param expectedSize Number of mappings to size the table for.
+     * @param missingValue Value returned by get() when a key is absent.
+     */
+    IntIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /** Copy constructor, used when a snapshot needs a private mutable copy. */
+    IntIntHashMap(IntIntHashMap other) {
+        this.missingValue = other.missingValue;
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+        this.resizeAt = other.resizeAt;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY_KEY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    int get(int key) {
+        if (key == EMPTY_KEY) return missingValue; // Would match the first empty slot
+        int i = indexOf(key);
+        return keys[i] == key ? values[i] : missingValue;
+    }
+
+    boolean containsKey(int key) {
+        return key != EMPTY_KEY && keys[indexOf(key)] == key;
+    }
+
+    void put(int key, int value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved.");
+        }
+        int i = indexOf(key);
+        if (keys[i] != key) {
+            keys[i] = key;
+            if (++size > resizeAt) {
+                values[i] = value;
+                rehash();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    /**
+     * Adds delta to the value mapped to key (starting from 0 if absent).
+     * @return The new value.
+     * @throws IllegalArgumentException If key is the reserved Integer.MIN_VALUE (as put()).
+     */
+    int addTo(int key, int delta) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved.");
+        }
+        int i = indexOf(key);
+        if (keys[i] == key) {
+            return values[i] += delta;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Visits every mapping; iteration order is unspecified. */
+    void forEach(IntIntConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
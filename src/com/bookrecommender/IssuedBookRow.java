@@ -0,0 +1,30 @@
+package com.bookrecommender;
+
+import java.time.LocalDate;
+
+/**
+ * One open issue as listed for admins (see Admin.getIssuedBooksPage).
+ * Rows are ordered by (studentUsername, dueDate, issueId), which is also the page position.
+ */
+public final class IssuedBookRow {
+    public final int issueId;
+    public final String studentUsername;
+    public final String title;
+    public final int bookId;
+    public final LocalDate issueDate;
+    public final LocalDate dueDate;
+    public final String status;
+    public final double fine;
+
+    IssuedBookRow(int issueId, String studentUsername, String title, int bookId,
+                  LocalDate issueDate, LocalDate dueDate, String status, double fine) {
+        this.issueId = issueId;
+        this.studentUsername = studentUsername;
+        this.title = title;
+        this.bookId = bookId;
+        this.issueDate = issueDate;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.fine = fine;
+    }
+}
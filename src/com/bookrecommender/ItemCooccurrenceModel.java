@@ -0,0 +1,290 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-item collaborative filtering model built from user_book_history co-occurrence.
+ * For every book it keeps a sparse neighbor list: the books most often read by the
+ * same users, weighted by cosine similarity
+ * co(a, b) / sqrt(readers(a) * readers(b)).
+ * A user's candidates are scored by summing the weights from each book they have read.
+ *
+ * Training is one streaming scan of the history table. Users are grouped in chunks
+ * and counted in parallel on a ForkJoinPool. Memory is bounded by the number of
+ * books times TRAINING_ROW_FACTOR * neighbors entries: when a book's co-count row
+ * overflows, it is pruned to its heaviest half (lossy counting, so rare pairs may be
+ * undercounted). When the scan ends, rows are pruned to the top neighbors by cosine.
+ * New issues update the counts incrementally through recordIssue().
+ *
+ * Thread-safe: each row is locked on its own, and reads of reader counts are volatile.
+ */
+final class ItemCooccurrenceModel {
+    static final int DEFAULT_NEIGHBORS = 50;           // Neighbors kept per book
+    private static final int TRAINING_ROW_FACTOR = 4;  // Row cap during training, in multiples of neighbors
+    private static final int SERVING_ROW_FACTOR = 2;   // Row cap after training, before pruning back
+    private static final int MAX_HISTORY_PER_USER = 300; // Longer histories are sampled evenly (pairs grow quadratically)
+    private static final int USERS_PER_CHUNK = 5_000;  // Users counted together per fork/join invocation
+    private static final int USERS_PER_TASK = 64;      // Fork/join split threshold
+
+    private final int neighbors;
+    private final ConcurrentHashMap<Integer, Row> rows = new ConcurrentHashMap<>(); // By BookID
+    private volatile boolean trained;
+
+    /** Co-occurrence counts of one book. coCounts maps the other BookID to the number of shared readers. */
+    private static final class Row {
+        volatile int readers; // Distinct users who read this book (written under the row lock)
+        IntIntHashMap coCounts = new IntIntHashMap(16, 0);
+    }
+
+    /**
+     * @param neighbors Number of neighbors kept per book.
+     */
+    ItemCooccurrenceModel(int neighbors) {
+        if (neighbors <= 0) {
+            throw new IllegalArgumentException("neighbors must be positive.");
+        }
+        this.neighbors = neighbors;
+    }
+
+    /** @return True once train() has finished; until then rank() should not be used. */
+    boolean isTrained() {
+        return trained;
+    }
+
+    /** @return Number of books with at least one reader. */
+    int bookCount() {
+        return rows.size();
+    }
+
+    /**
+     * Builds the model from one streaming scan of user_book_history.
+     * Issues recorded while training runs are counted as well.
+     *
+     * @param readConn    A connection dedicated to the scan for its duration.
+     * @param parallelism Number of counting threads.
+     * @return Number of history rows read.
+     * @throws SQLException If a database access error occurs.
+     */
+    long train(Connection readConn, int parallelism) throws SQLException {
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<int[]> chunk = new ArrayList<>(USERS_PER_CHUNK);
+            long rows = UserHistoryScanner.scanAll(readConn, (userId, bookIds) -> {
+                chunk.add(bookIds);
+                if (chunk.size() == USERS_PER_CHUNK) {
+                    pool.invoke(new CountTask(chunk, 0, chunk.size()));
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                pool.invoke(new CountTask(chunk, 0, chunk.size()));
+            }
+
+            // Final pruning: keep the top neighbors by cosine (reader counts are complete now)
+            List<Row> all = new ArrayList<>(this.rows.values());
+            pool.submit(() -> all.parallelStream().forEach(row -> {
+                synchronized (row) {
+                    pruneByWeight(row, neighbors);
+                }
+            })).join();
+            trained = true;
+
+            System.out.printf("Co-occurrence model trained: %d books, %d history rows in %d ms (%d threads)%n",
+                    this.rows.size(), rows, System.currentTimeMillis() - start, parallelism);
+            return rows;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Fork/join task counting the co-occurrences of users [from, to) of a chunk. */
+    private final class CountTask extends RecursiveAction {
+        private final List<int[]> histories;
+        private final int from, to;
+
+        CountTask(List<int[]> histories, int from, int to) {
+            this.histories = histories;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > USERS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountTask(histories, from, mid), new CountTask(histories, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int[] books = sample(histories.get(i));
+                for (int bookId : books) {
+                    Row row = rows.computeIfAbsent(bookId, id -> new Row());
+                    synchronized (row) {
+                        row.readers++;
+                        for (int other : books) {
+                            if (other != bookId) row.coCounts.addTo(other, 1);
+                        }
+                        pruneIfFull(row);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts one new issue: the user had not read bookId before and has read priorBookIds.
+     * Re-issues of a book already in the user's history do not change the model.
+     *
+     * @param bookId       The issued book.
+     * @param priorBookIds The user's distinct BookIDs before this issue.
+     */
+    void recordIssue(int bookId, int[] priorBookIds) {
+        for (int prior : priorBookIds) {
+            if (prior == bookId) return; // Same reader again; co-occurrence counts distinct users
+        }
+        int[] others = sample(priorBookIds);
+        Row row = rows.computeIfAbsent(bookId, id -> new Row());
+        synchronized (row) {
+            row.readers++;
+            for (int other : others) {
+                row.coCounts.addTo(other, 1);
+            }
+            pruneIfFull(row);
+        }
+        // Each row is locked on its own, never two at once
+        for (int other : others) {
+            Row otherRow = rows.computeIfAbsent(other, id -> new Row());
+            synchronized (otherRow) {
+                otherRow.coCounts.addTo(bookId, 1);
+                pruneIfFull(otherRow);
+            }
+        }
+    }
+
+    /**
+     * Ranks candidate books for a user by summed cosine weight from the books they read.
+     *
+     * @param books       The catalog.
+     * @param issuedSlots The user's books (seeds, excluded from the results).
+     * @param k           Page size.
+     * @param offset      Page start.
+     * @param filter      Candidate restrictions.
+     * @return Up to k BookIDs starting at rank offset, best first (ties by BookID).
+     */
+    List<Integer> rank(BookCatalog books, IntIntHashMap issuedSlots, int k, int offset, RecommendationFilter filter) {
+        int[] seeds = new int[issuedSlots.size()];
+        int[] seedCount = {0};
+        issuedSlots.forEach((slot, unused) -> seeds[seedCount[0]++] = slot);
+
+        Scores scores = new Scores();
+        for (int seedSlot : seeds) {
+            Row row = rows.get(books.bookIdAt(seedSlot));
+            if (row == null) continue;
+            double seedReaders = row.readers;
+            synchronized (row) {
+                row.coCounts.forEach((otherId, co) -> {
+                    int slot = books.slotOf(otherId);
+                    if (slot >= 0 && !issuedSlots.containsKey(slot)) {
+                        scores.add(slot, cosine(co, seedReaders, readersOf(otherId)));
+                    }
+                });
+            }
+        }
+
+        RecommendationFilter activeFilter = filter != null ? filter : RecommendationFilter.NONE;
+        int filterGenreKey = activeFilter.resolveGenreKey(books);
+        TopKCollector topK = new TopKCollector((int) Math.min(scores.count, (long) offset + k));
+        for (int i = 0; i < scores.count; i++) {
+            int slot = scores.slots[i];
+            if (activeFilter.accepts(books, slot, filterGenreKey)) {
+                topK.offer(books.bookIdAt(slot), scores.values[i]);
+            }
+        }
+        return topK.drainIds(offset);
+    }
+
+    /** Sparse double scores by catalog slot (IntIntHashMap maps the slot to its index here). */
+    private static final class Scores {
+        final IntIntHashMap indexBySlot = new IntIntHashMap(256, -1);
+        int[] slots = new int[256];
+        double[] values = new double[256];
+        int count;
+
+        void add(int slot, double weight) {
+            int index = indexBySlot.get(slot);
+            if (index < 0) {
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, count * 2);
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                index = count++;
+                indexBySlot.put(slot, index);
+                slots[index] = slot;
+            }
+            values[index] += weight;
+        }
+    }
+
+    private int readersOf(int bookId) {
+        Row row = rows.get(bookId);
+        return row == null ? 0 : row.readers;
+    }
+
+    private static double cosine(int coCount, double readersA, double readersB) {
+        if (readersA <= 0 || readersB <= 0) return 0;
+        return coCount / Math.sqrt(readersA * readersB);
+    }
+
+    /** Prunes a row that outgrew its serving (or training) cap. Caller holds the row lock. */
+    private void pruneIfFull(Row row) {
+        if (trained) {
+            if (row.coCounts.size() > SERVING_ROW_FACTOR * neighbors) pruneByWeight(row, neighbors);
+        } else if (row.coCounts.size() > TRAINING_ROW_FACTOR * neighbors) {
+            pruneByCount(row, TRAINING_ROW_FACTOR * neighbors / 2);
+        }
+    }
+
+    /** Keeps the keep heaviest co-counts of a row. Caller holds the row lock. */
+    private static void pruneByCount(Row row, int keep) {
+        TopKCollector topK = new TopKCollector(keep);
+        row.coCounts.forEach((otherId, co) -> topK.offer(otherId, co));
+        row.coCounts = rebuild(row.coCounts, topK);
+    }
+
+    /** Keeps the keep most similar books of a row by cosine. Caller holds the row lock. */
+    private void pruneByWeight(Row row, int keep) {
+        if (row.coCounts.size() <= keep) return;
+        double readers = row.readers;
+        TopKCollector topK = new TopKCollector(keep);
+        row.coCounts.forEach((otherId, co) -> topK.offer(otherId, cosine(co, readers, readersOf(otherId))));
+        row.coCounts = rebuild(row.coCounts, topK);
+    }
+
+    private static IntIntHashMap rebuild(IntIntHashMap old, TopKCollector kept) {
+        int[] ids = new int[kept.size()];
+        kept.drainInto(ids, null);
+        IntIntHashMap pruned = new IntIntHashMap(ids.length * 2, 0); // Room to grow before the next prune
+        for (int id : ids) {
+            pruned.put(id, old.get(id));
+        }
+        return pruned;
+    }
+
+    /** @return The history itself, or MAX_HISTORY_PER_USER evenly spaced entries of it. */
+    private static int[] sample(int[] bookIds) {
+        if (bookIds.length <= MAX_HISTORY_PER_USER) return bookIds;
+        int[] sampled = new int[MAX_HISTORY_PER_USER];
+        for (int i = 0; i < sampled.length; i++) {
+            sampled[i] = bookIds[(int) ((long) i * bookIds.length / sampled.length)];
+        }
+        return sampled;
+    }
+}
@@ -0,0 +1,325 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Keeps overdue status and fines of every open loan up to date in the background.
+ * Open issues sit in a min-heap keyed by the day their fine next changes: the day
+ * after the DueDate (when the loan becomes overdue), then every following day while
+ * it stays open. The worker sleeps until the earliest key is reached, pops every loan
+ * that is due, and writes them for the whole library in chunked, batched UPDATEs;
+ * there is no per-student query. Loans that were returned meanwhile match no row and
+ * are dropped from the heap.
+ * <p>
+ * The heap is filled once from book_issues when the worker starts (or on the first
+ * sweep) and then kept current through track() as books are issued.
+ * Only used in FineMode.STORED; DERIVED fines need no writes as loans age.
+ */
+final class OverdueSweeper extends BackgroundWorker {
+    private static final int ROWS_PER_CHUNK = 1_000;    // UPDATEs per batch and per transaction
+    private static final long RETRY_DELAY_MS = 60_000;  // Back-off after a failed pass
+    private static final long MAX_SLEEP_MS = 3_600_000; // Re-check hourly (clock changes, missed wake-ups)
+
+    private final Object lock = new Object();
+    private final LoanHeap heap = new LoanHeap();
+    private final LoanHeap pending = new LoanHeap();   // Issues tracked before the initial load finished
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    // Pass totals, reported when the sweeper stops
+    private long rowsUpdated;
+    private long passes;
+    private long sweepNanos;
+
+    OverdueSweeper() {
+        super("overdue-sweeper", RETRY_DELAY_MS);
+    }
+
+    /** Result of one sweep pass. */
+    static final class Pass {
+        final int rows;
+        final long millis;
+
+        Pass(int rows, long millis) {
+            this.rows = rows;
+            this.millis = millis;
+        }
+
+        /** @return Rows written per second (0 if nothing was written). */
+        long rowsPerSecond() {
+            return rows == 0 ? 0 : rows * 1000L / Math.max(1, millis);
+        }
+    }
+
+    /**
+     * Schedules a newly issued loan. Cheap; never touches the database.
+     * @param issueId The new IssueID.
+     * @param dueDate Its due date.
+     */
+    void track(int issueId, LocalDate dueDate) {
+        long dueDay = dueDate.toEpochDay();
+        synchronized (lock) {
+            if (loaded) {
+                heap.push(dueDay + 1, issueId, dueDay);
+                lock.notifyAll(); // May be earlier than what the worker waits for
+            } else {
+                pending.push(dueDay + 1, issueId, dueDay);
+            }
+        }
+    }
+
+    /** @return Number of open loans being tracked. */
+    int trackedLoans() {
+        synchronized (lock) {
+            return heap.size() + pending.size();
+        }
+    }
+
+    @Override
+    void stopped() {
+        synchronized (lock) {
+            System.out.println("Overdue sweeper stopped. Rows updated: " + rowsUpdated + " in " + passes
+                    + " passes (" + (sweepNanos == 0 ? 0 : rowsUpdated * 1_000_000_000L / sweepNanos) + " rows/s).");
+        }
+    }
+
+    @Override
+    boolean hasWork() {
+        synchronized (lock) {
+            return !loaded || isDue(LocalDate.now().toEpochDay()); // The first pass loads the open loans
+        }
+    }
+
+    @Override
+    void awaitWork() throws InterruptedException {
+        synchronized (lock) {
+            while (isRunning() && !isDue(LocalDate.now().toEpochDay())) {
+                lock.wait(millisUntilNextDue()); // Woken early by track() or stop()
+            }
+        }
+    }
+
+    @Override
+    void doWork(Connection conn) throws SQLException {
+        Pass pass = sweep(conn); // On failure the unwritten loans are back in the heap; fines stay stale meanwhile
+        if (pass.rows > 0) {
+            System.out.println("Overdue sweep: " + pass.rows + " loans updated in " + pass.millis
+                    + " ms (" + pass.rowsPerSecond() + " rows/s).");
+        }
+    }
+
+    /** Caller holds lock. @return true if the earliest loan's fine changes on or before 'today'. */
+    private boolean isDue(long today) {
+        return heap.size() > 0 && heap.minKey() <= today;
+    }
+
+    /** Caller holds lock. @return Milliseconds until the earliest key's day starts (1..MAX_SLEEP_MS). */
+    private long millisUntilNextDue() {
+        if (heap.size() == 0) return MAX_SLEEP_MS;
+        long wakeAt = LocalDate.ofEpochDay(heap.minKey()).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.max(1, Math.min(MAX_SLEEP_MS, wakeAt - System.currentTimeMillis()));
+    }
+
+    /**
+     * Runs one pass over every loan whose fine changes today or earlier: sets Status to
+     * 'overdue' and Fine to days overdue * Admin.FINE_RATE_PER_DAY, ROWS_PER_CHUNK rows per
+     * batch and transaction. Loads the open loans first if that hasn't happened yet.
+     * Restores the connection's auto-commit mode before returning.
+     *
+     * @param conn Connection to write with.
+     * @return The number of rows written and the time taken.
+     * @throws SQLException If a database error occurs (loans not yet written are rescheduled).
+     */
+    Pass sweep(Connection conn) throws SQLException {
+        ensureLoaded(conn);
+        long started = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        LoanHeap due = new LoanHeap();
+        synchronized (lock) {
+            while (isDue(today)) {
+                due.push(heap.minKey(), heap.minIssueId(), heap.minDueDay());
+                heap.pop();
+            }
+        }
+
+        int written = 0;
+        int from = 0;
+        SQLException failure = null;
+        boolean autoCommit;
+        try {
+            autoCommit = conn.getAutoCommit();
+        } catch (SQLException e) {
+            requeue(due, 0);
+            throw e;
+        }
+        String update = "UPDATE book_issues SET Fine = ?, Status = 'overdue' " +
+                        "WHERE IssueID = ? AND Status IN ('issued', 'overdue')";
+        try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+            conn.setAutoCommit(false);
+            for (; from < due.size(); from += ROWS_PER_CHUNK) {
+                int to = Math.min(due.size(), from + ROWS_PER_CHUNK);
+                for (int i = from; i < to; i++) {
+                    pstmt.setDouble(1, (today - due.dueDayAt(i)) * Admin.FINE_RATE_PER_DAY);
+                    pstmt.setInt(2, due.issueIdAt(i));
+                    pstmt.addBatch();
+                }
+                int[] counts = pstmt.executeBatch();
+                conn.commit();
+                synchronized (lock) {
+                    for (int i = from; i < to; i++) {
+                        // 0 rows: returned (or deleted) since it was tracked; otherwise the fine grows again tomorrow
+                        if (counts[i - from] != 0) heap.push(today + 1, due.issueIdAt(i), due.dueDayAt(i));
+                    }
+                }
+                written += to - from;
+            }
+        } catch (SQLException e) {
+            failure = e;
+            requeue(due, from); // First: the rollback below may fail too (dead connection)
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+        }
+        try {
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            if (failure == null) failure = e; // Never hides the error that failed the pass
+            else failure.addSuppressed(e);
+        }
+        if (failure != null) throw failure;
+
+        long nanos = System.nanoTime() - started;
+        synchronized (lock) {
+            rowsUpdated += written;
+            passes++;
+            sweepNanos += nanos;
+        }
+        return new Pass(written, nanos / 1_000_000);
+    }
+
+    /** Puts back due loans [from, end) that were not written, so the next pass retries them. */
+    private void requeue(LoanHeap due, int from) {
+        synchronized (lock) {
+            for (int i = from; i < due.size(); i++) {
+                heap.push(due.keyAt(i), due.issueIdAt(i), due.dueDayAt(i));
+            }
+        }
+    }
+
+    /** Fills the heap from every open loan in book_issues, once. */
+    private void ensureLoaded(Connection conn) throws SQLException {
+        if (loaded) return;
+        synchronized (loadLock) {
+            if (loaded) return;
+            long start = System.currentTimeMillis();
+            LoanHeap open = new LoanHeap();
+            IntIntHashMap loadedIds = new IntIntHashMap(1024, 0);
+            String query = "SELECT IssueID, DueDate FROM book_issues WHERE Status IN ('issued', 'overdue')";
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    Date dueDate = rs.getDate("DueDate");
+                    if (dueDate == null) continue; // No due date, never overdue
+                    long dueDay = dueDate.toLocalDate().toEpochDay();
+                    open.push(dueDay + 1, rs.getInt("IssueID"), dueDay);
+                    loadedIds.put(rs.getInt("IssueID"), 1);
+                }
+            }
+            if (!conn.getAutoCommit()) conn.commit(); // End the read transaction
+            synchronized (lock) {
+                heap.addAll(open);
+                for (int i = 0; i < pending.size(); i++) {
+                    if (!loadedIds.containsKey(pending.issueIdAt(i))) { // Issued while we were reading
+                        heap.push(pending.keyAt(i), pending.issueIdAt(i), pending.dueDayAt(i));
+                    }
+                }
+                pending.clear();
+                loaded = true;
+                lock.notifyAll();
+            }
+            System.out.println("Overdue sweeper tracking " + open.size() + " open loans (loaded in "
+                    + (System.currentTimeMillis() - start) + " ms).");
+        }
+    }
+
+    /**
+     * Binary min-heap of (key day, IssueID, due day) in parallel primitive arrays.
+     * Also used as a plain list (keyAt/issueIdAt/dueDayAt by index) for a pass's due loans.
+     */
+    private static final class LoanHeap {
+        private long[] keys = new long[16];
+        private int[] issueIds = new int[16];
+        private long[] dueDays = new long[16];
+        private int size;
+
+        int size() { return size; }
+        long minKey() { return keys[0]; }
+        int minIssueId() { return issueIds[0]; }
+        long minDueDay() { return dueDays[0]; }
+        long keyAt(int i) { return keys[i]; }
+        int issueIdAt(int i) { return issueIds[i]; }
+        long dueDayAt(int i) { return dueDays[i]; }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(long key, int issueId, long dueDay) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                issueIds = Arrays.copyOf(issueIds, size * 2);
+                dueDays = Arrays.copyOf(dueDays, size * 2);
+            }
+            int i = size++;
+            while (i > 0) { // Sift up
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                set(i, keys[parent], issueIds[parent], dueDays[parent]);
+                i = parent;
+            }
+            set(i, key, issueId, dueDay);
+        }
+
+        /** Removes the minimum. */
+        void pop() {
+            size--;
+            if (size == 0) return;
+            long key = keys[size];
+            int issueId = issueIds[size];
+            long dueDay = dueDays[size];
+            int i = 0;
+            while (true) { // Sift the last entry down from the root
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (key <= keys[child]) break;
+                set(i, keys[child], issueIds[child], dueDays[child]);
+                i = child;
+            }
+            set(i, key, issueId, dueDay);
+        }
+
+        /** Pushes every entry of another heap. */
+        void addAll(LoanHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                push(other.keys[i], other.issueIds[i], other.dueDays[i]);
+            }
+        }
+
+        private void set(int i, long key, int issueId, long dueDay) {
+            keys[i] = key;
+            issueIds[i] = issueId;
+            dueDays[i] = dueDay;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bookrecommender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. The next page is requested with the last
+ * item of this one as the "after" position, so each page costs one indexed seek no
+ * matter how deep it is, and only one page is ever held in memory.
+ *
+ * @param <T> Row type.
+ */
+public final class Page<T> {
+    public final List<T> items;
+    public final boolean hasMore; // True if rows exist after the last item
+
+    Page(List<T> items, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasMore = hasMore;
+    }
+
+    /** @return The first item (the position to read backwards from), or null if the page is empty. */
+    public T first() {
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /** @return The last item (the position to continue after), or null if the page is empty. */
+    public T last() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,220 @@
+package com.bookrecommender;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Prefix (autocomplete) index over book titles and authors.
+ * Each field is a pair of parallel arrays sorted by normalized key, so a prefix
+ * query is one binary search for the first key &gt;= prefix followed by a scan over
+ * the keys that start with it. Three fields are searched, in this order:
+ * <ol>
+ *   <li>TITLE: the whole normalized title ("harry po" finds "Harry Potter and ...").</li>
+ *   <li>TITLE_WORD: every later word of the title ("potter" finds the same book).</li>
+ *   <li>AUTHOR: the whole normalized author and each later word of it (surnames).</li>
+ * </ol>
+ * Like BookCatalog, an index is immutable: a new book is added copy-on-write
+ * through {@link #withBook}, which costs O(size) array copies, not a rebuild.
+ */
+final class PrefixIndex {
+    static final int MAX_RESULTS = 50; // Upper bound on the limit a caller may ask for
+
+    private static final int TITLE = 0, TITLE_WORD = 1, AUTHOR = 2;
+
+    private final Field[] fields; // Indexed by TITLE / TITLE_WORD / AUTHOR
+    private final int bookCount;
+
+    private PrefixIndex(Field[] fields, int bookCount) {
+        this.fields = fields;
+        this.bookCount = bookCount;
+    }
+
+    /** Sorted keys and the slot each key belongs to (a slot appears once per key it has). */
+    private static final class Field {
+        final String[] keys;
+        final int[] slots;
+
+        Field(String[] keys, int[] slots) {
+            this.keys = keys;
+            this.slots = slots;
+        }
+
+        /** @return Index of the first key &gt;= target (keys.length if none). */
+        int lowerBound(String target) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(target) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** @return A copy with (key, slot) inserted at its sorted position. */
+        Field with(String key, int slot) {
+            int at = lowerBound(key);
+            while (at < keys.length && keys[at].equals(key) && slots[at] < slot) at++; // Ties ordered by slot
+            String[] newKeys = new String[keys.length + 1];
+            int[] newSlots = new int[slots.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(slots, 0, newSlots, 0, at);
+            newKeys[at] = key;
+            newSlots[at] = slot;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(slots, at, newSlots, at + 1, slots.length - at);
+            return new Field(newKeys, newSlots);
+        }
+    }
+
+    /** Collects (key, slot) pairs for one field during a full build. */
+    private static final class FieldBuilder {
+        private String[] keys = new String[16];
+        private int[] slots = new int[16];
+        private int size;
+
+        void add(String key, int slot) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            keys[size] = key;
+            slots[size] = slot;
+            size++;
+        }
+
+        Field build() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            String[] k = keys;
+            int[] s = slots;
+            Arrays.sort(order, Comparator.<Integer, String>comparing(i -> k[i]).thenComparingInt(i -> s[i]));
+            String[] sortedKeys = new String[size];
+            int[] sortedSlots = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = k[order[i]];
+                sortedSlots[i] = s[order[i]];
+            }
+            return new Field(sortedKeys, sortedSlots);
+        }
+    }
+
+    /**
+     * Builds the index over every slot of a catalog.
+     * @param catalog The catalog whose slots the index refers to.
+     * @return The new index.
+     */
+    static PrefixIndex build(BookCatalog catalog) {
+        FieldBuilder[] builders = {new FieldBuilder(), new FieldBuilder(), new FieldBuilder()};
+        for (int slot = 0; slot < catalog.size(); slot++) {
+            forEachKey(catalog.titleAt(slot), catalog.authorAt(slot), slot,
+                    (field, key, s) -> builders[field].add(key, s));
+        }
+        Field[] fields = new Field[builders.length];
+        for (int f = 0; f < fields.length; f++) {
+            fields[f] = builders[f].build();
+        }
+        return new PrefixIndex(fields, catalog.size());
+    }
+
+    /**
+     * Returns a new index that also covers one added slot (see BookCatalog.withBook).
+     * @param catalog The catalog that already contains the slot.
+     * @param slot    The new slot (must be bookCount()).
+     * @return The new index; this one is unchanged.
+     */
+    PrefixIndex withBook(BookCatalog catalog, int slot) {
+        if (slot != bookCount) {
+            throw new IllegalArgumentException("Expected slot " + bookCount + " but got " + slot + ".");
+        }
+        Field[] updated = fields.clone();
+        forEachKey(catalog.titleAt(slot), catalog.authorAt(slot), slot,
+                (field, key, s) -> updated[field] = updated[field].with(key, s));
+        return new PrefixIndex(updated, bookCount + 1);
+    }
+
+    /** @return Number of catalog slots covered (equals the catalog size it was built for). */
+    int bookCount() {
+        return bookCount;
+    }
+
+    /**
+     * Finds books whose title, a title word, or the author starts with the query.
+     * Title matches come first, then title-word matches, then author matches; each
+     * group is in alphabetical order. A book is returned at most once.
+     *
+     * @param query Text typed so far (case and punctuation are ignored).
+     * @param limit Maximum number of slots to return (capped at MAX_RESULTS).
+     * @return Matching slots, best first; empty if the query has no letters or digits.
+     */
+    int[] search(String query, int limit) {
+        String prefix = normalize(query);
+        int max = Math.min(limit, MAX_RESULTS);
+        if (prefix.isEmpty() || max <= 0) return new int[0];
+
+        int[] found = new int[max];
+        int count = 0;
+        for (Field field : fields) {
+            for (int i = field.lowerBound(prefix); i < field.keys.length && count < max; i++) {
+                if (!field.keys[i].startsWith(prefix)) break; // Past the prefix range
+                int slot = field.slots[i];
+                if (!contains(found, count, slot)) {
+                    found[count++] = slot;
+                }
+            }
+            if (count == max) break;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) { // count <= MAX_RESULTS, so a linear scan is cheapest
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface KeySink {
+        void accept(int field, String key, int slot);
+    }
+
+    /** Emits the keys of one book: its title, each later title word, its author and each later author word. */
+    private static void forEachKey(String title, String author, int slot, KeySink sink) {
+        String normalizedTitle = normalize(title);
+        if (!normalizedTitle.isEmpty()) {
+            sink.accept(TITLE, normalizedTitle, slot);
+            for (int i = normalizedTitle.indexOf(' '); i >= 0; i = normalizedTitle.indexOf(' ', i + 1)) {
+                sink.accept(TITLE_WORD, normalizedTitle.substring(i + 1), slot); // Rest of the title from this word
+            }
+        }
+        String normalizedAuthor = normalize(author);
+        if (!normalizedAuthor.isEmpty()) {
+            sink.accept(AUTHOR, normalizedAuthor, slot);
+            for (int i = normalizedAuthor.indexOf(' '); i >= 0; i = normalizedAuthor.indexOf(' ', i + 1)) {
+                sink.accept(AUTHOR, normalizedAuthor.substring(i + 1), slot);
+            }
+        }
+    }
+
+    /**
+     * Lower-cases text and collapses every run of non-letter/digit characters to one
+     * space ("J.R.R.  Tolkien" becomes "j r r tolkien").
+     * @return The normalized text; empty for null or text without letters/digits.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) sb.append(' ');
+                sb.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of recommendation results, keyed by user, catalog version and query.
+ * Entries for a user are dropped when that user's history changes, and all entries
+ * are dropped when the catalog version changes. Nothing else invalidates an entry, so
+ * only pages that depend on nothing else may be stored (see RecommendationStrategy.isCacheable()).
+ * All methods are thread-safe.
+ */
+public final class RecommendationCache {
+
+    /** Cache key: who asked, against which catalog, for which page. */
+    private static final class Key {
+        final int userId;
+        final long catalogVersion;
+        final int k;
+        final int offset;
+        final RecommendationFilter filter;
+        final RecommendationStrategy strategy;
+
+        Key(int userId, long catalogVersion, int k, int offset, RecommendationFilter filter, RecommendationStrategy strategy) {
+            this.userId = userId;
+            this.catalogVersion = catalogVersion;
+            this.k = k;
+            this.offset = offset;
+            this.filter = filter;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return userId == other.userId && catalogVersion == other.catalogVersion
+                    && k == other.k && offset == other.offset && filter.equals(other.filter)
+                    && strategy == other.strategy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, catalogVersion, k, offset, filter, strategy);
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, List<Integer>> entries;
+    private final Map<Integer, Set<Key>> keysByUser = new HashMap<>(); // For per-user invalidation
+
+    // Counters for sizing the cache
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    // Incremented on every invalidation; a page computed before an invalidation is not stored
+    private long epoch;
+
+    /**
+     * @param maxEntries Maximum number of cached result pages before LRU eviction.
+     */
+    public RecommendationCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, List<Integer>>(16, 0.75f, true) { // Access order = LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Integer>> eldest) {
+                if (size() > RecommendationCache.this.maxEntries) {
+                    forgetKey(eldest.getKey());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a cached result page.
+     * @return The cached BookIDs, or null on a miss.
+     */
+    public synchronized List<Integer> get(int userId, long catalogVersion, int k, int offset, RecommendationFilter filter,
+                                          RecommendationStrategy strategy) {
+        List<Integer> cached = entries.get(new Key(userId, catalogVersion, k, offset, filter, strategy));
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    /**
+     * @return The invalidation epoch; read it before computing a page and pass it to put().
+     */
+    public synchronized long currentEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Stores a result page (as an unmodifiable copy), unless an invalidation happened
+     * since the page's inputs were read.
+     * @param epochAtLookup Value of currentEpoch() taken before the page was computed.
+     */
+    public synchronized void put(int userId, long catalogVersion, int k, int offset, RecommendationFilter filter,
+                                 RecommendationStrategy strategy, List<Integer> bookIds, long epochAtLookup) {
+        if (epochAtLookup != epoch) return; // Possibly computed from stale history
+        Key key = new Key(userId, catalogVersion, k, offset, filter, strategy);
+        keysByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(key);
+        entries.put(key, Collections.unmodifiableList(new ArrayList<>(bookIds)));
+    }
+
+    /**
+     * Drops every cached page of one user (called when their history changes).
+     */
+    public synchronized void invalidateUser(int userId) {
+        epoch++;
+        Set<Key> keys = keysByUser.remove(userId);
+        if (keys != null) {
+            for (Key key : keys) {
+                if (entries.remove(key) != null) invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached page (called when the catalog version changes).
+     */
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByUser.clear();
+    }
+
+    private void forgetKey(Key key) {
+        Set<Key> keys = keysByUser.get(key.userId);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) keysByUser.remove(key.userId);
+        }
+    }
+
+    // --- Statistics ---
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return Hits divided by lookups, or 0 if there were no lookups. */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RecommendationCache[size=%d/%d, hits=%d, misses=%d, hitRatio=%.1f%%, evictions=%d, invalidations=%d]",
+                entries.size(), maxEntries, hits, misses, getHitRatio() * 100, evictions, invalidations);
+    }
+}
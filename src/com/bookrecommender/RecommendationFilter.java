@@ -0,0 +1,97 @@
+package com.bookrecommender;
+
+import java.util.Objects;
+
+/**
+ * Optional restrictions applied to recommendation candidates before ranking.
+ * A null genre or year bound means "no restriction" for that field.
+ */
+public final class RecommendationFilter {
+    /** Filter that accepts every candidate. */
+    public static final RecommendationFilter NONE = new RecommendationFilter(null, null, null, false);
+
+    private final String genre;          // Matched case-insensitively, like recommendation scoring
+    private final Integer minYear;       // Inclusive
+    private final Integer maxYear;       // Inclusive
+    private final boolean availableOnly; // Only books with AvailableCopies > 0
+
+    /**
+     * @param genre         Genre the candidate must have, or null for any.
+     * @param minYear       Earliest publication year (inclusive), or null.
+     * @param maxYear       Latest publication year (inclusive), or null.
+     * @param availableOnly true to skip books with no available copies.
+     */
+    public RecommendationFilter(String genre, Integer minYear, Integer maxYear, boolean availableOnly) {
+        this.genre = genre;
+        this.minYear = minYear;
+        this.maxYear = maxYear;
+        this.availableOnly = availableOnly;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    /**
+     * Checks a catalog slot against this filter.
+     * @param books    The catalog the slot belongs to.
+     * @param slot     The candidate's slot.
+     * @param genreKey The filter genre resolved to a normalized key in this catalog
+     *                 (-1 if the filter has no genre; -2 if the genre is unknown).
+     */
+    boolean accepts(BookCatalog books, int slot, int genreKey) {
+        if (genreKey != -1 && books.genreKeyAt(slot) != genreKey) return false;
+        int year = books.yearAt(slot);
+        if (minYear != null && year < minYear) return false;
+        if (maxYear != null && year > maxYear) return false;
+        return !availableOnly || books.availableCopiesAt(slot) > 0;
+    }
+
+    /**
+     * Resolves the filter genre to a key of the given catalog (see accepts()).
+     */
+    int resolveGenreKey(BookCatalog books) {
+        String key = StringDictionary.normalize(genre);
+        if (key == null) return -1;
+        int genreKey = books.genres().lookupKey(key);
+        return genreKey >= 0 ? genreKey : -2; // Unknown genre: nothing can match
+    }
+
+    /** @return true if this filter restricts nothing. */
+    boolean isEmpty() {
+        return StringDictionary.normalize(genre) == null && minYear == null && maxYear == null && !availableOnly;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecommendationFilter)) return false;
+        RecommendationFilter other = (RecommendationFilter) o;
+        return availableOnly == other.availableOnly
+                && Objects.equals(StringDictionary.normalize(genre), StringDictionary.normalize(other.genre))
+                && Objects.equals(minYear, other.minYear)
+                && Objects.equals(maxYear, other.maxYear);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(StringDictionary.normalize(genre), minYear, maxYear, availableOnly);
+    }
+
+    @Override
+    public String toString() {
+        return "genre=" + genre + ", years=" + minYear + ".." + maxYear + ", availableOnly=" + availableOnly;
+    }
+}
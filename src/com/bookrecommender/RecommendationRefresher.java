@@ -0,0 +1,176 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Keeps the materialized user_recommendations table up to date incrementally.
+ * Users are marked dirty when their history changes or when books are added to a
+ * genre/author they have read; a background worker drains the dirty set, recomputes
+ * only those users and replaces their rows. Marking is cheap and never blocks on the database.
+ */
+final class RecommendationRefresher extends BackgroundWorker {
+    private static final int USERS_PER_BATCH = 500;   // Users recomputed per transaction
+    private static final int BOOK_IDS_PER_QUERY = 1_000; // IN-list size when resolving affected users
+    private static final long RETRY_DELAY_MS = 5_000;  // Back-off after a failed batch
+
+    private final int topN;
+    private final Object lock = new Object();
+    private final LinkedHashSet<Integer> dirtyUsers = new LinkedHashSet<>();  // FIFO, no duplicates
+    private final LinkedHashSet<Integer> addedBooks = new LinkedHashSet<>();  // BookIDs whose readers must be found
+    private volatile boolean tableChecked;
+
+    // Refresh totals, reported when the refresher stops
+    private long usersRefreshed;
+    private long batchesWritten;
+
+    RecommendationRefresher(int topN) {
+        super("recommendation-refresher", RETRY_DELAY_MS);
+        this.topN = topN;
+    }
+
+    /** Marks one user's stored recommendations as stale. */
+    void markUserDirty(int userId) {
+        synchronized (lock) {
+            dirtyUsers.add(userId);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Marks every user who has read a book sharing the new book's genre or author.
+     * The affected users are resolved by the worker, not by the caller.
+     */
+    void markBookAdded(int bookId) {
+        synchronized (lock) {
+            addedBooks.add(bookId);
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    void stopped() {
+        synchronized (lock) {
+            System.out.println("Recommendation refresher stopped. Users refreshed: " + usersRefreshed
+                    + " in " + batchesWritten + " batches.");
+        }
+    }
+
+    @Override
+    boolean hasWork() {
+        synchronized (lock) {
+            return !dirtyUsers.isEmpty() || !addedBooks.isEmpty();
+        }
+    }
+
+    @Override
+    void awaitWork() throws InterruptedException {
+        synchronized (lock) {
+            while (isRunning() && dirtyUsers.isEmpty() && addedBooks.isEmpty()) {
+                lock.wait(); // Woken by the mark methods, or interrupted by stop()
+            }
+        }
+    }
+
+    /** Resolves readers of added books, then recomputes one batch of dirty users. */
+    @Override
+    void doWork(Connection conn) throws SQLException {
+        if (!tableChecked) {
+            RecommendationStore.ensureTable(conn);
+            tableChecked = true;
+        }
+        List<Integer> books;
+        synchronized (lock) {
+            books = new ArrayList<>(addedBooks);
+            addedBooks.clear();
+        }
+        List<Integer> batch = new ArrayList<>();
+        try {
+            if (!books.isEmpty()) {
+                markReadersOfSimilarBooks(conn, books);
+                books.clear();
+            }
+            batch = takeDirtyBatch();
+            if (!batch.isEmpty()) {
+                refresh(conn, batch);
+            }
+        } catch (SQLException e) {
+            // Requeue the work for the retry; the table just stays stale meanwhile
+            synchronized (lock) {
+                addedBooks.addAll(books);
+                dirtyUsers.addAll(batch);
+            }
+            throw e;
+        }
+    }
+
+    private List<Integer> takeDirtyBatch() {
+        List<Integer> batch = new ArrayList<>(USERS_PER_BATCH);
+        synchronized (lock) {
+            Iterator<Integer> it = dirtyUsers.iterator();
+            while (it.hasNext() && batch.size() < USERS_PER_BATCH) {
+                batch.add(it.next());
+                it.remove();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Finds users who read any book in the same genre or by the same author as the
+     * added books (via the in-memory posting lists) and marks them dirty.
+     */
+    private void markReadersOfSimilarBooks(Connection conn, List<Integer> addedBookIds) throws SQLException {
+        BookCatalog books = BookRecommendationSystem.getCatalog();
+        IntIntHashMap related = new IntIntHashMap(256, -1);
+        for (int bookId : addedBookIds) {
+            int slot = books.slotOf(bookId);
+            if (slot < 0) continue;
+            for (int other : books.genrePosting(books.genreKeyAt(slot))) related.put(books.bookIdAt(other), 0);
+            for (int other : books.authorPosting(books.authorKeyAt(slot))) related.put(books.bookIdAt(other), 0);
+        }
+        List<Integer> relatedIds = new ArrayList<>(related.size());
+        related.forEach((bookId, unused) -> relatedIds.add(bookId));
+
+        for (int from = 0; from < relatedIds.size(); from += BOOK_IDS_PER_QUERY) {
+            List<Integer> part = relatedIds.subList(from, Math.min(relatedIds.size(), from + BOOK_IDS_PER_QUERY));
+            StringBuilder query = new StringBuilder("SELECT DISTINCT UserID FROM user_book_history WHERE BookID IN (");
+            for (int i = 0; i < part.size(); i++) query.append(i == 0 ? "?" : ",?");
+            query.append(")");
+            try (PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+                for (int i = 0; i < part.size(); i++) pstmt.setInt(i + 1, part.get(i));
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    markUserDirty(rs.getInt("UserID"));
+                }
+            }
+            conn.commit(); // End the read transaction
+        }
+    }
+
+    /** Recomputes and stores the given users in one transaction. */
+    private void refresh(Connection conn, List<Integer> users) throws SQLException {
+        BookCatalog books = BookRecommendationSystem.getCatalog();
+        int[][] ids = new int[users.size()][];
+        double[][] scores = new double[users.size()][];
+        for (int i = 0; i < users.size(); i++) {
+            IntIntHashMap issuedSlots = BookRecommendationSystem.loadHistorySlots(conn, books, users.get(i));
+            TopKCollector topK = BookRecommendationSystem.topByOverlap(books, issuedSlots, topN);
+            ids[i] = new int[topK.size()];
+            scores[i] = new double[topK.size()];
+            topK.drainInto(ids[i], scores[i]);
+        }
+        RecommendationStore.replaceUsers(conn, users, ids, scores, new Timestamp(System.currentTimeMillis()));
+        synchronized (lock) {
+            usersRefreshed += users.size();
+            batchesWritten++;
+        }
+    }
+}
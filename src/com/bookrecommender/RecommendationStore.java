@@ -0,0 +1,125 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data access for the materialized user_recommendations table, shared by the
+ * nightly batch job and the incremental refresher.
+ * Position is the 1-based rank of the book in the user's list; every stored user also
+ * has a marker row at Position 0 (BookID 0), so a user whose list is legitimately empty
+ * can be told apart from one that was never materialized.
+ */
+final class RecommendationStore {
+    static final int MARKER_POSITION = 0;
+
+    private RecommendationStore() {
+    }
+
+    /**
+     * Creates the user_recommendations table if it does not exist yet.
+     */
+    static void ensureTable(Connection conn) throws SQLException {
+        String ddl = "CREATE TABLE IF NOT EXISTS user_recommendations (" +
+                     "UserID INT NOT NULL, " +
+                     "Position INT NOT NULL, " +
+                     "BookID INT NOT NULL, " +
+                     "Score DOUBLE NOT NULL, " +
+                     "GeneratedAt TIMESTAMP NOT NULL, " +
+                     "PRIMARY KEY (UserID, Position))";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(ddl);
+        }
+    }
+
+    /**
+     * Replaces the stored lists of the given users with batched DELETE/INSERT,
+     * committed as one transaction. The connection must have auto-commit disabled.
+     * Each user gets a marker row too, even when their list is empty.
+     *
+     * @param users  UserIDs to replace.
+     * @param ids    Per user, recommended BookIDs best first.
+     * @param scores Per user, the matching scores.
+     * @return Number of recommendation rows inserted (markers not counted).
+     * @throws SQLException If a database error occurs (the transaction is rolled back).
+     */
+    static long replaceUsers(Connection conn, List<Integer> users, int[][] ids, double[][] scores,
+                             Timestamp generatedAt) throws SQLException {
+        long rowsWritten = 0;
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM user_recommendations WHERE UserID = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO user_recommendations (UserID, Position, BookID, Score, GeneratedAt) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < users.size(); i++) {
+                delete.setInt(1, users.get(i));
+                delete.addBatch();
+                insert.setInt(1, users.get(i));
+                insert.setInt(2, MARKER_POSITION);
+                insert.setInt(3, 0);
+                insert.setDouble(4, 0);
+                insert.setTimestamp(5, generatedAt);
+                insert.addBatch();
+                for (int rank = 0; rank < ids[i].length; rank++) {
+                    insert.setInt(1, users.get(i));
+                    insert.setInt(2, rank + 1);
+                    insert.setInt(3, ids[i][rank]);
+                    insert.setDouble(4, scores[i][rank]);
+                    insert.setTimestamp(5, generatedAt);
+                    insert.addBatch();
+                    rowsWritten++;
+                }
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        return rowsWritten;
+    }
+
+    /**
+     * Reads one page of a user's stored recommendations (primary-key range lookup).
+     *
+     * @param userId The user.
+     * @param offset Number of top-ranked rows to skip.
+     * @param limit  Maximum number of rows to return.
+     * @return BookIDs best first; empty if nothing is stored for this page.
+     * @throws SQLException If a database error occurs.
+     */
+    static List<Integer> readPage(Connection conn, int userId, int offset, int limit) throws SQLException {
+        List<Integer> bookIds = new ArrayList<>();
+        String query = "SELECT BookID FROM user_recommendations WHERE UserID = ? AND Position > ? AND Position <= ? ORDER BY Position";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, offset);
+            pstmt.setInt(3, offset + limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                bookIds.add(rs.getInt("BookID"));
+            }
+        }
+        return bookIds;
+    }
+
+    /**
+     * @param userId The user.
+     * @return true if the user's list has been materialized (it may be empty).
+     * @throws SQLException If a database error occurs.
+     */
+    static boolean isMaterialized(Connection conn, int userId) throws SQLException {
+        String query = "SELECT 1 FROM user_recommendations WHERE UserID = ? AND Position = " + MARKER_POSITION;
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
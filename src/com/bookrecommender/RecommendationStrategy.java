@@ -0,0 +1,39 @@
+package com.bookrecommender;
+
+/**
+ * Scoring method used to rank recommendation candidates.
+ */
+public enum RecommendationStrategy {
+    /** +1 per shared genre and +1 per shared author with the issued books. */
+    OVERLAP("Genre/Author Match", true),
+    /** Personalized PageRank (random walks with restart) over the book graph, seeded from the issued books. */
+    GRAPH("Related Books (Graph)", true),
+    /** Item-item collaborative filtering: books co-read by the same users, weighted by cosine similarity. */
+    COLLABORATIVE("Readers Also Borrowed", false),
+    /** Genre -> subgenre -> author tree: same authors first, then popular sibling authors and subgenres. */
+    TAXONOMY("Related Authors & Subgenres", false);
+
+    private final String displayName;
+    private final boolean cacheable;
+
+    RecommendationStrategy(String displayName, boolean cacheable) {
+        this.displayName = displayName;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * @return true if a ranking depends only on the user's history and the catalog version, so
+     *         RecommendationCache may keep it. COLLABORATIVE (co-occurrence weights) and TAXONOMY
+     *         (sibling popularity from issue counts) also depend on every other user's issues,
+     *         which would leave other users' cached pages stale after each issue; they are
+     *         always computed live.
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    @Override
+    public String toString() {
+        return displayName; // Shown in the student dashboard selector
+    }
+}
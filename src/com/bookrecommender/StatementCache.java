@@ -0,0 +1,249 @@
+package com.bookrecommender;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, kept across pool leases.
+ * prepareStatement() on a pooled connection returns a cached statement when the same SQL
+ * (and result set options) was prepared before; its close() closes the result sets it
+ * returned (as closing a statement must), clears the parameters and makes it available again. With server-side prepares enabled on the connection,
+ * a hit also skips the server round-trip of the prepare.
+ *
+ * A connection is used by one borrower at a time, so the cache needs no locking. If the
+ * same SQL is prepared again while the cached statement is still open, an ordinary
+ * (uncached) statement is returned.
+ */
+final class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits, misses, evictions; // Shared pool-wide counters
+    private final LinkedHashMap<Key, Entry> entries;
+
+    StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // Access order for LRU
+    }
+
+    /** SQL plus the prepareStatement() options that change the statement. */
+    private static final class Key {
+        final String sql;
+        final int autoGeneratedKeys, resultSetType, resultSetConcurrency;
+
+        Key(String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && resultSetType == other.resultSetType
+                    && resultSetConcurrency == other.resultSetConcurrency && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys, resultSetType, resultSetConcurrency);
+        }
+    }
+
+    private static final class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted; // Removed from the cache while in use; closed for real on release
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Handles a prepareStatement() call made on the pooled connection.
+     *
+     * @param logical The pooled connection proxy (returned by the statement's getConnection()).
+     * @param args    The prepareStatement() arguments.
+     * @return A (possibly cached) statement; its close() returns it to the cache.
+     * @throws SQLException If preparing fails.
+     */
+    PreparedStatement prepare(Connection logical, Object[] args) throws SQLException {
+        Key key = keyOf(args);
+        if (key == null) {
+            return prepareUncached(args); // Column-index/name variants are rare; not cached
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+            entry.inUse = true;
+            return logicalStatement(logical, entry);
+        }
+        misses.incrementAndGet();
+        PreparedStatement statement = prepareUncached(args);
+        if (entry != null) {
+            return statement; // Same SQL already open (nested use); the caller closes this one for real
+        }
+        entry = new Entry(statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        evictIfFull();
+        return logicalStatement(logical, entry);
+    }
+
+    /**
+     * Called when the connection goes back to the pool: statements the borrower left open
+     * are closed for real and dropped, so they can't be shared with the next borrower.
+     */
+    void closeLeftOpen() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.inUse) {
+                it.remove();
+                entry.evicted = true;
+                closeQuietly(entry.statement);
+            }
+        }
+    }
+
+    /** Closes every cached statement (the connection is being discarded). */
+    void closeAll() {
+        for (Entry entry : entries.values()) {
+            closeQuietly(entry.statement);
+        }
+        entries.clear();
+    }
+
+    private void evictIfFull() {
+        Iterator<Map.Entry<Key, Entry>> eldestFirst = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldestFirst.hasNext()) {
+            Entry eldest = eldestFirst.next().getValue();
+            eldestFirst.remove();
+            evictions.incrementAndGet();
+            if (eldest.inUse) {
+                eldest.evicted = true;
+            } else {
+                closeQuietly(eldest.statement);
+            }
+        }
+    }
+
+    private static Key keyOf(Object[] args) {
+        String sql = (String) args[0];
+        switch (args.length) {
+            case 1:
+                return new Key(sql, -1, -1, -1);
+            case 2:
+                return args[1] instanceof Integer ? new Key(sql, (Integer) args[1], -1, -1) : null;
+            case 3:
+                return new Key(sql, -1, (Integer) args[1], (Integer) args[2]);
+            default:
+                return null;
+        }
+    }
+
+    private PreparedStatement prepareUncached(Object[] args) throws SQLException {
+        switch (args.length) {
+            case 1:
+                return physical.prepareStatement((String) args[0]);
+            case 2:
+                if (args[1] instanceof Integer) return physical.prepareStatement((String) args[0], (Integer) args[1]);
+                if (args[1] instanceof int[]) return physical.prepareStatement((String) args[0], (int[]) args[1]);
+                return physical.prepareStatement((String) args[0], (String[]) args[1]);
+            case 3:
+                return physical.prepareStatement((String) args[0], (Integer) args[1], (Integer) args[2]);
+            default:
+                return physical.prepareStatement((String) args[0], (Integer) args[1], (Integer) args[2], (Integer) args[3]);
+        }
+    }
+
+    /** One hand-out of a cached statement; stale references fail once it has been closed. */
+    private static PreparedStatement logicalStatement(Connection logical, Entry entry) {
+        boolean[] closed = {false};
+        List<ResultSet> results = new ArrayList<>(2); // Returned by this hand-out; closed with it
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, methodArgs) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                release(entry, results);
+                            }
+                            return null;
+                        case "isClosed":
+                            return closed[0];
+                        case "getConnection":
+                            return logical;
+                        case "equals":
+                            return proxy == methodArgs[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (closed[0]) {
+                        throw new SQLException("Statement is closed.");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(entry.statement, methodArgs);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet) track(results, (ResultSet) result); // executeQuery, getGeneratedKeys, ...
+                    return result;
+                });
+    }
+
+    /** Remembers a result set, dropping ones already closed so a statement reused in a loop doesn't grow the list. */
+    private static void track(List<ResultSet> results, ResultSet rs) throws SQLException {
+        Iterator<ResultSet> it = results.iterator();
+        while (it.hasNext()) {
+            if (it.next().isClosed()) it.remove();
+        }
+        results.add(rs);
+    }
+
+    private static void release(Entry entry, List<ResultSet> results) throws SQLException {
+        entry.inUse = false;
+        if (entry.evicted) {
+            entry.statement.close(); // Closes its result sets too
+            return;
+        }
+        try {
+            for (ResultSet rs : results) {
+                rs.close(); // The statement stays open, so its rows would outlive the borrower
+            }
+        } finally {
+            results.clear();
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
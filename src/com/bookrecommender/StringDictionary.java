@@ -0,0 +1,103 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for low-cardinality catalog columns (author, genre).
+ * Each distinct raw value is stored once and referenced by an int code.
+ * Every code also maps to a "key" code: the code of its normalized form
+ * (trimmed, lower-cased), which is what recommendations match on.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> codeByValue = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] keyByCode = new int[16];
+
+    private final Map<String, Integer> keyCodeByKey = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+
+    StringDictionary() {
+    }
+
+    /** Copy constructor, used for copy-on-write catalog updates. */
+    StringDictionary(StringDictionary other) {
+        codeByValue.putAll(other.codeByValue);
+        values.addAll(other.values);
+        keyByCode = other.keyByCode.clone();
+        keyCodeByKey.putAll(other.keyCodeByKey);
+        keys.addAll(other.keys);
+    }
+
+    /**
+     * Normalizes a genre or author for case-insensitive matching.
+     * @param value The raw value as stored in the database.
+     * @return The trimmed, lower-cased value, or null if the value is null or blank.
+     */
+    static String normalize(String value) {
+        if (value == null) return null;
+        String normalized = value.trim().toLowerCase();
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Returns the code for a raw value, adding it if it is new.
+     * @return The code, or -1 for a null value.
+     */
+    int encode(String value) {
+        if (value == null) return -1;
+        Integer existing = codeByValue.get(value);
+        if (existing != null) return existing;
+
+        int code = values.size();
+        values.add(value);
+        codeByValue.put(value, code);
+        if (code == keyByCode.length) {
+            keyByCode = Arrays.copyOf(keyByCode, code * 2);
+        }
+        String key = normalize(value);
+        int keyCode = -1;
+        if (key != null) {
+            keyCode = keyCodeByKey.computeIfAbsent(key, k -> {
+                keys.add(k);
+                return keys.size() - 1;
+            });
+        }
+        keyByCode[code] = keyCode;
+        return code;
+    }
+
+    /** @return The raw value for a code, or null for -1. */
+    String decode(int code) {
+        return code < 0 ? null : values.get(code);
+    }
+
+    /** @return The normalized key code for a value code, or -1 if the value is null/blank. */
+    int keyOf(int code) {
+        return code < 0 ? -1 : keyByCode[code];
+    }
+
+    /** @return The key code of an already-normalized key, or -1 if unknown. */
+    int lookupKey(String normalizedKey) {
+        Integer keyCode = normalizedKey == null ? null : keyCodeByKey.get(normalizedKey);
+        return keyCode == null ? -1 : keyCode;
+    }
+
+    /** @return The normalized key string for a key code. */
+    String keyString(int keyCode) {
+        return keys.get(keyCode);
+    }
+
+    /** @return Number of distinct normalized keys. */
+    int keyCount() {
+        return keys.size();
+    }
+
+    /** @return Number of distinct raw values. */
+    int size() {
+        return values.size();
+    }
+}
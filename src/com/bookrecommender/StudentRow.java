@@ -0,0 +1,19 @@
+package com.bookrecommender;
+
+/**
+ * One student account as listed for admins (see Admin.getStudentsPage).
+ * Rows are ordered by userId, which is also the page position.
+ */
+public final class StudentRow {
+    public final int userId;
+    public final String username;
+    public final String name;
+    public final String email;
+
+    StudentRow(int userId, String username, String name, String email) {
+        this.userId = userId;
+        this.username = username;
+        this.name = name;
+        this.email = email;
+    }
+}
@@ -0,0 +1,277 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Genre -> subgenre -> author tree over the catalog, with aggregates kept per node:
+ * number of books, available copies and times issued (each node sums its subtree).
+ * <p>
+ * The books table has a single Genre column, so the subgenre is taken from the genre
+ * text itself: "Fantasy / Epic", "Fantasy > Epic", "Fantasy: Epic" and "Fantasy - Epic"
+ * all give genre "Fantasy" and subgenre "Epic"; a plain "Fantasy" goes to the
+ * DEFAULT_SUBGENRE node. Nodes are matched case-insensitively (display names keep
+ * the first spelling seen).
+ * <p>
+ * Unlike the catalog snapshot, the tree is updated in place (books added, issues
+ * and copy changes counted), so every public method is synchronized on the tree.
+ */
+final class TaxonomyTree {
+    static final String DEFAULT_SUBGENRE = "General";
+    static final String UNKNOWN = "Unknown";
+
+    // Candidate expansion: how many sibling nodes to try, and what a match at each level is worth
+    private static final int SIBLING_FANOUT = 5;
+    private static final int AUTHOR_WEIGHT = 4;   // Same author (and subgenre) as a read book
+    private static final int SUBGENRE_WEIGHT = 2; // Sibling author in a read subgenre
+    private static final int GENRE_WEIGHT = 1;    // Popular author in a sibling subgenre of a read genre
+
+    private static final Pattern SUBGENRE_SEPARATOR = Pattern.compile("\\s*(?:/|>|:|\\s-\\s)\\s*");
+
+    private final Node root = new Node("All Books", null);
+    private final Map<Integer, Node> leafByBookId = new HashMap<>();
+
+    /** One level of the tree; leaves (authors) also list their BookIDs. */
+    private static final class Node {
+        final String name;
+        final Node parent;
+        final Map<String, Node> children = new LinkedHashMap<>(); // Normalized name -> child
+        int[] bookIds = new int[2]; // Leaves only; the first bookIdCount entries are used
+        int bookIdCount;
+        int bookCount;
+        long availableCopies;
+        long issueCount;
+
+        Node(String name, Node parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        Node child(String displayName) {
+            return children.computeIfAbsent(key(displayName), k -> new Node(displayName, this));
+        }
+
+        void addBookId(int bookId) {
+            if (bookIdCount == bookIds.length) bookIds = Arrays.copyOf(bookIds, bookIdCount * 2);
+            bookIds[bookIdCount++] = bookId;
+        }
+    }
+
+    /** @return The case-insensitive child key of a name (locale-independent, like the catalog's keys). */
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /** Read-only aggregates of one node, as returned by the browse queries. */
+    static final class Stats {
+        final String name;
+        final int bookCount;
+        final long availableCopies;
+        final long issueCount;
+
+        Stats(String name, int bookCount, long availableCopies, long issueCount) {
+            this.name = name;
+            this.bookCount = bookCount;
+            this.availableCopies = availableCopies;
+            this.issueCount = issueCount;
+        }
+    }
+
+    /**
+     * Builds the tree for every book in a catalog.
+     * @param catalog     The catalog.
+     * @param issueCounts BookID -> number of times issued (missing means 0).
+     * @return The new tree.
+     */
+    static TaxonomyTree build(BookCatalog catalog, IntIntHashMap issueCounts) {
+        TaxonomyTree tree = new TaxonomyTree();
+        for (int slot = 0; slot < catalog.size(); slot++) {
+            int bookId = catalog.bookIdAt(slot);
+            tree.addBook(bookId, catalog.genreAt(slot), catalog.authorAt(slot), catalog.availableCopiesAt(slot));
+            int issued = issueCounts.get(bookId);
+            if (issued > 0) tree.addToPath(tree.leafByBookId.get(bookId), 0, 0, issued);
+        }
+        return tree;
+    }
+
+    /**
+     * Splits a raw genre into {genre, subgenre}.
+     * @param rawGenre Genre as stored (e.g. "Fantasy / Epic").
+     * @return Display names for both levels; blank parts become UNKNOWN / DEFAULT_SUBGENRE.
+     */
+    static String[] splitGenre(String rawGenre) {
+        if (rawGenre == null || rawGenre.trim().isEmpty()) {
+            return new String[]{UNKNOWN, DEFAULT_SUBGENRE};
+        }
+        String[] parts = SUBGENRE_SEPARATOR.split(rawGenre.trim(), 2);
+        String genre = parts[0].trim().isEmpty() ? UNKNOWN : parts[0].trim();
+        String subgenre = parts.length < 2 || parts[1].trim().isEmpty() ? DEFAULT_SUBGENRE : parts[1].trim();
+        return new String[]{genre, subgenre};
+    }
+
+    /**
+     * Adds one book under its genre, subgenre and author, creating nodes as needed.
+     * A BookID already in the tree is ignored.
+     */
+    synchronized void addBook(int bookId, String rawGenre, String author, int availableCopies) {
+        if (leafByBookId.containsKey(bookId)) return;
+        String[] genrePath = splitGenre(rawGenre);
+        String authorName = author == null || author.trim().isEmpty() ? UNKNOWN : author.trim();
+        Node leaf = root.child(genrePath[0]).child(genrePath[1]).child(authorName);
+        leaf.addBookId(bookId);
+        leafByBookId.put(bookId, leaf);
+        addToPath(leaf, 1, availableCopies, 0);
+    }
+
+    /** Counts one issue of a book on every node above it. */
+    synchronized void recordIssue(int bookId) {
+        Node leaf = leafByBookId.get(bookId);
+        if (leaf != null) addToPath(leaf, 0, 0, 1);
+    }
+
+    /** Mirrors a change in a book's available copies (issue or return). */
+    synchronized void adjustAvailableCopies(int bookId, int delta) {
+        Node leaf = leafByBookId.get(bookId);
+        if (leaf != null) addToPath(leaf, 0, delta, 0);
+    }
+
+    private void addToPath(Node leaf, int books, long copies, long issues) {
+        for (Node node = leaf; node != null; node = node.parent) {
+            node.bookCount += books;
+            node.availableCopies += copies;
+            node.issueCount += issues;
+        }
+    }
+
+    /** @return Aggregates for the whole catalog. */
+    synchronized Stats totals() {
+        return stats(root);
+    }
+
+    /**
+     * Lists the children of a node, most issued first (then most books, then name).
+     * @param genre    null for the list of genres.
+     * @param subgenre null for the subgenres of the genre; otherwise lists its authors.
+     * @return The children's aggregates; empty if the path doesn't exist.
+     */
+    synchronized List<Stats> children(String genre, String subgenre) {
+        Node node = root;
+        if (genre != null) node = node.children.get(key(genre.trim()));
+        if (node != null && subgenre != null) node = node.children.get(key(subgenre.trim()));
+        List<Stats> result = new ArrayList<>();
+        if (node == null) return result;
+        for (Node child : node.children.values()) {
+            result.add(stats(child));
+        }
+        result.sort(TaxonomyTree::byPopularity);
+        return result;
+    }
+
+    /**
+     * Top authors of a genre across all of its subgenres (an author listed under
+     * several subgenres is counted once, with the aggregates summed).
+     * @param genre Genre name (case-insensitive).
+     * @param limit Maximum number of authors.
+     * @return Authors, most issued first; empty if the genre doesn't exist.
+     */
+    synchronized List<Stats> topAuthors(String genre, int limit) {
+        Node genreNode = genre == null ? null : root.children.get(key(genre.trim()));
+        List<Stats> result = new ArrayList<>();
+        if (genreNode == null) return result;
+        Map<String, long[]> totals = new LinkedHashMap<>(); // Author key -> {books, copies, issues}
+        Map<String, String> displayNames = new HashMap<>();
+        for (Node subgenre : genreNode.children.values()) {
+            for (Map.Entry<String, Node> author : subgenre.children.entrySet()) {
+                long[] sums = totals.computeIfAbsent(author.getKey(), k -> new long[3]);
+                sums[0] += author.getValue().bookCount;
+                sums[1] += author.getValue().availableCopies;
+                sums[2] += author.getValue().issueCount;
+                displayNames.putIfAbsent(author.getKey(), author.getValue().name);
+            }
+        }
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            long[] sums = entry.getValue();
+            result.add(new Stats(displayNames.get(entry.getKey()), (int) sums[0], sums[1], sums[2]));
+        }
+        result.sort(TaxonomyTree::byPopularity);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Scores recommendation candidates by expanding from the user's nodes to their siblings:
+     * books by the same authors (AUTHOR_WEIGHT), books by the most issued sibling authors in
+     * the same subgenres (SUBGENRE_WEIGHT), and books by the top authors of the most issued
+     * sibling subgenres (GENRE_WEIGHT). Each weight is multiplied by the number of the
+     * user's books under the shared node. Issued books are excluded.
+     *
+     * @param books       The catalog to resolve BookIDs to slots.
+     * @param issuedSlots The user's issued books as catalog slots.
+     * @return Map from candidate slot to score.
+     */
+    synchronized IntIntHashMap scoreCandidates(BookCatalog books, IntIntHashMap issuedSlots) {
+        // How many of the user's books sit under each node
+        Map<Node, Integer> userLeaves = new LinkedHashMap<>();
+        Map<Node, Integer> userSubgenres = new LinkedHashMap<>();
+        Map<Node, Integer> userGenres = new LinkedHashMap<>();
+        issuedSlots.forEach((slot, unused) -> {
+            Node leaf = leafByBookId.get(books.bookIdAt(slot));
+            if (leaf == null) return;
+            userLeaves.merge(leaf, 1, Integer::sum);
+            userSubgenres.merge(leaf.parent, 1, Integer::sum);
+            userGenres.merge(leaf.parent.parent, 1, Integer::sum);
+        });
+
+        IntIntHashMap scores = new IntIntHashMap(64, 0);
+        for (Map.Entry<Node, Integer> leaf : userLeaves.entrySet()) {
+            addBooks(leaf.getKey(), AUTHOR_WEIGHT * leaf.getValue(), books, issuedSlots, scores);
+        }
+        for (Map.Entry<Node, Integer> subgenre : userSubgenres.entrySet()) {
+            for (Node sibling : topChildren(subgenre.getKey(), userLeaves)) {
+                addBooks(sibling, SUBGENRE_WEIGHT * subgenre.getValue(), books, issuedSlots, scores);
+            }
+        }
+        for (Map.Entry<Node, Integer> genre : userGenres.entrySet()) {
+            for (Node siblingSubgenre : topChildren(genre.getKey(), userSubgenres)) {
+                for (Node author : topChildren(siblingSubgenre, userLeaves)) {
+                    addBooks(author, GENRE_WEIGHT * genre.getValue(), books, issuedSlots, scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /** @return Up to SIBLING_FANOUT children of parent not in 'exclude', most issued first. */
+    private static List<Node> topChildren(Node parent, Map<Node, Integer> exclude) {
+        List<Node> candidates = new ArrayList<>();
+        for (Node child : parent.children.values()) {
+            if (!exclude.containsKey(child)) candidates.add(child);
+        }
+        candidates.sort((a, b) -> byPopularity(stats(a), stats(b)));
+        return candidates.size() > SIBLING_FANOUT ? candidates.subList(0, SIBLING_FANOUT) : candidates;
+    }
+
+    private static void addBooks(Node leaf, int score, BookCatalog books, IntIntHashMap issuedSlots, IntIntHashMap scores) {
+        for (int i = 0; i < leaf.bookIdCount; i++) {
+            int slot = books.slotOf(leaf.bookIds[i]);
+            if (slot >= 0 && !issuedSlots.containsKey(slot)) {
+                scores.addTo(slot, score);
+            }
+        }
+    }
+
+    private static Stats stats(Node node) {
+        return new Stats(node.name, node.bookCount, node.availableCopies, node.issueCount);
+    }
+
+    private static int byPopularity(Stats a, Stats b) {
+        if (a.issueCount != b.issueCount) return Long.compare(b.issueCount, a.issueCount);
+        if (a.bookCount != b.bookCount) return Integer.compare(b.bookCount, a.bookCount);
+        return a.name.compareToIgnoreCase(b.name);
+    }
+}
@@ -0,0 +1,381 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory inverted index for ranked keyword search over title, author and genre.
+ * <ul>
+ *   <li>Tokens are the words of PrefixIndex.normalize() (lower-cased letters/digits).</li>
+ *   <li>Each book is one document, identified by its catalog slot. Field matches are
+ *       weighted (a title word counts TITLE_WEIGHT times, and so on) and scored with BM25.</li>
+ *   <li>Postings are compressed: (slot gap, weighted tf) pairs as varints, with a skip
+ *       entry every SKIP_INTERVAL postings so cursors can jump forward.</li>
+ *   <li>Queries use MaxScore: terms whose combined score bound can no longer lift a
+ *       book into the current top k are only probed for books found through the others.</li>
+ * </ul>
+ * Like BookCatalog, an index is immutable; {@link #withBook} adds one book copy-on-write.
+ * New slots are always the highest, so their postings are appended to the existing lists.
+ */
+final class TextSearchIndex {
+    static final int MAX_RESULTS = 100;
+
+    private static final int TITLE_WEIGHT = 3, AUTHOR_WEIGHT = 2, GENRE_WEIGHT = 1;
+    private static final double K1 = 1.2, B = 0.75; // Standard BM25 parameters
+    private static final int SKIP_INTERVAL = 64;    // Postings per skip block
+
+    private final Map<String, Postings> postingsByTerm;
+    private final int[] docLengths; // slot -> weighted token count
+    private final int docCount;
+    private final long totalLength;
+
+    private TextSearchIndex(Map<String, Postings> postingsByTerm, int[] docLengths, int docCount, long totalLength) {
+        this.postingsByTerm = postingsByTerm;
+        this.docLengths = docLengths;
+        this.docCount = docCount;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * Builds the index over every slot of a catalog.
+     * @param catalog The catalog whose slots the index refers to.
+     * @return The new index.
+     */
+    static TextSearchIndex build(BookCatalog catalog) {
+        int size = catalog.size();
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        int[] docLengths = new int[size];
+        long totalLength = 0;
+        for (int slot = 0; slot < size; slot++) {
+            Map<String, Integer> termFrequencies = termFrequencies(catalog, slot);
+            int length = 0;
+            for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+                length += term.getValue();
+            }
+            docLengths[slot] = length;
+            totalLength += length;
+            for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+                builders.computeIfAbsent(term.getKey(), t -> new PostingsBuilder()).add(slot, term.getValue(), length);
+            }
+        }
+        Map<String, Postings> postingsByTerm = new HashMap<>(builders.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PostingsBuilder> entry : builders.entrySet()) {
+            postingsByTerm.put(entry.getKey(), entry.getValue().build());
+        }
+        return new TextSearchIndex(postingsByTerm, docLengths, size, totalLength);
+    }
+
+    /**
+     * Returns a new index that also covers one added slot (see BookCatalog.withBook).
+     * The term map and the new book's posting lists are copied; other lists are shared.
+     *
+     * @param catalog The catalog that already contains the slot.
+     * @param slot    The new slot (must be bookCount()).
+     * @return The new index; this one is unchanged.
+     */
+    TextSearchIndex withBook(BookCatalog catalog, int slot) {
+        if (slot != docCount) {
+            throw new IllegalArgumentException("Expected slot " + docCount + " but got " + slot + ".");
+        }
+        Map<String, Integer> termFrequencies = termFrequencies(catalog, slot);
+        int length = 0;
+        for (int tf : termFrequencies.values()) {
+            length += tf;
+        }
+        Map<String, Postings> updated = new HashMap<>(postingsByTerm);
+        for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+            Postings existing = updated.get(term.getKey());
+            PostingsBuilder builder = existing == null ? new PostingsBuilder() : new PostingsBuilder(existing);
+            updated.put(term.getKey(), builder.add(slot, term.getValue(), length).build());
+        }
+        int[] newLengths = Arrays.copyOf(docLengths, docCount + 1);
+        newLengths[slot] = length;
+        return new TextSearchIndex(updated, newLengths, docCount + 1, totalLength + length);
+    }
+
+    /** @return Number of catalog slots covered (equals the catalog size it was built for). */
+    int bookCount() {
+        return docCount;
+    }
+
+    /** @return Number of distinct terms. */
+    int termCount() {
+        return postingsByTerm.size();
+    }
+
+    /**
+     * Ranks books by BM25 relevance to the query words.
+     * A book needs to contain at least one query word; more (and rarer) words rank higher.
+     *
+     * @param query Free text; split into words the same way as the indexed fields.
+     * @param limit Maximum number of results (capped at MAX_RESULTS).
+     * @return Matching slots, most relevant first (ties by slot).
+     */
+    int[] search(String query, int limit) {
+        int k = Math.min(limit, MAX_RESULTS);
+        if (k <= 0 || docCount == 0) return new int[0];
+
+        // One cursor per distinct query term that occurs in the index
+        List<Cursor> cursors = new ArrayList<>();
+        double avgLength = Math.max(1.0, (double) totalLength / docCount);
+        for (String term : tokenize(query)) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                cursors.add(new Cursor(postings, idf(postings.docFrequency), avgLength));
+            }
+        }
+        if (cursors.isEmpty()) return new int[0];
+
+        // MaxScore: order by score bound; the terms before 'firstEssential' are non-essential
+        // (even all of them together can't beat the threshold, so they never start a candidate)
+        cursors.sort((a, b) -> Double.compare(a.upperBound, b.upperBound));
+        int n = cursors.size();
+        double[] boundPrefix = new double[n]; // boundPrefix[i] = sum of bounds of cursors 0..i
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += cursors.get(i).upperBound;
+            boundPrefix[i] = sum;
+        }
+
+        TopKCollector topK = new TopKCollector(k);
+        double threshold = 0; // Scores are positive; a candidate must beat the worst kept one once full
+        int firstEssential = 0;
+        while (true) {
+            // Next candidate: the smallest current slot among the essential cursors
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, cursors.get(i).doc);
+            }
+            if (doc == Integer.MAX_VALUE) break; // Essential lists exhausted
+
+            double score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.doc == doc) {
+                    score += cursor.score(docLengths[doc]);
+                    cursor.next();
+                }
+            }
+            // Probe non-essential lists, strongest first, while the book can still make it
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (topK.isFull() && score + boundPrefix[i] < threshold) break;
+                Cursor cursor = cursors.get(i);
+                cursor.advance(doc);
+                if (cursor.doc == doc) {
+                    score += cursor.score(docLengths[doc]);
+                }
+            }
+
+            topK.offer(doc, score);
+            if (topK.isFull() && topK.threshold() > threshold) {
+                threshold = topK.threshold();
+                while (firstEssential < n && boundPrefix[firstEssential] < threshold) {
+                    firstEssential++; // This list alone (plus weaker ones) can no longer place a book
+                }
+            }
+        }
+        int[] slots = new int[topK.size()];
+        topK.drainInto(slots, null);
+        return slots;
+    }
+
+    private double idf(int docFrequency) {
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    /** @return Distinct words of the text, in order of first appearance. */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = PrefixIndex.normalize(text);
+        if (normalized.isEmpty()) return tokens;
+        for (String token : normalized.split(" ")) {
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /** Weighted term frequencies of one book over its title, author and genre. */
+    private static Map<String, Integer> termFrequencies(BookCatalog catalog, int slot) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, catalog.titleAt(slot), TITLE_WEIGHT);
+        addField(frequencies, catalog.authorAt(slot), AUTHOR_WEIGHT);
+        addField(frequencies, catalog.genreAt(slot), GENRE_WEIGHT);
+        return frequencies;
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String value, int weight) {
+        String normalized = PrefixIndex.normalize(value);
+        if (normalized.isEmpty()) return;
+        for (String token : normalized.split(" ")) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * One term's compressed posting list plus the statistics needed for its score bound.
+     * data holds varint (slot gap, tf) pairs; skipSlots[j] / skipOffsets[j] give the last
+     * slot before block j and the byte offset where block j starts.
+     */
+    private static final class Postings {
+        final byte[] data;
+        final int length;      // Bytes used in data
+        final int docFrequency;
+        final int lastSlot;
+        final int maxTf;       // Largest weighted tf in the list
+        final int minDocLength; // Shortest document in the list
+        final int[] skipSlots;
+        final int[] skipOffsets;
+
+        Postings(byte[] data, int length, int docFrequency, int lastSlot, int maxTf, int minDocLength,
+                 int[] skipSlots, int[] skipOffsets) {
+            this.data = data;
+            this.length = length;
+            this.docFrequency = docFrequency;
+            this.lastSlot = lastSlot;
+            this.maxTf = maxTf;
+            this.minDocLength = minDocLength;
+            this.skipSlots = skipSlots;
+            this.skipOffsets = skipOffsets;
+        }
+    }
+
+    /** Appends postings in ascending slot order. */
+    private static final class PostingsBuilder {
+        private byte[] data;
+        private int length;
+        private int docFrequency;
+        private int lastSlot = -1;
+        private int maxTf;
+        private int minDocLength = Integer.MAX_VALUE;
+        private int[] skipSlots;
+        private int[] skipOffsets;
+
+        PostingsBuilder() {
+            data = new byte[8];
+            skipSlots = new int[1];
+            skipOffsets = new int[1];
+        }
+
+        /** Continues an existing list (the arrays are copied, not shared). */
+        PostingsBuilder(Postings existing) {
+            data = Arrays.copyOf(existing.data, existing.length + 8);
+            length = existing.length;
+            docFrequency = existing.docFrequency;
+            lastSlot = existing.lastSlot;
+            maxTf = existing.maxTf;
+            minDocLength = existing.minDocLength;
+            skipSlots = Arrays.copyOf(existing.skipSlots, existing.skipSlots.length + 1);
+            skipOffsets = Arrays.copyOf(existing.skipOffsets, existing.skipOffsets.length + 1);
+        }
+
+        PostingsBuilder add(int slot, int tf, int docLength) {
+            if (docFrequency % SKIP_INTERVAL == 0) {
+                int block = docFrequency / SKIP_INTERVAL;
+                if (block == skipSlots.length) {
+                    skipSlots = Arrays.copyOf(skipSlots, block * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+                }
+                skipSlots[block] = lastSlot; // Gap base for the block's first posting
+                skipOffsets[block] = length;
+            }
+            writeVarint(slot - lastSlot);
+            writeVarint(tf);
+            lastSlot = slot;
+            docFrequency++;
+            maxTf = Math.max(maxTf, tf);
+            minDocLength = Math.min(minDocLength, docLength);
+            return this;
+        }
+
+        private void writeVarint(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        Postings build() {
+            int blocks = (docFrequency + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+            return new Postings(Arrays.copyOf(data, length), length, docFrequency, lastSlot, maxTf, minDocLength,
+                    Arrays.copyOf(skipSlots, blocks), Arrays.copyOf(skipOffsets, blocks));
+        }
+    }
+
+    /** Forward-only decoder over one posting list, positioned on 'doc' (MAX_VALUE when exhausted). */
+    private static final class Cursor {
+        final Postings postings;
+        final double idf;
+        final double avgLength;
+        final double upperBound; // No book can get more than this from this term
+        int doc = -1;
+        int tf;
+        private int offset;
+        private int index; // Postings decoded so far
+
+        Cursor(Postings postings, double idf, double avgLength) {
+            this.postings = postings;
+            this.idf = idf;
+            this.avgLength = avgLength;
+            // BM25 grows with tf and shrinks with document length, so the extreme values bound it
+            this.upperBound = bm25(postings.maxTf, postings.minDocLength);
+            next();
+        }
+
+        double score(int docLength) {
+            return bm25(tf, docLength);
+        }
+
+        private double bm25(int termFrequency, int docLength) {
+            double norm = K1 * (1 - B + B * docLength / avgLength);
+            return idf * termFrequency * (K1 + 1) / (termFrequency + norm);
+        }
+
+        /** Moves to the next posting. */
+        void next() {
+            if (index == postings.docFrequency) {
+                doc = Integer.MAX_VALUE;
+                return;
+            }
+            doc += readVarint(); // Gaps start from -1, so the first gap is slot + 1
+            tf = readVarint();
+            index++;
+        }
+
+        /** Moves to the first posting with slot &gt;= target, skipping whole blocks where possible. */
+        void advance(int target) {
+            if (doc >= target) return;
+            int block = index / SKIP_INTERVAL + 1; // Next block start
+            int[] skipSlots = postings.skipSlots;
+            if (block < skipSlots.length && skipSlots[block] < target) {
+                while (block + 1 < skipSlots.length && skipSlots[block + 1] < target) {
+                    block++;
+                }
+                offset = postings.skipOffsets[block];
+                doc = skipSlots[block]; // Last slot of the previous block = gap base
+                index = block * SKIP_INTERVAL;
+            }
+            while (doc < target) {
+                next();
+            }
+        }
+
+        private int readVarint() {
+            byte[] data = postings.data;
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+}
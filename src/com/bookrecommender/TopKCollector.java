@@ -0,0 +1,121 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded min-heap that keeps the best N (BookID, score) pairs seen so far.
+ * Ranking is by score descending, ties broken by BookID ascending, so the
+ * order is deterministic and pages cut from it are stable between calls.
+ * Offering n candidates costs O(n log N) and never sorts the full set.
+ */
+final class TopKCollector {
+    private final int capacity;
+    private final int[] ids;
+    private final double[] scores;
+    private int size;
+
+    /**
+     * @param capacity Number of results to keep (offset + page size for paged queries).
+     */
+    TopKCollector(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.ids = new int[this.capacity];
+        this.scores = new double[this.capacity];
+    }
+
+    /** @return true if (idA, scoreA) ranks strictly worse than (idB, scoreB). */
+    private static boolean worse(double scoreA, int idA, double scoreB, int idB) {
+        return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+    }
+
+    /**
+     * Offers a candidate; it is kept only if it beats the current worst entry.
+     */
+    void offer(int id, double score) {
+        if (capacity == 0) return;
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (worse(scores[0], ids[0], score, id)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /** @return true once the heap is full (threshold() is then meaningful). */
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    /** @return Score of the worst kept entry; a new candidate must beat it to enter. */
+    double threshold() {
+        return size == 0 ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(scores[i], ids[i], scores[parent], ids[parent])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int right = left + 1;
+            int worst = (right < size && worse(scores[right], ids[right], scores[left], ids[left])) ? right : left;
+            if (!worse(scores[worst], ids[worst], scores[i], ids[i])) break;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        double score = scores[a]; scores[a] = scores[b]; scores[b] = score;
+    }
+
+    /**
+     * Drains the heap into best-first order. The collector is empty afterwards.
+     * @param outIds    Receives the IDs (length >= size()).
+     * @param outScores Receives the matching scores (length >= size()), or null if not needed.
+     * @return Number of entries written.
+     */
+    int drainInto(int[] outIds, double[] outScores) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) { // Pop worst first, fill from the back
+            outIds[i] = ids[0];
+            if (outScores != null) outScores[i] = scores[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return count;
+    }
+
+    /**
+     * Drains the heap into best-first order and returns the IDs from offset on.
+     * The collector is empty afterwards.
+     * @param offset Number of leading (best) results to skip.
+     */
+    List<Integer> drainIds(int offset) {
+        int[] orderedIds = new int[size];
+        int count = drainInto(orderedIds, null);
+        List<Integer> result = new ArrayList<>(Math.max(0, count - offset));
+        for (int i = Math.max(0, offset); i < count; i++) {
+            result.add(orderedIds[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Streams user_book_history in one ordered scan and hands it out grouped per user.
+ * Rows are read through a streaming result set, so memory use is bounded by the
+ * largest single user history rather than by the table size.
+ * The connection can't run other statements until the scan finishes (MySQL streaming
+ * rule), so callers that write while scanning must use a second connection.
+ */
+final class UserHistoryScanner {
+
+    /** Receives one user's distinct BookIDs (sorted ascending). */
+    @FunctionalInterface
+    interface HistoryConsumer {
+        void accept(int userId, int[] bookIds) throws SQLException;
+    }
+
+    private UserHistoryScanner() {
+    }
+
+    /**
+     * Scans the whole history table ordered by UserID.
+     * @param conn     A connection dedicated to the scan for its duration.
+     * @param consumer Called once per user, in ascending UserID order.
+     * @return Number of history rows read.
+     * @throws SQLException If a database access error occurs (or the consumer throws one).
+     */
+    static long scanAll(Connection conn, HistoryConsumer consumer) throws SQLException {
+        String query = "SELECT UserID, BookID FROM user_book_history ORDER BY UserID";
+        long rows = 0;
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE); // Connector/J: stream rows instead of buffering the result
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                int currentUser = 0;
+                boolean haveUser = false;
+                int[] books = new int[16];
+                int count = 0;
+                while (rs.next()) {
+                    rows++;
+                    int userId = rs.getInt(1);
+                    int bookId = rs.getInt(2);
+                    if (haveUser && userId != currentUser) {
+                        consumer.accept(currentUser, distinctSorted(books, count));
+                        count = 0;
+                    }
+                    currentUser = userId;
+                    haveUser = true;
+                    if (count == books.length) books = Arrays.copyOf(books, count * 2);
+                    books[count++] = bookId;
+                }
+                if (haveUser) {
+                    consumer.accept(currentUser, distinctSorted(books, count));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** @return The distinct values of the first count entries, sorted ascending. */
+    static int[] distinctSorted(int[] values, int count) {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[unique++] = sorted[i];
+        }
+        return unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique);
+    }
+}
@@ -0,0 +1,153 @@
+package com.bookrecommender.ui;
+
+import com.bookrecommender.BookRecommendationSystem;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Text field with an autocomplete popup over book titles and authors.
+ * Every keystroke queries the in-memory prefix index (BookRecommendationSystem.searchBooks),
+ * which is fast enough to run directly on the EDT; when nothing starts with the text, a
+ * typo-tolerant search is tried instead. Up/Down move through the suggestions,
+ * Enter or a click picks one, Escape closes the popup.
+ */
+public class BookSearchField extends JTextField {
+
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int MIN_FUZZY_LENGTH = 4; // Shorter text is still being typed; don't guess typos
+
+    private final IntConsumer onBookSelected; // Receives the BookID of the picked suggestion
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<Suggestion> suggestions = new DefaultListModel<>();
+    private final JList<Suggestion> suggestionList = new JList<>(suggestions);
+    private boolean updatingText = false; // True while we set the text ourselves (no new search)
+
+    /** One row of the popup. */
+    private static final class Suggestion {
+        final int bookId;
+        final String label;
+
+        Suggestion(int bookId) {
+            this.bookId = bookId;
+            this.label = BookRecommendationSystem.getBookTitle(bookId) + " - "
+                    + BookRecommendationSystem.getBookAuthor(bookId) + " (ID " + bookId + ")";
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * @param columns        Width of the field in columns.
+     * @param onBookSelected Called on the EDT with the BookID the user picked.
+     */
+    public BookSearchField(int columns, IntConsumer onBookSelected) {
+        super(columns);
+        this.onBookSelected = onBookSelected;
+        setToolTipText("Type a title or author");
+
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFocusable(false); // Keep typing in the text field
+        JScrollPane listScroll = new JScrollPane(suggestionList);
+        listScroll.setBorder(BorderFactory.createEmptyBorder());
+        popup.add(listScroll);
+        popup.setFocusable(false);
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { refreshSuggestions(); }
+            @Override public void removeUpdate(DocumentEvent e) { refreshSuggestions(); }
+            @Override public void changedUpdate(DocumentEvent e) { }
+        });
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) return;
+                int index = suggestionList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        suggestionList.setSelectedIndex(Math.min(index + 1, suggestions.size() - 1));
+                        suggestionList.ensureIndexIsVisible(suggestionList.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        suggestionList.setSelectedIndex(Math.max(index - 1, 0));
+                        suggestionList.ensureIndexIsVisible(suggestionList.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (index >= 0) {
+                            pick(suggestions.get(index));
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = suggestionList.locationToIndex(e.getPoint());
+                if (index >= 0) pick(suggestions.get(index));
+            }
+        });
+    }
+
+    /** Re-runs the search for the current text and shows or hides the popup. */
+    private void refreshSuggestions() {
+        if (updatingText) return;
+        // Document events fire while the document is locked; update the popup afterwards
+        SwingUtilities.invokeLater(() -> {
+            suggestions.clear();
+            List<Integer> matches = BookRecommendationSystem.searchBooks(getText(), MAX_SUGGESTIONS);
+            if (matches.isEmpty() && getText().trim().length() >= MIN_FUZZY_LENGTH) {
+                // No title/author starts with this; maybe a typo ("tolkein")
+                matches = BookRecommendationSystem.searchBooksFuzzy(getText(), MAX_SUGGESTIONS);
+            }
+            for (int bookId : matches) {
+                suggestions.addElement(new Suggestion(bookId));
+            }
+            if (suggestions.isEmpty() || !isShowing()) {
+                popup.setVisible(false);
+                return;
+            }
+            suggestionList.setSelectedIndex(0);
+            suggestionList.setVisibleRowCount(Math.min(suggestions.size(), MAX_SUGGESTIONS));
+            // Resizing a visible popup re-shows it in place
+            popup.setPopupSize(Math.max(getWidth(), 360), suggestionList.getPreferredScrollableViewportSize().height + 4);
+            if (!popup.isVisible()) {
+                popup.show(this, 0, getHeight());
+            }
+            requestFocusInWindow();
+        });
+    }
+
+    private void pick(Suggestion suggestion) {
+        popup.setVisible(false);
+        updatingText = true;
+        try {
+            setText(BookRecommendationSystem.getBookTitle(suggestion.bookId));
+        } finally {
+            updatingText = false;
+        }
+        onBookSelected.accept(suggestion.bookId);
+    }
+}
@@ -0,0 +1,196 @@
+package com.bookrecommender.ui;
+
+import com.bookrecommender.BookRecommendationSystem;
+import com.bookrecommender.Page;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-only table model over a listing too large to hold in memory. The total row count is
+ * known up front (a COUNT query); rows are fetched in fixed-size blocks only when the table
+ * asks for them, i.e. when they scroll into view. Until a block arrives its cells show
+ * LOADING, and the rows are repainted once it has been fetched off the EDT.
+ * <p>
+ * At most maxCachedBlocks blocks are kept (least recently used are dropped). Fetches use
+ * keyset paging: the last row of block k is the position block k+1 continues after, and the
+ * first row of block k is the position block k-1 ends before. Both are remembered for every
+ * block ever fetched (two rows per block), so scrolling down or up reads each block with one
+ * indexed seek, forward or backward. A jump to an unseen block seeks from the nearest known
+ * position in either direction and skips the blocks in between, so only the jump itself
+ * pays for skipped rows.
+ * <p>
+ * All methods except the fetch itself run on the EDT.
+ *
+ * @param <R> Row type of the listing.
+ */
+final class LazyTableModel<R> extends AbstractTableModel {
+    static final String LOADING = "...";
+
+    // One loader thread for every lazy table: blocks are fetched in order, one connection at a time
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "table-block-loader");
+        t.setDaemon(true); // Never keeps the GUI alive on exit
+        return t;
+    });
+
+    /** Where the rows come from. Called on the loader thread. */
+    interface RowSource<R> {
+        /**
+         * Reads up to 'limit' rows that come 'skip' rows after 'after'.
+         * @param after The row to continue after, or null for the start of the listing.
+         */
+        Page<R> fetch(Connection conn, R after, int skip, int limit) throws SQLException;
+
+        /**
+         * Reads up to 'limit' rows that end 'skip' rows before 'before', in listing order.
+         * @param before A row of the listing.
+         */
+        Page<R> fetchBefore(Connection conn, R before, int skip, int limit) throws SQLException;
+
+        /** @return The cells of one row, in column order. */
+        Object[] cells(R row);
+    }
+
+    private final String[] columns;
+    private final RowSource<R> source;
+    private final int blockSize;
+    private final int maxCachedBlocks;
+    private int rowCount;
+    private volatile boolean disposed;
+
+    private final LinkedHashMap<Integer, Object[][]> blocks; // Block number -> cells, in LRU order
+    private final TreeMap<Integer, R> blockStarts = new TreeMap<>(); // Block number -> row it continues after
+    private final TreeMap<Integer, R> blockFirsts = new TreeMap<>(); // Block number -> its first row (guarded by blockStarts)
+    private final Set<Integer> requested = new HashSet<>();  // Queued or being fetched
+    private final Deque<Integer> queue = new ArrayDeque<>(); // Guarded by itself; newest request is fetched first
+
+    /**
+     * @param columns         Column names.
+     * @param rowCount        Total rows in the listing.
+     * @param source          Reads blocks of rows.
+     * @param blockSize       Rows per fetch (and per cached block).
+     * @param maxCachedBlocks Blocks kept in memory; also the most fetches left waiting.
+     */
+    LazyTableModel(String[] columns, int rowCount, RowSource<R> source, int blockSize, int maxCachedBlocks) {
+        this.columns = columns.clone();
+        this.rowCount = rowCount;
+        this.source = source;
+        this.blockSize = blockSize;
+        this.maxCachedBlocks = maxCachedBlocks;
+        this.blocks = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > LazyTableModel.this.maxCachedBlocks;
+            }
+        };
+        blockStarts.put(0, null); // Block 0 starts at the beginning
+    }
+
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return columns.length; }
+    @Override public String getColumnName(int column) { return columns[column]; }
+    @Override public boolean isCellEditable(int row, int column) { return false; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int block = row / blockSize;
+        Object[][] cells = blocks.get(block);
+        if (cells == null) {
+            request(block);
+            return LOADING;
+        }
+        int offset = row - block * blockSize;
+        return offset < cells.length ? cells[offset][column] : null;
+    }
+
+    /** @return Number of blocks held in memory (for the status line). */
+    int cachedBlocks() {
+        return blocks.size();
+    }
+
+    /** Stops loading; fetches still running are discarded. Call when the model is replaced. */
+    void dispose() {
+        disposed = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+        blocks.clear();
+    }
+
+    private void request(int block) {
+        if (disposed || !requested.add(block)) return;
+        synchronized (queue) {
+            queue.addLast(block);
+            if (queue.size() > maxCachedBlocks) {
+                // Scrolled past faster than we could load; those rows are no longer on screen
+                requested.remove(queue.removeFirst());
+            }
+        }
+        LOADER.execute(this::loadNext);
+    }
+
+    /** Loader thread: fetches the most recently requested block. */
+    private void loadNext() {
+        Integer block;
+        R from;
+        int skip;
+        boolean backward;
+        synchronized (queue) {
+            block = queue.pollLast();
+        }
+        if (block == null || disposed) return; // Dropped, or the model was replaced
+        synchronized (blockStarts) {
+            // Seek from whichever known position is closer: the end of an earlier block or the start of a later one
+            Map.Entry<Integer, R> earlier = blockStarts.floorEntry(block);
+            Map.Entry<Integer, R> later = blockFirsts.higherEntry(block);
+            int skipForward = (block - earlier.getKey()) * blockSize;
+            backward = later != null && (later.getKey() - block - 1) * blockSize < skipForward;
+            from = backward ? later.getValue() : earlier.getValue();
+            skip = backward ? (later.getKey() - block - 1) * blockSize : skipForward;
+        }
+        try (Connection conn = BookRecommendationSystem.getConnection()) {
+            Page<R> page = backward ? source.fetchBefore(conn, from, skip, blockSize) : source.fetch(conn, from, skip, blockSize);
+            Object[][] cells = new Object[page.items.size()][];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = source.cells(page.items.get(i));
+            }
+            if (!page.items.isEmpty()) {
+                synchronized (blockStarts) {
+                    blockStarts.put(block + 1, page.last());
+                    blockFirsts.put(block, page.first());
+                }
+            }
+            boolean hasMore = backward || page.hasMore; // A backward page always has the later block after it
+            SwingUtilities.invokeLater(() -> store(block, cells, hasMore));
+        } catch (SQLException e) {
+            System.err.println("Failed to load rows " + block * blockSize + "-" + ((block + 1) * blockSize - 1) + ": " + e.getMessage());
+            SwingUtilities.invokeLater(() -> requested.remove(block)); // Retried when the rows are painted again
+        }
+    }
+
+    private void store(int block, Object[][] cells, boolean hasMore) {
+        requested.remove(block);
+        if (disposed) return;
+        blocks.put(block, cells);
+        int first = block * blockSize;
+        if (!hasMore && first + cells.length < rowCount) {
+            // Rows were removed since the count; the listing ends here
+            int oldCount = rowCount;
+            rowCount = first + cells.length;
+            fireTableRowsDeleted(rowCount, oldCount - 1);
+        }
+        if (cells.length > 0) fireTableRowsUpdated(first, first + cells.length - 1);
+    }
+}
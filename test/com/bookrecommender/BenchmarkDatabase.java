@@ -0,0 +1,30 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Connection settings shared by the database benchmarks. Defaults match BookRecommendationSystem;
+ * override with -Dbench.url=..., -Dbench.user=..., -Dbench.password=...
+ * The benchmarks write to the tables they measure, so point them at a scratch copy of the database.
+ */
+final class BenchmarkDatabase {
+    static final String URL = System.getProperty("bench.url", "jdbc:mysql://localhost:3306/cp?rewriteBatchedStatements=true");
+    static final String USER = System.getProperty("bench.user", "root");
+    static final String PASSWORD = System.getProperty("bench.password", "password");
+
+    private BenchmarkDatabase() {
+    }
+
+    /** Opens a new connection with extra URL options appended (e.g. "&useServerPrepStmts=true"). */
+    static Connection open(String urlOptions) throws SQLException {
+        return DriverManager.getConnection(URL + urlOptions, USER, PASSWORD);
+    }
+
+    /** @return Per-operation summary line: count, total time, ops/s and mean latency. */
+    static String rate(String label, int operations, long nanos) {
+        return String.format("%-34s %8d ops in %7.1f ms: %9.0f ops/s, %8.1f us/op",
+                label, operations, nanos / 1e6, operations * 1e9 / Math.max(1, nanos), nanos / 1e3 / Math.max(1, operations));
+    }
+}
@@ -0,0 +1,234 @@
+package com.bookrecommender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test for catalog reloads (no database needed).
+ * Reader threads hammer recommendations, title lookups and search while one thread reloads
+ * the catalog over and over from an in-memory "books table", and writer threads add books
+ * and issue/return copies the way Admin does (commit, then update memory).
+ * <p>
+ * Checks that readers never see a partially built snapshot (graph or an index not matching
+ * the catalog, unresolvable BookIDs, versions going backwards), that a book never disappears
+ * once added, and that after the last reload the catalog and taxonomy counts match the table
+ * exactly, i.e. no change made during a reload was lost or applied twice.
+ * <p>
+ * Run: java -cp out:test-out com.bookrecommender.CatalogReloadStressTest [books] [reloads] [readers]
+ */
+public final class CatalogReloadStressTest {
+    private static final String[] GENRES = {"Fantasy / Epic", "Fantasy / Urban", "Science Fiction", "Mystery",
+            "History", "Romance", "Horror", "Poetry", "Biography", "Travel", "Science / Physics", "Science / Biology",
+            "Thriller", "Drama", "Philosophy", "Art", "Cooking", "Sports", "Religion", "Economics"};
+    private static final int COPIES = 3;
+
+    private final Object db = new Object(); // The "books table"; commits and reads are serialized on it
+    private final int[] available;
+    private final int[] issues;
+    private int bookCount;                   // BookIDs 1..bookCount exist
+
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicInteger lastAdded = new AtomicInteger();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile String firstFailure;
+
+    private CatalogReloadStressTest(int initialBooks, int maxAdds) {
+        available = new int[initialBooks + maxAdds + 1];
+        issues = new int[available.length];
+        for (int id = 1; id <= initialBooks; id++) {
+            available[id] = COPIES;
+        }
+        bookCount = initialBooks;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int reloads = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        boolean passed = new CatalogReloadStressTest(books, 100_000).run(reloads, readers);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(int reloads, int readerCount) throws Exception {
+        BookRecommendationSystem.CatalogSource source = new BookRecommendationSystem.CatalogSource() {
+            @Override
+            public BookCatalog readBooks(Runnable readStarting) {
+                synchronized (db) {
+                    readStarting.run();
+                    BookCatalog.Builder builder = new BookCatalog.Builder(bookCount);
+                    for (int id = 1; id <= bookCount; id++) {
+                        builder.add(id, title(id), author(id), genre(id), 1950 + id % 70, available[id]);
+                    }
+                    return builder.build();
+                }
+            }
+
+            @Override
+            public IntIntHashMap readIssueCounts(Runnable readStarting) {
+                synchronized (db) {
+                    readStarting.run();
+                    IntIntHashMap counts = new IntIntHashMap(1024, 0);
+                    for (int id = 1; id <= bookCount; id++) {
+                        if (issues[id] > 0) counts.put(id, issues[id]);
+                    }
+                    return counts;
+                }
+            }
+        };
+        BookRecommendationSystem.reloadCatalog(source);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readerCount; i++) {
+            threads.add(new Thread(this::readLoop, "reader-" + i));
+        }
+        threads.add(new Thread(this::addLoop, "adder"));
+        for (int i = 0; i < 2; i++) {
+            long seed = i;
+            threads.add(new Thread(() -> circulationLoop(seed), "circulation-" + i));
+        }
+        for (Thread t : threads) t.start();
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < reloads; i++) {
+            BookRecommendationSystem.reloadCatalog(source);
+        }
+        long reloadMillis = System.currentTimeMillis() - start;
+        stop.set(true);
+        for (Thread t : threads) t.join();
+
+        verifyFinalState();
+        System.out.println(reloads + " reloads in " + reloadMillis + " ms with " + readerCount + " readers; "
+                + reads.get() + " reads, " + bookCount + " books at the end.");
+        if (failures.get() == 0) {
+            System.out.println("PASS");
+            return true;
+        }
+        System.out.println("FAIL: " + failures.get() + " failures; first: " + firstFailure);
+        return false;
+    }
+
+    private void readLoop() {
+        Random random = new Random(Thread.currentThread().getName().hashCode());
+        long lastVersion = 0;
+        while (!stop.get()) {
+            // A book whose add has returned must stay visible through every later reload
+            int added = lastAdded.get();
+            if (added > 0 && "Unknown Title".equals(BookRecommendationSystem.getBookTitle(added))) {
+                fail("Book " + added + " disappeared after it was added");
+            }
+
+            CatalogSnapshot snapshot = BookRecommendationSystem.snapshot();
+            BookCatalog books = snapshot.catalog();
+            int size = books.size();
+            if (snapshot.version() < lastVersion) {
+                fail("Version went back from " + lastVersion + " to " + snapshot.version());
+            }
+            lastVersion = snapshot.version();
+            if (snapshot.graph().nodeCount() != size || snapshot.prefixIndex().bookCount() != size
+                    || snapshot.textIndex().bookCount() != size || snapshot.fuzzyIndex().bookCount() != size) {
+                fail("Snapshot " + snapshot.version() + " is partially built (" + size + " books)");
+            }
+            if (size == 0) continue;
+
+            IntIntHashMap history = new IntIntHashMap(4, 0);
+            for (int i = 0; i < 3; i++) {
+                int slot = random.nextInt(size);
+                if (books.slotOf(books.bookIdAt(slot)) != slot) {
+                    fail("Slot " + slot + " does not resolve in snapshot " + snapshot.version());
+                }
+                history.put(slot, 1);
+            }
+            for (int bookId : BookRecommendationSystem.rankByOverlap(books, history, 10, 0, RecommendationFilter.NONE)) {
+                if (books.slotOf(bookId) < 0) fail("Recommended BookID " + bookId + " is not in its snapshot");
+            }
+            for (int bookId : BookRecommendationSystem.searchBooks("book " + (1 + random.nextInt(size)), 5)) {
+                if ("Unknown Title".equals(BookRecommendationSystem.getBookTitle(bookId))) {
+                    fail("Search returned BookID " + bookId + " that is not in the catalog");
+                }
+            }
+            reads.incrementAndGet();
+        }
+    }
+
+    /** Adds books like Admin.addNewBook: INSERT commits, then the book is applied in memory. */
+    private void addLoop() {
+        while (!stop.get() && bookCount + 1 < available.length) {
+            int id;
+            synchronized (db) {
+                id = ++bookCount;
+                available[id] = COPIES;
+                BookRecommendationSystem.addBookToCatalog(id, title(id), author(id), genre(id), 1950 + id % 70, COPIES);
+            }
+            lastAdded.set(id);
+            pause();
+        }
+    }
+
+    /** Issues and returns random books: the copy count (and issue count) commits, then memory follows. */
+    private void circulationLoop(long seed) {
+        Random random = new Random(seed);
+        while (!stop.get()) {
+            synchronized (db) {
+                int id = 1 + random.nextInt(bookCount);
+                if (random.nextBoolean() && available[id] > 0) {
+                    available[id]--;
+                    issues[id]++;
+                    BookRecommendationSystem.adjustAvailableCopies(id, -1);
+                    BookRecommendationSystem.onBookIssued(random.nextInt(1_000), id, new int[0]);
+                } else if (available[id] < COPIES) {
+                    available[id]++;
+                    BookRecommendationSystem.adjustAvailableCopies(id, 1);
+                }
+            }
+        }
+    }
+
+    /** After the last reload (which ran concurrently with the writers) memory must equal the table. */
+    private void verifyFinalState() {
+        BookCatalog books = BookRecommendationSystem.getCatalog();
+        long expectedCopies = 0, expectedIssues = 0;
+        if (books.size() != bookCount) fail("Catalog has " + books.size() + " books, table has " + bookCount);
+        for (int id = 1; id <= bookCount; id++) {
+            int slot = books.slotOf(id);
+            if (slot < 0) {
+                fail("Book " + id + " is missing from the catalog");
+            } else if (books.availableCopiesAt(slot) != available[id]) {
+                fail("Book " + id + " has " + books.availableCopiesAt(slot) + " available copies in memory, "
+                        + available[id] + " in the table");
+            }
+            expectedCopies += available[id];
+            expectedIssues += issues[id];
+        }
+        long taxonomyBooks = 0, taxonomyCopies = 0, taxonomyIssues = 0;
+        for (String[] genre : BookRecommendationSystem.browseGenres(null, null)) {
+            taxonomyBooks += Long.parseLong(genre[1]);
+            taxonomyCopies += Long.parseLong(genre[2]);
+            taxonomyIssues += Long.parseLong(genre[3]);
+        }
+        if (taxonomyBooks != bookCount || taxonomyCopies != expectedCopies || taxonomyIssues != expectedIssues) {
+            fail("Taxonomy totals " + taxonomyBooks + "/" + taxonomyCopies + "/" + taxonomyIssues
+                    + " (books/copies/issues) differ from the table: " + bookCount + "/" + expectedCopies + "/" + expectedIssues);
+        }
+    }
+
+    private void fail(String message) {
+        if (failures.getAndIncrement() == 0) firstFailure = message;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String title(int id) { return "Book " + id; }
+    private static String author(int id) { return "Author " + (id % 700); }
+    private static String genre(int id) { return GENRES[id % GENRES.length]; }
+}
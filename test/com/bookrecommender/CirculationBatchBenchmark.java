@@ -0,0 +1,130 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares CirculationBatch.process with applying the same desk scans one at a time
+ * (Admin.issueBookToStudent / Admin.returnBook, one borrowed connection per scan, like the UI).
+ * Both run through a pool configured like the application's (server-side prepares, 64 cached
+ * statements per connection); the cache counters after each run show whether the batch's
+ * IN-list lookups stay within a few statement shapes.
+ * <p>
+ * Scratch students and books are created (every book has a copy for every student), each
+ * student issues and then returns each book, once per mode. Everything is deleted at the end.
+ * <p>
+ * Run: java -cp out:test-out:mysql-connector-j-9.2.0.jar com.bookrecommender.CirculationBatchBenchmark
+ *      [students] [books]
+ */
+public final class CirculationBatchBenchmark {
+    private static final String USERNAME_PREFIX = "circbench";
+    private static final String TITLE = "Circulation Benchmark";
+    private static final int CACHE_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int books = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        try (Connection admin = BenchmarkDatabase.open("");
+             ConnectionPool pool = new ConnectionPool(() -> BenchmarkDatabase.open("&useServerPrepStmts=true"),
+                     1, 1, 10_000, 60_000, CACHE_SIZE)) {
+            List<Integer> bookIds = setUp(admin, students, books);
+            try {
+                List<CirculationBatch.Scan> issues = new ArrayList<>();
+                List<CirculationBatch.Scan> returns = new ArrayList<>();
+                for (int s = 0; s < students; s++) {
+                    for (int bookId : bookIds) {
+                        issues.add(new CirculationBatch.Scan(CirculationBatch.Action.ISSUE, USERNAME_PREFIX + s, bookId));
+                        returns.add(new CirculationBatch.Scan(CirculationBatch.Action.RETURN, USERNAME_PREFIX + s, bookId));
+                    }
+                }
+                runOneByOne(pool, "issues, one by one", issues);
+                runOneByOne(pool, "returns, one by one", returns);
+                System.out.println("Pool after one-by-one: " + pool);
+                runBatch(pool, "issues, batched", issues);
+                runBatch(pool, "returns, batched", returns);
+                System.out.println("Pool after batches: " + pool);
+            } finally {
+                tearDown(admin);
+            }
+        }
+    }
+
+    private static void runOneByOne(ConnectionPool pool, String label, List<CirculationBatch.Scan> scans) throws SQLException {
+        int failed = 0;
+        long start = System.nanoTime();
+        for (CirculationBatch.Scan scan : scans) {
+            try (Connection conn = pool.borrow()) {
+                String outcome = scan.action == CirculationBatch.Action.ISSUE
+                        ? Admin.issueBookToStudent(conn, scan.username, scan.bookId)
+                        : Admin.returnBook(conn, scan.username, scan.bookId);
+                if (!outcome.startsWith("Success")) failed++;
+            }
+        }
+        report(label, scans.size(), System.nanoTime() - start, failed);
+    }
+
+    private static void runBatch(ConnectionPool pool, String label, List<CirculationBatch.Scan> scans) throws SQLException {
+        long start = System.nanoTime();
+        CirculationBatch.Result result;
+        try (Connection conn = pool.borrow()) {
+            result = CirculationBatch.process(conn, scans);
+        }
+        report(label, scans.size(), System.nanoTime() - start, scans.size() - result.succeeded);
+    }
+
+    private static void report(String label, int scans, long nanos, int failed) {
+        System.out.println(BenchmarkDatabase.rate(label, scans, nanos) + (failed > 0 ? " (" + failed + " refused!)" : ""));
+    }
+
+    /** Creates the students and books. @return The new BookIDs. */
+    private static List<Integer> setUp(Connection conn, int students, int books) throws SQLException {
+        tearDown(conn); // Leftovers of an interrupted run
+        String userQuery = "INSERT INTO users (Username, Password, Role, Name, Email) VALUES (?, 'x', 'student', ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(userQuery)) {
+            for (int i = 0; i < students; i++) {
+                pstmt.setString(1, USERNAME_PREFIX + i);
+                pstmt.setString(2, "Benchmark Student " + i);
+                pstmt.setString(3, USERNAME_PREFIX + i + "@example.com");
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        List<Integer> bookIds = new ArrayList<>();
+        String bookQuery = "INSERT INTO books (Title, Author, Genre, Publication, TotalCopies, AvailableCopies) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(bookQuery, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < books; i++) {
+                pstmt.setString(1, TITLE);
+                pstmt.setString(2, "Benchmark " + i);
+                pstmt.setString(3, "Benchmark");
+                pstmt.setInt(4, 2000);
+                pstmt.setInt(5, students);
+                pstmt.setInt(6, students);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    keys.next();
+                    bookIds.add(keys.getInt(1));
+                }
+            }
+        }
+        return bookIds;
+    }
+
+    private static void tearDown(Connection conn) throws SQLException {
+        String students = "(SELECT UserID FROM users WHERE Username LIKE '" + USERNAME_PREFIX + "%')";
+        String[] cleanup = {
+                "DELETE FROM book_issues WHERE UserID IN " + students,
+                "DELETE FROM user_book_history WHERE UserID IN " + students,
+                "DELETE FROM users WHERE Username LIKE '" + USERNAME_PREFIX + "%'",
+                "DELETE FROM books WHERE Title = '" + TITLE + "'"
+        };
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : cleanup) stmt.executeUpdate(sql);
+        }
+    }
+}
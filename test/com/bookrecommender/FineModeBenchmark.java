@@ -0,0 +1,125 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Compares FineMode.STORED and FineMode.DERIVED on a large loans table.
+ * <ul>
+ *   <li>Writes: the daily overdue sweep STORED needs (every overdue loan rewritten), against
+ *       none for DERIVED.</li>
+ *   <li>Reads: the library-wide outstanding fine total, the overdue count, and a full scan of
+ *       the admin issued-books listing (keyset pages of Admin.MAX_PAGE_SIZE) in each mode.</li>
+ * </ul>
+ * With seedLoans &gt; 0, that many synthetic open loans are inserted first (student x book
+ * pairs without an open loan, due dates spread over the last 60 days and the next 14) and
+ * deleted again at the end. The sweep also updates pre-existing open loans; use a scratch database.
+ * <p>
+ * Run: java -cp out:test-out:mysql-connector-j-9.2.0.jar com.bookrecommender.FineModeBenchmark [seedLoans]
+ */
+public final class FineModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int seedLoans = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        try (Connection conn = BenchmarkDatabase.open("")) {
+            long[] seeded = seedLoans > 0 ? seed(conn, seedLoans) : null;
+            try {
+                System.out.println("Open loans: " + count(conn, "Status != 'returned'")
+                        + ", overdue: " + count(conn, "Status != 'returned' AND DueDate < CURDATE()"));
+                for (FineMode mode : FineMode.values()) {
+                    BookRecommendationSystem.setFineMode(mode);
+                    measureReads(conn, mode);
+                }
+                measureSweep(conn);
+                System.out.println("DERIVED daily writes: 0 rows (fines are computed by the reading queries).");
+            } finally {
+                BookRecommendationSystem.setFineMode(BookRecommendationSystem.DEFAULT_FINE_MODE);
+                if (seeded != null) removeSeeded(conn, seeded);
+            }
+        }
+    }
+
+    /** Inserts synthetic open loans in one INSERT ... SELECT. @return {first IssueID, last IssueID}. */
+    private static long[] seed(Connection conn, int loans) throws SQLException {
+        long before = maxIssueId(conn);
+        String insert = "INSERT INTO book_issues (BookID, UserID, IssueDate, DueDate, Status) " +
+                        "SELECT p.BookID, p.UserID, p.DueDate - INTERVAL " + Admin.LOAN_PERIOD_DAYS + " DAY, p.DueDate, 'issued' " +
+                        "FROM (SELECT b.BookID, u.UserID, " +
+                        "CURDATE() + INTERVAL (14 - (u.UserID * 31 + b.BookID) % 74) DAY AS DueDate " +
+                        "FROM users u CROSS JOIN books b WHERE u.Role = 'student' AND NOT EXISTS " +
+                        "(SELECT 1 FROM book_issues bi WHERE bi.UserID = u.UserID AND bi.BookID = b.BookID " +
+                        "AND bi.Status != 'returned') LIMIT ?) p";
+        long start = System.nanoTime();
+        int inserted;
+        try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+            pstmt.setInt(1, loans);
+            inserted = pstmt.executeUpdate();
+        }
+        System.out.println(BenchmarkDatabase.rate("seed synthetic loans", inserted, System.nanoTime() - start));
+        if (inserted < loans) {
+            System.out.println("Warning: only " + inserted + " student/book pairs were free; add students or books for more.");
+        }
+        return new long[]{before + 1, maxIssueId(conn)};
+    }
+
+    private static void measureReads(Connection conn, FineMode mode) throws SQLException {
+        String totalQuery = "SELECT SUM(" + mode.fineColumn("bi") + ") FROM book_issues bi WHERE bi.Status != 'returned'";
+        long start = System.nanoTime();
+        double total;
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(totalQuery)) {
+            total = rs.next() ? rs.getDouble(1) : 0;
+        }
+        System.out.println(BenchmarkDatabase.rate(mode + " outstanding fine total", 1, System.nanoTime() - start)
+                + String.format(" ($%.2f)", total));
+
+        start = System.nanoTime();
+        int overdue = Admin.countIssuedBooks(conn, null, true);
+        System.out.println(BenchmarkDatabase.rate(mode + " overdue count", 1, System.nanoTime() - start)
+                + " (" + overdue + ")");
+
+        start = System.nanoTime();
+        int rows = 0;
+        IssuedBookRow after = null;
+        Page<IssuedBookRow> page;
+        do {
+            page = Admin.getIssuedBooksPage(conn, after, Admin.MAX_PAGE_SIZE, null, false);
+            rows += page.items.size();
+            after = page.last();
+        } while (page.hasMore);
+        System.out.println(BenchmarkDatabase.rate(mode + " issued-books listing (rows)", rows, System.nanoTime() - start));
+    }
+
+    /** One full STORED sweep: what the nightly job writes every day while the loans stay open. */
+    private static void measureSweep(Connection conn) throws SQLException {
+        OverdueSweeper sweeper = new OverdueSweeper();
+        long start = System.nanoTime();
+        OverdueSweeper.Pass pass = sweeper.sweep(conn); // Includes loading the open loans into the heap
+        System.out.println(BenchmarkDatabase.rate("STORED daily sweep (rows written)", pass.rows, System.nanoTime() - start)
+                + " (" + pass.rowsPerSecond() + " rows/s excluding the load)");
+    }
+
+    private static void removeSeeded(Connection conn, long[] range) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM book_issues WHERE IssueID BETWEEN ? AND ?")) {
+            pstmt.setLong(1, range[0]);
+            pstmt.setLong(2, range[1]);
+            System.out.println("Removed " + pstmt.executeUpdate() + " synthetic loans.");
+        }
+    }
+
+    private static long maxIssueId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(IssueID), 0) FROM book_issues")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static int count(Connection conn, String where) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM book_issues WHERE " + where)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
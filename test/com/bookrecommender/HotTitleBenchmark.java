@@ -0,0 +1,208 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention benchmark for Admin.issueBookToStudent on one hot title.
+ * A scratch book with K copies and M scratch students are created; in every round the M
+ * threads (one connection each) are released together and each tries to issue the book
+ * twice to its own student. Exactly min(K, M) issues must succeed: the rest are refused
+ * for lack of copies, and every second attempt by a student who got a copy is refused as
+ * a duplicate. After each round the open issues are checked (no student holds the book
+ * twice, AvailableCopies never below zero and equal to K minus the successes), then reset.
+ * <p>
+ * Prints issues/s and attempts/s over all rounds; exits with 1 if a check fails. The
+ * scratch book, students, issues and history rows are deleted at the end.
+ * <p>
+ * Run: java -cp out:test-out:mysql-connector-j-9.2.0.jar com.bookrecommender.HotTitleBenchmark
+ *      [threads] [copies] [rounds]
+ */
+public final class HotTitleBenchmark {
+    private static final String USERNAME_PREFIX = "hottitlebench";
+    private static final int ATTEMPTS_PER_THREAD = 2;
+
+    private final int threads;
+    private final int copies;
+    private int bookId;
+    private int failures;
+
+    private HotTitleBenchmark(int threads, int copies) {
+        this.threads = threads;
+        this.copies = copies;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        boolean passed = new HotTitleBenchmark(threads, copies).run(rounds);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(int rounds) throws Exception {
+        List<Connection> connections = new ArrayList<>();
+        try (Connection admin = BenchmarkDatabase.open("")) {
+            setUp(admin);
+            try {
+                for (int i = 0; i < threads; i++) {
+                    connections.add(BenchmarkDatabase.open(""));
+                }
+                int expected = Math.min(copies, threads);
+                long issued = 0, nanos = 0;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    int successes = race(connections);
+                    nanos += System.nanoTime() - start;
+                    issued += successes;
+                    if (successes != expected) {
+                        fail("Round " + round + ": " + successes + " issues succeeded, expected " + expected);
+                    }
+                    verify(admin, round, successes);
+                    reset(admin);
+                }
+                int attempts = rounds * threads * ATTEMPTS_PER_THREAD;
+                System.out.println(threads + " threads, " + copies + " copies, " + rounds + " rounds:");
+                System.out.println(BenchmarkDatabase.rate("issues (successful)", (int) issued, nanos));
+                System.out.println(BenchmarkDatabase.rate("issue attempts", attempts, nanos));
+            } finally {
+                for (Connection conn : connections) conn.close();
+                tearDown(admin);
+            }
+        }
+        if (failures == 0) {
+            System.out.println("PASS");
+            return true;
+        }
+        System.out.println("FAIL: " + failures + " failed checks.");
+        return false;
+    }
+
+    /** Releases every thread at once; each issues the book to its own student twice. @return Successful issues. */
+    private int race(List<Connection> connections) throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Connection conn = connections.get(i);
+            String username = USERNAME_PREFIX + i;
+            workers.add(new Thread(() -> {
+                try {
+                    go.await();
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                        String result = Admin.issueBookToStudent(conn, username, bookId);
+                        if (result.startsWith("Success")) {
+                            successes.incrementAndGet();
+                        } else if (result.contains("transaction failed")) {
+                            System.err.println(result); // A refusal is expected; a failed transaction is not
+                            errors.incrementAndGet();
+                        }
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Issue failed: " + e.getMessage());
+                    errors.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "issuer-" + i));
+        }
+        for (Thread t : workers) t.start();
+        go.countDown();
+        for (Thread t : workers) t.join();
+        if (errors.get() > 0) fail(errors.get() + " issue attempts failed with a database error");
+        return successes.get();
+    }
+
+    /** Checks the committed state against the successes the threads saw. */
+    private void verify(Connection conn, int round, int successes) throws SQLException {
+        int open = queryInt(conn, "SELECT COUNT(*) FROM book_issues WHERE BookID = ? AND Status != 'returned'");
+        int duplicates = queryInt(conn, "SELECT COUNT(*) FROM (SELECT UserID FROM book_issues " +
+                "WHERE BookID = ? AND Status != 'returned' GROUP BY UserID HAVING COUNT(*) > 1) d");
+        int available = queryInt(conn, "SELECT AvailableCopies FROM books WHERE BookID = ?");
+        if (open != successes) fail("Round " + round + ": " + open + " open issues, " + successes + " reported");
+        if (duplicates > 0) fail("Round " + round + ": " + duplicates + " students hold the book twice");
+        if (available < 0) fail("Round " + round + ": AvailableCopies is " + available);
+        if (available != copies - open) {
+            fail("Round " + round + ": AvailableCopies is " + available + " with " + open + " of " + copies + " copies out");
+        }
+    }
+
+    private void setUp(Connection conn) throws SQLException {
+        tearDown(conn); // Leftovers of an interrupted run
+        String bookQuery = "INSERT INTO books (Title, Author, Genre, Publication, TotalCopies, AvailableCopies) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(bookQuery, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, "Hot Title Benchmark");
+            pstmt.setString(2, "Benchmark");
+            pstmt.setString(3, "Benchmark");
+            pstmt.setInt(4, 2000);
+            pstmt.setInt(5, copies);
+            pstmt.setInt(6, copies);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                bookId = keys.getInt(1);
+            }
+        }
+        String userQuery = "INSERT INTO users (Username, Password, Role, Name, Email) VALUES (?, 'x', 'student', ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(userQuery)) {
+            for (int i = 0; i < threads; i++) {
+                pstmt.setString(1, USERNAME_PREFIX + i);
+                pstmt.setString(2, "Benchmark Student " + i);
+                pstmt.setString(3, USERNAME_PREFIX + i + "@example.com");
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /** Removes this round's issues and history and puts every copy back. */
+    private void reset(Connection conn) throws SQLException {
+        update(conn, "DELETE FROM book_issues WHERE BookID = ?");
+        update(conn, "DELETE FROM user_book_history WHERE BookID = ?");
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE books SET AvailableCopies = TotalCopies WHERE BookID = ?")) {
+            pstmt.setInt(1, bookId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void tearDown(Connection conn) throws SQLException {
+        String[] cleanup = {
+                "DELETE FROM book_issues WHERE UserID IN (SELECT UserID FROM users WHERE Username LIKE '" + USERNAME_PREFIX + "%')",
+                "DELETE FROM user_book_history WHERE UserID IN (SELECT UserID FROM users WHERE Username LIKE '" + USERNAME_PREFIX + "%')",
+                "DELETE FROM users WHERE Username LIKE '" + USERNAME_PREFIX + "%'",
+                "DELETE FROM books WHERE Title = 'Hot Title Benchmark' AND Author = 'Benchmark'"
+        };
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : cleanup) stmt.executeUpdate(sql);
+        }
+    }
+
+    private void update(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private int queryInt(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void fail(String message) {
+        if (failures++ == 0) System.out.println("First failure: " + message);
+        System.err.println(message);
+    }
+}
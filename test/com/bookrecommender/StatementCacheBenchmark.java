@@ -0,0 +1,77 @@
+package com.bookrecommender;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Measures what the per-connection statement cache saves on the login and issue paths.
+ * Two pools run the same calls: one as the application configures it (server-side
+ * prepares, 64 cached statements per connection), one uncached with client-side prepares.
+ * Every call borrows a connection from the pool, like the UI does.
+ * <p>
+ * The issue path issues a book and returns it again (Admin.issueBookToStudent, then
+ * Admin.returnBook), so it writes book_issues and user_book_history rows. Use a scratch database.
+ * <p>
+ * Run: java -cp out:test-out:mysql-connector-j-9.2.0.jar com.bookrecommender.StatementCacheBenchmark
+ *      studentUsername studentPassword bookId [iterations]
+ */
+public final class StatementCacheBenchmark {
+    private static final int CACHE_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: StatementCacheBenchmark studentUsername studentPassword bookId [iterations]");
+            System.exit(2);
+        }
+        String username = args[0];
+        String password = args[1];
+        int bookId = Integer.parseInt(args[2]);
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+        try (ConnectionPool uncached = new ConnectionPool(() -> BenchmarkDatabase.open(""), 1, 1, 10_000, 60_000, 0);
+             ConnectionPool cached = new ConnectionPool(() -> BenchmarkDatabase.open("&useServerPrepStmts=true"),
+                     1, 1, 10_000, 60_000, CACHE_SIZE)) {
+            for (int round = 0; round < 2; round++) { // Round 0 warms up the JIT and both servers' caches
+                boolean report = round == 1;
+                int n = report ? iterations : Math.max(1, iterations / 10);
+                runLogins(uncached, "login, uncached", username, password, n, report);
+                runLogins(cached, "login, server prepares + cache", username, password, n, report);
+                runIssues(uncached, "issue+return, uncached", username, bookId, n, report);
+                runIssues(cached, "issue+return, server prepares + cache", username, bookId, n, report);
+            }
+            System.out.println("Cached pool: " + cached);
+            System.out.printf("Statement cache hit ratio: %.1f%%%n", cached.getStatementHitRatio() * 100);
+        }
+    }
+
+    private static void runLogins(ConnectionPool pool, String label, String username, String password, int n,
+                                  boolean report) throws SQLException {
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            try (Connection conn = pool.borrow()) {
+                if (Student.login(conn, username, password) == null) {
+                    throw new IllegalStateException("Login failed for '" + username + "'; check the credentials.");
+                }
+            }
+        }
+        if (report) System.out.println(BenchmarkDatabase.rate(label, n, System.nanoTime() - start));
+    }
+
+    private static void runIssues(ConnectionPool pool, String label, String username, int bookId, int n,
+                                  boolean report) throws SQLException {
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            try (Connection conn = pool.borrow()) {
+                String issued = Admin.issueBookToStudent(conn, username, bookId);
+                if (!issued.startsWith("Success")) {
+                    throw new IllegalStateException("Issue failed: " + issued);
+                }
+                String returned = Admin.returnBook(conn, username, bookId);
+                if (!returned.startsWith("Success")) {
+                    throw new IllegalStateException("Return failed: " + returned);
+                }
+            }
+        }
+        if (report) System.out.println(BenchmarkDatabase.rate(label, n, System.nanoTime() - start));
+    }
+}